@@ -20,6 +20,8 @@ import static com.exactpro.sf.common.messages.structures.DictionaryConstants.ATT
 import static com.exactpro.sf.common.messages.structures.StructureUtils.getAttributeValue;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -42,12 +44,21 @@ public abstract class AbstractMessageFactory implements IMessageFactory {
     private String namespace;
     private SailfishURI dictionaryURI;
     private IDictionaryStructure dictionary;
+    private Map<String, FieldIndex> fieldIndexes = Collections.emptyMap();
 
     @Override
     public void init(SailfishURI dictionaryURI, IDictionaryStructure dictionary) {
         this.dictionaryURI = Objects.requireNonNull(dictionaryURI, "dictionaryURI cannot be null");
         this.dictionary = Objects.requireNonNull(dictionary, "dictionary cannot be null");
         this.namespace = dictionary.getNamespace();
+
+        if (isIndexedStorageEnabled()) {
+            Map<String, FieldIndex> indexes = new HashMap<>();
+            for (IMessageStructure messageStructure : dictionary.getMessages().values()) {
+                indexes.put(messageStructure.getName(), FieldIndex.of(messageStructure));
+            }
+            this.fieldIndexes = indexes;
+        }
     }
 
     @SuppressWarnings("deprecation") // Apply FIXME comments afte remiving
@@ -103,23 +114,56 @@ public abstract class AbstractMessageFactory implements IMessageFactory {
 
     @Override
     public IMessage createMessage(MsgMetaData metaData) {
+        IMessageStructure messageStructure = null;
+
         if (metaData.getMsgNamespace().equals(namespace)) {
             metaData.setDictionaryURI(dictionaryURI);
             metaData.setProtocol(getProtocol());
 
             if (dictionary != null) { //FIXME: Remove this check after removing init(String namespace, SailfishURI dictionaryURI) method
-                IMessageStructure messageStructure = dictionary.getMessages().get(metaData.getMsgName());
+                messageStructure = dictionary.getMessages().get(metaData.getMsgName());
                 if (messageStructure != null) {
                     Boolean isAdmin = getAttributeValue(messageStructure, ATTRIBUTE_IS_ADMIN);
                     metaData.setAdmin(BooleanUtils.toBoolean(isAdmin));
                 }
             }
         }
-        IMessage message = new MapMessage(metaData);
+        IMessage message = createMessageInstance(metaData, messageStructure);
         createComplexFields(message);
         return message;
     }
 
+    /**
+     * Returns {@code true} if messages described in the dictionary should be created as {@link IndexedMessage}.
+     * Field ordinals for such messages are assigned once in {@link #init(SailfishURI, IDictionaryStructure)}
+     */
+    protected boolean isIndexedStorageEnabled() {
+        return false;
+    }
+
+    /**
+     * Returns the field index assigned to the message in {@link #init(SailfishURI, IDictionaryStructure)}
+     * or {@code null} if indexed storage is disabled or the message isn't described in the dictionary
+     */
+    protected FieldIndex getFieldIndex(String messageName) {
+        return fieldIndexes.get(messageName);
+    }
+
+    /**
+     * Creates an empty message instance
+     * @param metaData message metadata
+     * @param messageStructure structure of the message from the dictionary or {@code null} if it is unknown
+     */
+    protected IMessage createMessageInstance(MsgMetaData metaData, IMessageStructure messageStructure) {
+        if (messageStructure != null) {
+            FieldIndex index = getFieldIndex(messageStructure.getName());
+            if (index != null) {
+                return new IndexedMessage(metaData, index);
+            }
+        }
+        return new MapMessage(metaData);
+    }
+
     protected void createComplexFields(IMessage message) {
         if (dictionary != null) { //FIXME: Remove this check after removing init(String namespace, SailfishURI dictionaryURI) method
             IMessageStructure messageStructure = dictionary.getMessages().get(message.getName());
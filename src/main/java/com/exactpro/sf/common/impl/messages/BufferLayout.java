@@ -0,0 +1,459 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+
+/**
+ * Layout of a {@link BufferMessage} record computed from the message structure.
+ * A record starts with a presence bitmap followed by a slot per field in the dictionary order.
+ * Fixed-width values are stored in the slots. Strings, decimals, sub-messages and collections are stored
+ * separately in the same {@link MessageBuffer} and the slot keeps their offset.
+ * <p>
+ * Layouts of the sub-messages are computed on the first access, so recursive structures are supported.
+ */
+public final class BufferLayout {
+    private final String namespace;
+    private final String name;
+    private final FieldIndex index;
+    private final IFieldStructure[] fields;
+    private final SlotType[] types;
+    private final SlotType[] elementTypes;
+    private final int[] slotOffsets;
+    private final int bitmapSize;
+    private final int recordSize;
+    private final AtomicReferenceArray<BufferLayout> subLayouts;
+
+    private BufferLayout(String namespace, String name, Map<String, IFieldStructure> fieldStructures) {
+        this.namespace = namespace;
+        this.name = name;
+        this.index = FieldIndex.of(name, fieldStructures.keySet());
+        this.fields = fieldStructures.values().toArray(new IFieldStructure[0]);
+        this.types = new SlotType[fields.length];
+        this.elementTypes = new SlotType[fields.length];
+        this.slotOffsets = new int[fields.length];
+        this.bitmapSize = (fields.length + 7) >>> 3;
+        this.subLayouts = new AtomicReferenceArray<>(fields.length);
+
+        int offset = bitmapSize;
+
+        for (int ordinal = 0; ordinal < fields.length; ordinal++) {
+            IFieldStructure field = fields[ordinal];
+            SlotType type = field.isComplex() ? SlotType.MESSAGE : SlotType.of(field);
+
+            if (field.isCollection()) {
+                elementTypes[ordinal] = type;
+                type = SlotType.LIST;
+            }
+
+            types[ordinal] = type;
+            slotOffsets[ordinal] = offset;
+            offset += type.width;
+        }
+
+        this.recordSize = offset;
+    }
+
+    public static BufferLayout of(IMessageStructure messageStructure) {
+        Objects.requireNonNull(messageStructure, "messageStructure cannot be null");
+        return new BufferLayout(messageStructure.getNamespace(), messageStructure.getName(), messageStructure.getFields());
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns size of a record without the values stored outside of it
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    FieldIndex getIndex() {
+        return index;
+    }
+
+    int size() {
+        return fields.length;
+    }
+
+    int getBitmapSize() {
+        return bitmapSize;
+    }
+
+    SlotType getType(int ordinal) {
+        return types[ordinal];
+    }
+
+    SlotType getElementType(int ordinal) {
+        return elementTypes[ordinal];
+    }
+
+    int getSlotOffset(int ordinal) {
+        return slotOffsets[ordinal];
+    }
+
+    BufferLayout getSubLayout(int ordinal) {
+        BufferLayout layout = subLayouts.get(ordinal);
+
+        if (layout == null) {
+            IFieldStructure field = fields[ordinal];
+            layout = new BufferLayout(field.getNamespace(), field.getReferenceName(), field.getFields());
+
+            if (!subLayouts.compareAndSet(ordinal, null, layout)) {
+                layout = subLayouts.get(ordinal);
+            }
+        }
+
+        return layout;
+    }
+
+    enum SlotType {
+        BOOLEAN(1, Boolean.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().get(position) != 0;
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().put(position, (Boolean)value ? (byte)1 : (byte)0);
+            }
+        },
+        BYTE(1, Byte.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().get(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().put(position, (Byte)value);
+            }
+        },
+        SHORT(2, Short.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getShort(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putShort(position, (Short)value);
+            }
+        },
+        CHAR(2, Character.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getChar(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putChar(position, (Character)value);
+            }
+        },
+        INT(4, Integer.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getInt(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putInt(position, (Integer)value);
+            }
+        },
+        FLOAT(4, Float.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getFloat(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putFloat(position, (Float)value);
+            }
+        },
+        LONG(8, Long.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getLong(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putLong(position, (Long)value);
+            }
+        },
+        DOUBLE(8, Double.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.buffer().getDouble(position);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putDouble(position, (Double)value);
+            }
+        },
+        LOCAL_DATE(8, LocalDate.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return LocalDate.ofEpochDay(buffer.buffer().getLong(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putLong(position, ((LocalDate)value).toEpochDay());
+            }
+        },
+        LOCAL_TIME(8, LocalTime.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return LocalTime.ofNanoOfDay(buffer.buffer().getLong(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putLong(position, ((LocalTime)value).toNanoOfDay());
+            }
+        },
+        LOCAL_DATE_TIME(12, LocalDateTime.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                ByteBuffer bytes = buffer.buffer();
+                return LocalDateTime.ofEpochSecond(bytes.getLong(position), bytes.getInt(position + Long.BYTES), ZoneOffset.UTC);
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                LocalDateTime dateTime = (LocalDateTime)value;
+                buffer.buffer().putLong(position, dateTime.toEpochSecond(ZoneOffset.UTC));
+                buffer.buffer().putInt(position + Long.BYTES, dateTime.getNano());
+            }
+        },
+        STRING(4, String.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.getString(buffer.buffer().getInt(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putInt(position, buffer.putString((String)value));
+            }
+        },
+        BIG_DECIMAL(4, BigDecimal.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return buffer.getBigDecimal(buffer.buffer().getInt(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putInt(position, buffer.putBigDecimal((BigDecimal)value));
+            }
+        },
+        /**
+         * The slot keeps offset of the sub-message record, a message from another buffer is copied
+         */
+        MESSAGE(4, IMessage.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return new BufferMessage(buffer, owner.getSubLayout(ordinal), buffer.buffer().getInt(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                buffer.buffer().putInt(position, BufferMessage.writeRecord(buffer, owner.getSubLayout(ordinal), (IMessage)value));
+            }
+
+            @Override
+            Object convert(BufferLayout owner, int ordinal, Object value) {
+                return checkType(owner, ordinal, value, "a message");
+            }
+        },
+        /**
+         * The slot keeps offset of the collection which is stored as its size followed by the slots of the elements
+         */
+        LIST(4, List.class) {
+            @Override
+            Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+                return new BufferList(buffer, owner, ordinal, buffer.buffer().getInt(position));
+            }
+
+            @Override
+            void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value) {
+                List<?> list = (List<?>)value;
+                SlotType elementType = owner.getElementType(ordinal);
+                int listPosition = buffer.allocate(Integer.BYTES + list.size() * elementType.width);
+
+                buffer.buffer().putInt(listPosition, list.size());
+
+                for (int i = 0; i < list.size(); i++) {
+                    Object element = list.get(i);
+
+                    if (element == null) {
+                        throw new EPSCommonException(String.format("Collection [%s] contains null at index %s", owner.getIndex().getName(ordinal), i));
+                    }
+
+                    elementType.write(buffer, owner, ordinal, listPosition + Integer.BYTES + i * elementType.width,
+                            elementType.convert(owner, ordinal, element));
+                }
+
+                buffer.buffer().putInt(position, listPosition);
+            }
+
+            @Override
+            Object convert(BufferLayout owner, int ordinal, Object value) {
+                return checkType(owner, ordinal, value, "a list");
+            }
+        };
+
+        final int width;
+        final Class<?> javaClass;
+
+        SlotType(int width, Class<?> javaClass) {
+            this.width = width;
+            this.javaClass = javaClass;
+        }
+
+        /**
+         * Decodes the value stored at the position
+         * @param owner layout of the record which contains the field
+         * @param ordinal ordinal of the field in the owner layout
+         */
+        abstract Object read(MessageBuffer buffer, BufferLayout owner, int ordinal, int position);
+
+        /**
+         * Encodes the value converted by {@link #convert} to the position
+         * @param owner layout of the record which contains the field
+         * @param ordinal ordinal of the field in the owner layout
+         */
+        abstract void write(MessageBuffer buffer, BufferLayout owner, int ordinal, int position, Object value);
+
+        /**
+         * Converts the value to the type of the slot if needed
+         */
+        Object convert(BufferLayout owner, int ordinal, Object value) {
+            return javaClass.isInstance(value) ? value : MultiConverter.convert(value, javaClass);
+        }
+
+        Object checkType(BufferLayout owner, int ordinal, Object value, String expected) {
+            if (!javaClass.isInstance(value)) {
+                throw new EPSCommonException(String.format("Field [%s] expects %s but got [%s]",
+                        owner.getIndex().getName(ordinal), expected, value.getClass().getName()));
+            }
+            return value;
+        }
+
+        static SlotType of(IFieldStructure field) {
+            JavaType javaType = field.getJavaType();
+
+            if (javaType == null) {
+                throw new EPSCommonException("Field [" + field.getName() + "] has no java type");
+            }
+
+            switch (javaType) {
+            case JAVA_LANG_BOOLEAN:
+                return BOOLEAN;
+            case JAVA_LANG_BYTE:
+                return BYTE;
+            case JAVA_LANG_SHORT:
+                return SHORT;
+            case JAVA_LANG_CHARACTER:
+                return CHAR;
+            case JAVA_LANG_INTEGER:
+                return INT;
+            case JAVA_LANG_FLOAT:
+                return FLOAT;
+            case JAVA_LANG_LONG:
+                return LONG;
+            case JAVA_LANG_DOUBLE:
+                return DOUBLE;
+            case JAVA_TIME_LOCAL_DATE:
+                return LOCAL_DATE;
+            case JAVA_TIME_LOCAL_TIME:
+                return LOCAL_TIME;
+            case JAVA_TIME_LOCAL_DATE_TIME:
+                return LOCAL_DATE_TIME;
+            case JAVA_LANG_STRING:
+                return STRING;
+            case JAVA_MATH_BIG_DECIMAL:
+                return BIG_DECIMAL;
+            default:
+                throw new EPSCommonException("Unsupported java type: " + javaType);
+            }
+        }
+    }
+
+    /**
+     * Read-only view of a collection stored in the buffer
+     */
+    private static class BufferList extends AbstractList<Object> implements RandomAccess {
+        private final MessageBuffer buffer;
+        private final BufferLayout owner;
+        private final int ordinal;
+        private final SlotType elementType;
+        private final int position;
+
+        private BufferList(MessageBuffer buffer, BufferLayout owner, int ordinal, int position) {
+            this.buffer = buffer;
+            this.owner = owner;
+            this.ordinal = ordinal;
+            this.elementType = owner.getElementType(ordinal);
+            this.position = position;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+
+            return elementType.read(buffer, owner, ordinal, position + Integer.BYTES + index * elementType.width);
+        }
+
+        @Override
+        public int size() {
+            return buffer.buffer().getInt(position);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.impl.messages.BufferLayout.SlotType;
+import com.exactpro.sf.common.messages.FieldMetaData;
+import com.exactpro.sf.common.messages.IFieldInfo;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.util.EPSCommonException;
+
+/**
+ * Flyweight {@link IMessage} over a record in a {@link MessageBuffer} laid out by a {@link BufferLayout}.
+ * Values are decoded on each read and encoded in place on each write, so the message keeps no Java objects per field.
+ * Sub-messages are returned as flyweights over their records and collections as read-only list views.
+ * <p>
+ * A sub-message which is a {@link BufferMessage} in the same buffer is referenced, any other message is copied.
+ * Only the fields described in the structure can be set.
+ * The metadata of the message is created on the first access unless it is passed to the constructor.
+ * The metadata and the field metadata aren't kept in the buffer, they belong to the flyweight and are dropped by {@link #wrap(int)}.
+ */
+public class BufferMessage implements IMessage {
+    private static final Logger logger = LoggerFactory.getLogger(BufferMessage.class);
+
+    private final MessageBuffer buffer;
+    private final BufferLayout layout;
+    private final FieldNames fieldNames = new FieldNames();
+    private int offset;
+    private MsgMetaData metaData;
+    private Map<String, FieldMetaData> fieldsMetaData;
+
+    /**
+     * Creates an empty message in a new record of the buffer
+     */
+    public BufferMessage(MessageBuffer buffer, BufferLayout layout) {
+        this(buffer, layout, buffer.allocate(layout.getRecordSize()));
+    }
+
+    /**
+     * Creates a flyweight over an existing record
+     */
+    public BufferMessage(MessageBuffer buffer, BufferLayout layout, int offset) {
+        this(buffer, layout, offset, null);
+    }
+
+    public BufferMessage(MessageBuffer buffer, BufferLayout layout, int offset, MsgMetaData metaData) {
+        this.buffer = Objects.requireNonNull(buffer, "buffer cannot be null");
+        this.layout = Objects.requireNonNull(layout, "layout cannot be null");
+        this.offset = offset;
+        this.metaData = metaData;
+    }
+
+    /**
+     * Moves the flyweight to another record with the same layout. The metadata and the field metadata are dropped
+     */
+    public void wrap(int offset) {
+        this.offset = offset;
+        this.metaData = null;
+        this.fieldsMetaData = null;
+    }
+
+    /**
+     * Returns offset of the record in the buffer
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public BufferLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public String getName() {
+        return layout.getName();
+    }
+
+    @Override
+    public String getNamespace() {
+        return layout.getNamespace();
+    }
+
+    @Override
+    public MsgMetaData getMetaData() {
+        if (metaData == null) {
+            metaData = new MsgMetaData(layout.getNamespace(), layout.getName());
+        }
+        return metaData;
+    }
+
+    @Override
+    public void addField(String name, Object value) {
+        if (value == null) {
+            return;
+        }
+
+        int ordinal = getOrdinal(name);
+
+        if (ordinal == FieldIndex.ABSENT) {
+            throw new EPSCommonException(String.format("Field [%s] is not described in the structure. " +
+                    "Details: namespace [%s], message name [%s].", name, getNamespace(), getName()));
+        }
+
+        SlotType type = layout.getType(ordinal);
+        type.write(buffer, layout, ordinal, offset + layout.getSlotOffset(ordinal), type.convert(layout, ordinal, value));
+        setPresent(ordinal, true);
+    }
+
+    @Override
+    public Object removeField(String name) {
+        int ordinal = getOrdinal(name);
+
+        if (ordinal == FieldIndex.ABSENT || !isPresent(ordinal)) {
+            return null;
+        }
+
+        Object previous = readField(ordinal);
+        setPresent(ordinal, false);
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getField(String name) {
+        int ordinal = getOrdinal(name);
+        return ordinal != FieldIndex.ABSENT && isPresent(ordinal) ? (T)readField(ordinal) : null;
+    }
+
+    @Override
+    public FieldMetaData getFieldMetaData(String name) {
+        if (fieldsMetaData == null) {
+            fieldsMetaData = new HashMap<>();
+        }
+        return fieldsMetaData.computeIfAbsent(name, key -> new FieldMetaData());
+    }
+
+    @Override
+    public boolean isFieldSet(String name) {
+        int ordinal = getOrdinal(name);
+        return ordinal != FieldIndex.ABSENT && isPresent(ordinal);
+    }
+
+    @Override
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    @Override
+    public int getFieldCount() {
+        ByteBuffer bytes = buffer.buffer();
+        int count = 0;
+
+        for (int i = 0; i < layout.getBitmapSize(); i++) {
+            count += Integer.bitCount(bytes.get(offset + i) & 0xFF);
+        }
+
+        return count;
+    }
+
+    @Override
+    public IFieldInfo getFieldInfo(String name) {
+        Object value = getField(name);
+        return value != null ? new MapMessage.MapFieldInfo(name, value) : null;
+    }
+
+    /**
+     * Copies the record and the records of its sub-messages. Values of other types are immutable and shared
+     */
+    @Override
+    public BufferMessage cloneMessage() {
+        return new BufferMessage(buffer, layout, copyRecord(layout, offset), metaData != null ? metaData.clone(false) : null);
+    }
+
+    @Override
+    public boolean compare(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        if (!getNamespace().equals(message.getNamespace()) || !getName().equals(message.getName())) {
+            logger.debug("Comparison failed. Message name [{}]. Name or namespace mismatch: this [{}:{}], other [{}:{}].",
+                    getName(), getNamespace(), getName(), message.getNamespace(), message.getName());
+            return false;
+        }
+
+        for (String fieldName : fieldNames) {
+            Object valueThis = getField(fieldName);
+            Object valueThat = message.getField(fieldName);
+
+            if (valueThat == null) {
+                logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].", getName(), fieldName);
+                return false;
+            }
+
+            if (!IndexedMessage.compareValues(valueThis, valueThat)) {
+                logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
+                        getName(), fieldName, valueThis, valueThat);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof BufferMessage)) {
+            return false;
+        }
+
+        BufferMessage that = (BufferMessage)obj;
+
+        if (buffer == that.buffer && offset == that.offset) {
+            return true;
+        }
+
+        return getName().equals(that.getName())
+                && getNamespace().equals(that.getNamespace())
+                && getFieldCount() == that.getFieldCount()
+                && fieldNames.stream().allMatch(fieldName -> Objects.equals(getField(fieldName), that.getField(fieldName)));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * getName().hashCode() + getNamespace().hashCode();
+
+        for (String fieldName : fieldNames) {
+            result += fieldName.hashCode() ^ getField(fieldName).hashCode();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MapMessage.toString(this);
+    }
+
+    private int getOrdinal(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+        return layout.getIndex().getOrdinal(name);
+    }
+
+    private boolean isPresent(int ordinal) {
+        return (buffer.buffer().get(offset + (ordinal >>> 3)) & (1 << (ordinal & 7))) != 0;
+    }
+
+    private void setPresent(int ordinal, boolean present) {
+        ByteBuffer bytes = buffer.buffer();
+        int position = offset + (ordinal >>> 3);
+        int bits = bytes.get(position);
+
+        bytes.put(position, (byte)(present ? bits | (1 << (ordinal & 7)) : bits & ~(1 << (ordinal & 7))));
+    }
+
+    private Object readField(int ordinal) {
+        return layout.getType(ordinal).read(buffer, layout, ordinal, offset + layout.getSlotOffset(ordinal));
+    }
+
+    /**
+     * Returns offset of the record of the message. A {@link BufferMessage} in the same buffer is referenced, any other message is copied
+     */
+    static int writeRecord(MessageBuffer buffer, BufferLayout layout, IMessage value) {
+        if (value instanceof BufferMessage) {
+            BufferMessage message = (BufferMessage)value;
+
+            if (message.buffer == buffer && message.layout == layout) {
+                return message.offset;
+            }
+        }
+
+        BufferMessage record = new BufferMessage(buffer, layout);
+
+        for (String fieldName : value.getFieldNames()) {
+            record.addField(fieldName, value.getField(fieldName));
+        }
+
+        return record.offset;
+    }
+
+    private int copyRecord(BufferLayout recordLayout, int source) {
+        int target = buffer.allocate(recordLayout.getRecordSize());
+        ByteBuffer bytes = buffer.buffer();
+
+        buffer.copy(source, target, recordLayout.getRecordSize());
+
+        for (int ordinal = 0; ordinal < recordLayout.size(); ordinal++) {
+            SlotType type = recordLayout.getType(ordinal);
+            boolean present = (bytes.get(source + (ordinal >>> 3)) & (1 << (ordinal & 7))) != 0;
+
+            if (!present || type != SlotType.MESSAGE && recordLayout.getElementType(ordinal) != SlotType.MESSAGE) {
+                continue;
+            }
+
+            int position = target + recordLayout.getSlotOffset(ordinal);
+            BufferLayout subLayout = recordLayout.getSubLayout(ordinal);
+
+            if (type == SlotType.MESSAGE) {
+                bytes.putInt(position, copyRecord(subLayout, bytes.getInt(position)));
+            } else {
+                int sourceList = bytes.getInt(position);
+                int size = bytes.getInt(sourceList);
+                int targetList = buffer.allocate(Integer.BYTES * (size + 1));
+
+                bytes.putInt(targetList, size);
+
+                for (int i = 1; i <= size; i++) {
+                    bytes.putInt(targetList + i * Integer.BYTES, copyRecord(subLayout, bytes.getInt(sourceList + i * Integer.BYTES)));
+                }
+
+                bytes.putInt(position, targetList);
+            }
+        }
+
+        return target;
+    }
+
+    private class FieldNames extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next < layout.size();
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    String name = layout.getIndex().getName(next);
+                    next = advance(next + 1);
+                    return name;
+                }
+
+                private int advance(int from) {
+                    while (from < layout.size() && !isPresent(from)) {
+                        from++;
+                    }
+                    return from;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return getFieldCount();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && isFieldSet((String)o);
+        }
+    }
+}
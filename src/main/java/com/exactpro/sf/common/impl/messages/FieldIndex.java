@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.SymbolTable;
+
+/**
+ * Immutable mapping of the field names of a message structure to stable ordinals.
+ * Ordinals follow the declaration order of the fields in the dictionary.
+ * Names are resolved through an open-addressing table, so a lookup does not allocate.
+ * The names are interned in the {@link SymbolTable}, so a lookup by a canonical name is resolved by identity.
+ */
+public final class FieldIndex {
+    public static final int ABSENT = -1;
+
+    private final String messageName;
+    private final String[] names;
+    private final String[] table;
+    private final int[] ordinals;
+    private final int mask;
+
+    private FieldIndex(String messageName, Collection<String> fieldNames) {
+        this.messageName = messageName;
+        this.names = fieldNames.toArray(new String[0]);
+
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+        this.table = new String[capacity];
+        this.ordinals = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (int ordinal = 0; ordinal < names.length; ordinal++) {
+            String name = SymbolTable.intern(Objects.requireNonNull(names[ordinal], "field name cannot be null"));
+            names[ordinal] = name;
+            int slot = spread(name.hashCode()) & mask;
+
+            while (table[slot] != null) {
+                if (table[slot].equals(name)) {
+                    throw new IllegalArgumentException("Duplicate field '" + name + "' in message '" + messageName + '\'');
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = name;
+            ordinals[slot] = ordinal;
+        }
+    }
+
+    public static FieldIndex of(IMessageStructure messageStructure) {
+        Objects.requireNonNull(messageStructure, "messageStructure cannot be null");
+        return new FieldIndex(messageStructure.getName(), messageStructure.getFields().keySet());
+    }
+
+    public static FieldIndex of(String messageName, Collection<String> fieldNames) {
+        return new FieldIndex(messageName, Objects.requireNonNull(fieldNames, "fieldNames cannot be null"));
+    }
+
+    /**
+     * Returns ordinal of the field or {@link #ABSENT} if the field isn't described in the structure
+     */
+    public int getOrdinal(String name) {
+        int slot = spread(name.hashCode()) & mask;
+        String candidate;
+
+        while ((candidate = table[slot]) != null) {
+            if (candidate == name || candidate.equals(name)) {
+                return ordinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return ABSENT;
+    }
+
+    public String getName(int ordinal) {
+        return names[ordinal];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getMessageName() {
+        return messageName;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.messages.FieldMetaData;
+import com.exactpro.sf.common.messages.IFieldInfo;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.IVersionedMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+
+/**
+ * Immutable deep snapshot of a message. Sub-messages are frozen as well and collections are read-only.
+ * The hash code is computed once when the snapshot is created, so the snapshot is cheap to use as a key
+ * of a map or a set. All state is kept in final fields, so the snapshot can be published to other threads
+ * without synchronization.
+ * <p>
+ * Field values other than messages and lists are expected to be immutable, e.g. strings, numbers and dates.
+ * Field metadata isn't a part of the snapshot.
+ */
+public final class FrozenMessage implements IVersionedMessage {
+    private static final Logger logger = LoggerFactory.getLogger(FrozenMessage.class);
+
+    private final String namespace;
+    private final String name;
+    private final MsgMetaData metaData;
+    private final Map<String, Object> fields;
+    private final int hash;
+
+    private FrozenMessage(IMessage message) {
+        this.namespace = message.getNamespace();
+        this.name = message.getName();
+        this.metaData = message.getMetaData().readOnlyCopy();
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        int fieldsHash = 0;
+
+        for (String fieldName : message.getFieldNames()) {
+            Object value = freezeValue(message.getField(fieldName));
+
+            if (value != null) {
+                fields.put(fieldName, value);
+                fieldsHash += fieldName.hashCode() ^ value.hashCode();
+            }
+        }
+
+        this.fields = Collections.unmodifiableMap(fields);
+
+        int result = Objects.hashCode(name);
+        result = 31 * result + Objects.hashCode(namespace);
+        result = 31 * result + Objects.hashCode(metaData);
+        this.hash = 31 * result + fieldsHash;
+    }
+
+    /**
+     * Returns immutable snapshot of the message or the message itself if it is already frozen.
+     * Sub-messages and lists are frozen as well
+     */
+    public static FrozenMessage of(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        return message instanceof FrozenMessage ? (FrozenMessage)message : new FrozenMessage(message);
+    }
+
+    /**
+     * The snapshot is never modified, so its version is constant
+     */
+    @Override
+    public long getVersion() {
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Returns read-only metadata of the snapshot, its raw message is a copy of the original one
+     */
+    @Override
+    public MsgMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public void addField(String name, Object value) {
+        throw new UnsupportedOperationException("Message is frozen: " + this.name);
+    }
+
+    @Override
+    public Object removeField(String name) {
+        throw new UnsupportedOperationException("Message is frozen: " + this.name);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getField(String name) {
+        return (T)fields.get(name);
+    }
+
+    /**
+     * Returns new default metadata, field metadata isn't stored in the snapshot
+     */
+    @Override
+    public FieldMetaData getFieldMetaData(String name) {
+        return new FieldMetaData();
+    }
+
+    @Override
+    public boolean isFieldSet(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+        return fields.containsKey(name);
+    }
+
+    @Override
+    public Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fields.size();
+    }
+
+    @Override
+    public void forEachField(BiConsumer<String, Object> action) {
+        fields.forEach(action);
+    }
+
+    @Override
+    public IFieldInfo getFieldInfo(String name) {
+        Object value = fields.get(name);
+        return value != null ? new MapMessage.MapFieldInfo(name, value) : null;
+    }
+
+    /**
+     * Returns a mutable deep copy of the snapshot with a new metadata id
+     */
+    @Override
+    public MapMessage cloneMessage() {
+        MapMessage cloned = new MapMessage(metaData.clone());
+
+        for (Entry<String, Object> entry : fields.entrySet()) {
+            cloned.addField(entry.getKey(), thawValue(entry.getValue()));
+        }
+
+        return cloned;
+    }
+
+    @Override
+    public boolean compare(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        if (!namespace.equals(message.getNamespace()) || !name.equals(message.getName())) {
+            logger.debug("Comparison failed. Message name [{}]. Name or namespace mismatch: this [{}:{}], other [{}:{}].",
+                    name, namespace, name, message.getNamespace(), message.getName());
+            return false;
+        }
+
+        for (Entry<String, Object> entry : fields.entrySet()) {
+            Object valueThat = message.getField(entry.getKey());
+
+            if (valueThat == null) {
+                logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].", name, entry.getKey());
+                return false;
+            }
+
+            if (!IndexedMessage.compareValues(entry.getValue(), valueThat)) {
+                logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
+                        name, entry.getKey(), entry.getValue(), valueThat);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof FrozenMessage)) {
+            return false;
+        }
+
+        FrozenMessage that = (FrozenMessage)obj;
+
+        return hash == that.hash
+                && Objects.equals(name, that.name)
+                && Objects.equals(namespace, that.namespace)
+                && fields.equals(that.fields)
+                && Objects.equals(metaData, that.metaData);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return MapMessage.toString(this);
+    }
+
+    private static Object freezeValue(Object value) {
+        if (value instanceof IMessage) {
+            return of((IMessage)value);
+        }
+
+        if (value instanceof List<?>) {
+            List<?> list = (List<?>)value;
+            List<Object> frozen = new ArrayList<>(list.size());
+
+            for (Object element : list) {
+                frozen.add(freezeValue(element));
+            }
+
+            return Collections.unmodifiableList(frozen);
+        }
+
+        return value;
+    }
+
+    private static Object thawValue(Object value) {
+        if (value instanceof IMessage) {
+            return ((IMessage)value).cloneMessage();
+        }
+
+        if (value instanceof List<?>) {
+            List<?> list = (List<?>)value;
+            List<Object> thawed = new ArrayList<>(list.size());
+
+            for (Object element : list) {
+                thawed.add(thawValue(element));
+            }
+
+            return thawed;
+        }
+
+        return value;
+    }
+}
@@ -82,6 +82,9 @@ public class HumanMessage implements IHumanMessage {
         }
     }
 
+    /**
+     * Subclasses append to the builder directly, so {@code NUL} characters are escaped once here
+     */
     @Override
     public String toString() {
         return MessageUtil.escapeCharacter(builder);
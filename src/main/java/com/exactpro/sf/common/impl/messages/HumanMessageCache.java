@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.exactpro.sf.common.messages.IMessage;
+
+/**
+ * LRU cache of the human-readable representations of the recently rendered messages.
+ * The size of the cache is limited by the total length of the cached strings.
+ * <p>
+ * Entries are looked up by the message id and are valid only for the same message instance with the same stamp,
+ * the cache doesn't prevent messages from being garbage collected.
+ */
+public class HumanMessageCache {
+    public static final HumanMessageCache DEFAULT = new HumanMessageCache(4 * 1024 * 1024);
+
+    private final long maxLength;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long length;
+
+    /**
+     * @param maxLength maximum total number of characters of the cached strings
+     */
+    public HumanMessageCache(long maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+        }
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the cached representation of the message or {@code null} if it isn't cached for the stamp
+     */
+    public synchronized String get(IMessage message, long stamp) {
+        Entry entry = entries.get(message.getMetaData().getId());
+        return entry != null && entry.stamp == stamp && entry.message.get() == message ? entry.text : null;
+    }
+
+    public synchronized void put(IMessage message, long stamp, String text) {
+        if (text.length() > maxLength) {
+            return;
+        }
+
+        Entry previous = entries.put(message.getMetaData().getId(), new Entry(message, stamp, text));
+        length += text.length();
+
+        if (previous != null) {
+            length -= previous.text.length();
+        }
+
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (length > maxLength && iterator.hasNext()) {
+            length -= iterator.next().text.length();
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        length = 0;
+    }
+
+    /**
+     * Returns total number of characters of the cached strings
+     */
+    public synchronized long getLength() {
+        return length;
+    }
+
+    private static class Entry {
+        private final WeakReference<IMessage> message;
+        private final long stamp;
+        private final String text;
+
+        private Entry(IMessage message, long stamp, String text) {
+            this.message = new WeakReference<>(message);
+            this.stamp = stamp;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,898 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.messages.FieldMetaData;
+import com.exactpro.sf.common.messages.IFieldInfo;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.ITypedMessage;
+import com.exactpro.sf.common.messages.IVersionedMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+
+/**
+ * {@link IMessage} implementation which keeps the fields described in the dictionary in a flat array
+ * addressed by the ordinals of a {@link FieldIndex}. Fields which are absent in the index (dirty fields)
+ * are kept in a small overflow map, so they are still visible through {@link #getFieldNames()}.
+ * <p>
+ * Field names are iterated in the dictionary order followed by the overflow fields in the insertion order.
+ * <p>
+ * Values set through the typed setters of {@link ITypedMessage} are kept unboxed in a parallel {@code long[]}
+ * and boxed only when they are read through {@link #getField(String)}.
+ * <p>
+ * {@link #cloneMessage()} takes constant time: the clone shares the flat storage with the original and each of them
+ * copies it before its first modification. Sub-messages and lists are copied by the clone when they are accessed
+ * for the first time, so only the accessed path is copied (a copied sub-message takes its own sub-messages in the same way).
+ * Modifications made through the clone never reach the original, and reading one of the messages never modifies the other.
+ * Sub-messages and lists of the original, including the ones obtained before cloning, must not be modified in place
+ * while the clone is in use: they should be replaced by {@link #addField(String, Object)} instead.
+ */
+public class IndexedMessage implements ITypedMessage, IVersionedMessage {
+    private static final Logger logger = LoggerFactory.getLogger(IndexedMessage.class);
+
+    /**
+     * Marks a slot of {@link #values} whose value is stored in {@link #primitives}
+     */
+    private static final Object PRIMITIVE = new Object();
+
+    private final FieldIndex index;
+    private Object[] values;
+    private long[] primitives;
+    private PrimitiveKind[] kinds;
+    private final FieldNames fieldNames = new FieldNames();
+    private Map<String, Object> overflow;
+    private Map<String, FieldMetaData> fieldsMetaData;
+    private int indexedCount;
+    private long version;
+    /**
+     * {@code true} if the arrays and the overflow map are shared with a clone or with the cloned message
+     */
+    private boolean sharedStorage;
+    /**
+     * {@code true} if sub-messages and lists of this message may be referenced by another message
+     */
+    private boolean sharedValues;
+    /**
+     * {@code true} if sub-messages and lists which are not owned have been taken from the cloned message
+     */
+    private boolean borrowing;
+    private long[] ownedSlots;
+    private Set<String> ownedOverflow;
+    private MsgMetaData msgMetaData;
+    /**
+     * State of the instance maintained by {@link PooledMessageFactory}
+     */
+    Object lease;
+    private final String namespace;
+    private final String name;
+
+    public IndexedMessage(MsgMetaData metaData, FieldIndex index) {
+        this.msgMetaData = Objects.requireNonNull(metaData, "metaData cannot be null");
+        this.index = Objects.requireNonNull(index, "index cannot be null");
+        this.namespace = metaData.getMsgNamespace();
+        this.name = metaData.getMsgName();
+        this.values = new Object[index.size()];
+    }
+
+    public IndexedMessage(String namespace, String name, FieldIndex index) {
+        this(new MsgMetaData(namespace, name), index);
+    }
+
+    /**
+     * Creates a clone which borrows sub-messages and lists of the source.
+     * If {@code shareStorage} is {@code false} the arrays are copied, so the source is not modified at all
+     */
+    private IndexedMessage(MsgMetaData metaData, IndexedMessage source, boolean shareStorage) {
+        this.msgMetaData = metaData;
+        this.index = source.index;
+        this.namespace = source.namespace;
+        this.name = source.name;
+        this.indexedCount = source.indexedCount;
+        this.sharedStorage = shareStorage;
+        this.sharedValues = true;
+        this.borrowing = true;
+
+        if (shareStorage) {
+            this.values = source.values;
+            this.primitives = source.primitives;
+            this.kinds = source.kinds;
+            this.overflow = source.overflow;
+        } else {
+            this.values = source.values.clone();
+
+            if (source.primitives != null) {
+                this.primitives = source.primitives.clone();
+                this.kinds = source.kinds.clone();
+            }
+
+            if (source.overflow != null) {
+                this.overflow = new LinkedHashMap<>(source.overflow);
+            }
+        }
+    }
+
+    public FieldIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Removes all fields and their metadata, so the instance can be reused for another message with the same structure.
+     */
+    public void reset() {
+        if (sharedStorage) {
+            values = new Object[values.length];
+            primitives = null;
+            kinds = null;
+            overflow = null;
+        } else {
+            Arrays.fill(values, null);
+
+            if (overflow != null) {
+                overflow.clear();
+            }
+        }
+
+        sharedStorage = false;
+        sharedValues = false;
+        borrowing = false;
+        ownedSlots = null;
+        ownedOverflow = null;
+        indexedCount = 0;
+        version++;
+
+        if (fieldsMetaData != null) {
+            fieldsMetaData.clear();
+        }
+    }
+
+    /**
+     * Replaces metadata of a reused instance. The metadata must have the same namespace and name
+     */
+    void setMetaData(MsgMetaData metaData) {
+        this.msgMetaData = metaData;
+    }
+
+    /**
+     * Returns {@code true} if sub-messages and lists of this message may be referenced by a clone or by the cloned message
+     */
+    boolean isValuesShared() {
+        return sharedValues;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getNamespace() {
+        return namespace;
+    }
+
+    @Override
+    public MsgMetaData getMetaData() {
+        return msgMetaData;
+    }
+
+    @Override
+    public void addField(String name, Object value) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        if (value == null) {
+            return;
+        }
+
+        version++;
+        int ordinal = index.getOrdinal(name);
+
+        if (ordinal != FieldIndex.ABSENT) {
+            setValue(ordinal, value);
+        } else {
+            ensureWritable();
+
+            if (overflow == null) {
+                overflow = new LinkedHashMap<>();
+            }
+
+            overflow.put(name, value);
+            ownOverflow(name);
+        }
+    }
+
+    /**
+     * Sets value of the field by its ordinal in the {@link FieldIndex}. {@code null} value is ignored.
+     */
+    public void addField(int ordinal, Object value) {
+        if (value != null) {
+            version++;
+            setValue(ordinal, value);
+        }
+    }
+
+    @Override
+    public Object removeField(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        version++;
+        int ordinal = index.getOrdinal(name);
+
+        if (ordinal != FieldIndex.ABSENT) {
+            return clearValue(ordinal);
+        }
+
+        if (overflow == null) {
+            return null;
+        }
+
+        ensureWritable();
+        return overflow.remove(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getField(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        int ordinal = index.getOrdinal(name);
+
+        if (ordinal != FieldIndex.ABSENT) {
+            return getField(ordinal);
+        }
+
+        return (T)getOverflowField(name);
+    }
+
+    /**
+     * Iterates slots and overflow directly without looking up the field names
+     */
+    @Override
+    public void forEachField(BiConsumer<String, Object> action) {
+        for (int ordinal = 0; ordinal < values.length; ordinal++) {
+            if (values[ordinal] != null) {
+                action.accept(index.getName(ordinal), getField(ordinal));
+            }
+        }
+
+        if (overflow != null) {
+            if (borrowing) {
+                for (String fieldName : overflow.keySet().toArray(new String[overflow.size()])) {
+                    action.accept(fieldName, getOverflowField(fieldName));
+                }
+            } else {
+                overflow.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Returns value of the field by its ordinal in the {@link FieldIndex}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getField(int ordinal) {
+        Object value = values[ordinal];
+
+        if (value == PRIMITIVE) {
+            return (T)kinds[ordinal].box(primitives[ordinal]);
+        }
+
+        if (borrowing && isComplex(value) && !isOwned(ordinal)) {
+            value = detach(value);
+            ensureWritable();
+            values[ordinal] = value;
+            own(ordinal);
+        }
+
+        return (T)value;
+    }
+
+    private Object getOverflowField(String name) {
+        if (overflow == null) {
+            return null;
+        }
+
+        Object value = overflow.get(name);
+
+        if (borrowing && isComplex(value) && (ownedOverflow == null || !ownedOverflow.contains(name))) {
+            value = detach(value);
+            ensureWritable();
+            overflow.put(name, value);
+            ownOverflow(name);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns value of the field without copying a borrowed sub-message or list
+     */
+    private Object peekField(String name) {
+        int ordinal = index.getOrdinal(name);
+
+        if (ordinal == FieldIndex.ABSENT) {
+            return overflow != null ? overflow.get(name) : null;
+        }
+
+        Object value = values[ordinal];
+        return value == PRIMITIVE ? kinds[ordinal].box(primitives[ordinal]) : value;
+    }
+
+    @Override
+    public long getLong(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.LONG);
+        return ordinal != FieldIndex.ABSENT ? primitives[ordinal] : getTyped(name, Long.class);
+    }
+
+    @Override
+    public int getInt(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.INT);
+        return ordinal != FieldIndex.ABSENT ? (int)primitives[ordinal] : getTyped(name, Integer.class);
+    }
+
+    @Override
+    public short getShort(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.SHORT);
+        return ordinal != FieldIndex.ABSENT ? (short)primitives[ordinal] : getTyped(name, Short.class);
+    }
+
+    @Override
+    public byte getByte(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.BYTE);
+        return ordinal != FieldIndex.ABSENT ? (byte)primitives[ordinal] : getTyped(name, Byte.class);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.DOUBLE);
+        return ordinal != FieldIndex.ABSENT ? Double.longBitsToDouble(primitives[ordinal]) : getTyped(name, Double.class);
+    }
+
+    @Override
+    public float getFloat(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.FLOAT);
+        return ordinal != FieldIndex.ABSENT ? Float.intBitsToFloat((int)primitives[ordinal]) : getTyped(name, Float.class);
+    }
+
+    @Override
+    public char getChar(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.CHAR);
+        return ordinal != FieldIndex.ABSENT ? (char)primitives[ordinal] : getTyped(name, Character.class);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        int ordinal = primitiveOrdinal(name, PrimitiveKind.BOOLEAN);
+        return ordinal != FieldIndex.ABSENT ? primitives[ordinal] != 0 : getTyped(name, Boolean.class);
+    }
+
+    @Override
+    public void setLong(String name, long value) {
+        setPrimitive(name, PrimitiveKind.LONG, value);
+    }
+
+    @Override
+    public void setInt(String name, int value) {
+        setPrimitive(name, PrimitiveKind.INT, value);
+    }
+
+    @Override
+    public void setShort(String name, short value) {
+        setPrimitive(name, PrimitiveKind.SHORT, value);
+    }
+
+    @Override
+    public void setByte(String name, byte value) {
+        setPrimitive(name, PrimitiveKind.BYTE, value);
+    }
+
+    @Override
+    public void setDouble(String name, double value) {
+        setPrimitive(name, PrimitiveKind.DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void setFloat(String name, float value) {
+        setPrimitive(name, PrimitiveKind.FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void setChar(String name, char value) {
+        setPrimitive(name, PrimitiveKind.CHAR, value);
+    }
+
+    @Override
+    public void setBoolean(String name, boolean value) {
+        setPrimitive(name, PrimitiveKind.BOOLEAN, value ? 1 : 0);
+    }
+
+    private int primitiveOrdinal(String name, PrimitiveKind kind) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        int ordinal = index.getOrdinal(name);
+        return ordinal != FieldIndex.ABSENT && values[ordinal] == PRIMITIVE && kinds[ordinal] == kind ? ordinal : FieldIndex.ABSENT;
+    }
+
+    private <T> T getTyped(String name, Class<T> type) {
+        Object value = peekField(name);
+
+        if (value == null) {
+            throw new EPSCommonException(String.format("Field [%s] is not set in the message. " +
+                    "Details: namespace [%s], message name [%s].", name, namespace, this.name));
+        }
+
+        return MultiConverter.convert(value, type);
+    }
+
+    private void setPrimitive(String name, PrimitiveKind kind, long bits) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        int ordinal = index.getOrdinal(name);
+
+        if (ordinal == FieldIndex.ABSENT) {
+            addField(name, kind.box(bits));
+            return;
+        }
+
+        version++;
+        ensureWritable();
+
+        if (primitives == null) {
+            primitives = new long[values.length];
+            kinds = new PrimitiveKind[values.length];
+        }
+
+        setValue(ordinal, PRIMITIVE);
+        primitives[ordinal] = bits;
+        kinds[ordinal] = kind;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public FieldMetaData getFieldMetaData(String name) {
+        if (fieldsMetaData == null) {
+            fieldsMetaData = new HashMap<>();
+        }
+        return fieldsMetaData.computeIfAbsent(name, key -> new FieldMetaData());
+    }
+
+    @Override
+    public boolean isFieldSet(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+        return peekField(name) != null;
+    }
+
+    @Override
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return indexedCount + (overflow != null ? overflow.size() : 0);
+    }
+
+    @Override
+    public IFieldInfo getFieldInfo(String name) {
+        Object value = getField(name);
+        return value != null ? new MapMessage.MapFieldInfo(name, value) : null;
+    }
+
+    /**
+     * Clones the message in constant time. Both messages share the storage until one of them is modified,
+     * and the clone copies sub-messages and lists on their first access
+     */
+    @Override
+    public IndexedMessage cloneMessage() {
+        sharedStorage = true;
+        sharedValues = true;
+        return new IndexedMessage(msgMetaData.clone(false), this, true);
+    }
+
+    private static boolean isComplex(Object value) {
+        return value instanceof IMessage || value instanceof List;
+    }
+
+    /**
+     * Returns a copy of a sub-message or a list which can be modified without affecting the original value.
+     * The original value is not modified: a sub-message which is an {@link IndexedMessage} is copied shallowly
+     * and borrows its own sub-messages and lists
+     */
+    private static Object detach(Object value) {
+        if (value instanceof IndexedMessage) {
+            IndexedMessage message = (IndexedMessage)value;
+            return new IndexedMessage(message.msgMetaData.clone(false), message, false);
+        }
+
+        if (value instanceof IMessage) {
+            return ((IMessage)value).cloneMessage();
+        }
+
+        if (value instanceof List) {
+            List<?> source = (List<?>)value;
+            List<Object> list = new ArrayList<>(source.size());
+
+            for (Object element : source) {
+                list.add(detach(element));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+
+    @Override
+    public boolean compare(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        if (!namespace.equals(message.getNamespace()) || !name.equals(message.getName())) {
+            logger.debug("Comparison failed. Message name [{}]. Name or namespace mismatch: this [{}:{}], other [{}:{}].",
+                    name, namespace, name, message.getNamespace(), message.getName());
+            return false;
+        }
+
+        for (String fieldName : fieldNames) {
+            Object valueThis = peekField(fieldName);
+            Object valueThat = message instanceof IndexedMessage ? ((IndexedMessage)message).peekField(fieldName) : message.getField(fieldName);
+
+            if (valueThat == null) {
+                logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].", name, fieldName);
+                return false;
+            }
+
+            if (!compareValues(valueThis, valueThat)) {
+                logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
+                        name, fieldName, valueThis, valueThat);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static boolean compareValues(Object valueThis, Object valueThat) {
+        if (valueThis instanceof IMessage) {
+            return valueThat instanceof IMessage && ((IMessage)valueThis).compare((IMessage)valueThat);
+        }
+
+        if (valueThis instanceof List) {
+            if (!(valueThat instanceof List)) {
+                return false;
+            }
+
+            List<?> listThis = (List<?>)valueThis;
+            List<?> listThat = (List<?>)valueThat;
+
+            if (listThis.size() != listThat.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < listThis.size(); i++) {
+                Object elementThis = listThis.get(i);
+                Object elementThat = listThat.get(i);
+
+                if (elementThis == null ? elementThat != null : elementThat == null || !compareValues(elementThis, elementThat)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        if (valueThis.getClass() != valueThat.getClass()) {
+            return false;
+        }
+
+        if (valueThis instanceof BigDecimal) {
+            return ((BigDecimal)valueThis).compareTo((BigDecimal)valueThat) == 0;
+        }
+
+        return valueThis.equals(valueThat);
+    }
+
+    /**
+     * Copies the storage shared with a clone or with the cloned message before its modification
+     */
+    private void ensureWritable() {
+        if (!sharedStorage) {
+            return;
+        }
+
+        values = values.clone();
+
+        if (primitives != null) {
+            primitives = primitives.clone();
+            kinds = kinds.clone();
+        }
+
+        if (overflow != null) {
+            overflow = new LinkedHashMap<>(overflow);
+        }
+
+        sharedStorage = false;
+    }
+
+    private boolean isOwned(int ordinal) {
+        return ownedSlots != null && (ownedSlots[ordinal >>> 6] & 1L << ordinal) != 0;
+    }
+
+    private void own(int ordinal) {
+        if (borrowing) {
+            if (ownedSlots == null) {
+                ownedSlots = new long[(values.length + 63) >>> 6];
+            }
+            ownedSlots[ordinal >>> 6] |= 1L << ordinal;
+        }
+    }
+
+    private void ownOverflow(String name) {
+        if (borrowing) {
+            if (ownedOverflow == null) {
+                ownedOverflow = new HashSet<>();
+            }
+            ownedOverflow.add(name);
+        }
+    }
+
+    private void setValue(int ordinal, Object value) {
+        ensureWritable();
+
+        if (values[ordinal] == null) {
+            indexedCount++;
+        }
+
+        values[ordinal] = value;
+        own(ordinal);
+    }
+
+    private Object clearValue(int ordinal) {
+        Object previous = values[ordinal];
+
+        if (previous == null) {
+            return null;
+        }
+
+        if (previous == PRIMITIVE) {
+            previous = kinds[ordinal].box(primitives[ordinal]);
+        }
+
+        ensureWritable();
+        values[ordinal] = null;
+        indexedCount--;
+
+        return previous;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof IndexedMessage)) {
+            return false;
+        }
+
+        IndexedMessage that = (IndexedMessage)obj;
+
+        return name.equals(that.name)
+                && namespace.equals(that.namespace)
+                && Objects.equals(msgMetaData, that.msgMetaData)
+                && getFieldCount() == that.getFieldCount()
+                && fieldNames.stream().allMatch(fieldName -> Objects.equals(peekField(fieldName), that.peekField(fieldName)))
+                && Objects.equals(fieldsMetaData, that.fieldsMetaData);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+
+        result = 31 * result + namespace.hashCode();
+        result = 31 * result + Objects.hashCode(msgMetaData);
+
+        for (String fieldName : fieldNames) {
+            result += fieldName.hashCode() ^ peekField(fieldName).hashCode();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MapMessage.toString(this);
+    }
+
+    private class FieldNames extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            return new FieldNameIterator();
+        }
+
+        @Override
+        public int size() {
+            return getFieldCount();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && isFieldSet((String)o);
+        }
+    }
+
+    private class FieldNameIterator implements Iterator<String> {
+        private int next = advance(0);
+        private int current = -1;
+        private Iterator<String> overflowIterator;
+        private Map<String, Object> iteratedOverflow;
+        private String currentOverflowName;
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+
+            if (overflowIterator == null) {
+                if (overflow == null) {
+                    return false;
+                }
+                iteratedOverflow = overflow;
+                overflowIterator = overflow.keySet().iterator();
+            }
+
+            return overflowIterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (overflowIterator != null) {
+                current = -1;
+                currentOverflowName = overflowIterator.next();
+                return currentOverflowName;
+            }
+
+            current = next;
+            next = advance(next + 1);
+            return index.getName(current);
+        }
+
+        @Override
+        public void remove() {
+            if (overflowIterator != null) {
+                if (currentOverflowName == null) {
+                    throw new IllegalStateException();
+                }
+
+                if (sharedStorage || iteratedOverflow != overflow) {
+                    // the iterator keeps going over the map shared with another message
+                    ensureWritable();
+                    overflow.remove(currentOverflowName);
+                } else {
+                    overflowIterator.remove();
+                }
+
+                currentOverflowName = null;
+            } else if (current >= 0) {
+                clearValue(current);
+                current = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+
+            version++;
+        }
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+
+    private enum PrimitiveKind {
+        LONG {
+            @Override
+            Object box(long bits) {
+                return bits;
+            }
+        },
+        INT {
+            @Override
+            Object box(long bits) {
+                return (int)bits;
+            }
+        },
+        SHORT {
+            @Override
+            Object box(long bits) {
+                return (short)bits;
+            }
+        },
+        BYTE {
+            @Override
+            Object box(long bits) {
+                return (byte)bits;
+            }
+        },
+        DOUBLE {
+            @Override
+            Object box(long bits) {
+                return Double.longBitsToDouble(bits);
+            }
+        },
+        FLOAT {
+            @Override
+            Object box(long bits) {
+                return Float.intBitsToFloat((int)bits);
+            }
+        },
+        CHAR {
+            @Override
+            Object box(long bits) {
+                return (char)bits;
+            }
+        },
+        BOOLEAN {
+            @Override
+            Object box(long bits) {
+                return bits != 0;
+            }
+        };
+
+        abstract Object box(long bits);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.exactpro.sf.common.messages.EmptyMessageStructureReaderHandler;
+import com.exactpro.sf.common.messages.HumanMessageStructureVisitor;
+import com.exactpro.sf.common.messages.IHumanMessage;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.IMessageFactory;
+import com.exactpro.sf.common.messages.IVersionedMessage;
+import com.exactpro.sf.common.messages.MessageUtil;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+
+/**
+ * Live human-readable view of a message which is rendered on the first {@link #toString()} call
+ * and reflects later modifications of the message, unlike {@link MessageUtil#convertToIHumanMessage}.
+ * <p>
+ * The text is cached while the message isn't modified. Modifications are tracked by the versions of
+ * {@link IVersionedMessage} and all its sub-messages, by the elements of the lists and by the metadata of the message.
+ * Messages which contain an unversioned message are rendered on each call.
+ * Recently rendered texts are also kept in a shared {@link HumanMessageCache}.
+ * <p>
+ * Adding a field renders the message immediately, after that the text isn't updated anymore.
+ */
+public class LazyHumanMessage implements IHumanMessage {
+    private static final long UNVERSIONED = Long.MIN_VALUE;
+
+    private final IMessageFactory messageFactory;
+    private final IMessageStructure messageStructure;
+    private final IMessage message;
+    private final HumanMessageCache cache;
+
+    private IHumanMessage detached;
+    private String text;
+    private long stamp = UNVERSIONED;
+
+    public LazyHumanMessage(IMessageFactory messageFactory, IMessageStructure messageStructure, IMessage message, HumanMessageCache cache) {
+        if (messageFactory == null) {
+            throw new IllegalArgumentException("[messageFactory] could not be null");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("[cache] could not be null");
+        }
+        this.messageFactory = messageFactory;
+        this.messageStructure = messageStructure;
+        this.message = message;
+        this.cache = cache;
+    }
+
+    @Override
+    public void addField(IFieldStructure fieldStructure, String fieldName, Object value) {
+        if (detached == null) {
+            detached = render();
+        }
+        detached.addField(fieldStructure, fieldName, value);
+    }
+
+    @Override
+    public String toString() {
+        if (detached != null) {
+            return detached.toString();
+        }
+
+        long current = stamp();
+
+        if (current != UNVERSIONED) {
+            if (text != null && current == stamp) {
+                return text;
+            }
+
+            String cached = cache.get(message, current);
+
+            if (cached != null) {
+                text = cached;
+                stamp = current;
+                return cached;
+            }
+        }
+
+        String rendered = render().toString();
+        // rendering converts values according to the dictionary, so the message can be modified by it
+        current = stamp();
+
+        if (current != UNVERSIONED) {
+            text = rendered;
+            stamp = current;
+            cache.put(message, current, rendered);
+        }
+
+        return rendered;
+    }
+
+    private IHumanMessage render() {
+        HumanMessageStructureVisitor visitor = new HumanMessageStructureVisitor(messageFactory, message.getName());
+        MessageUtil.MESSAGE_TRAVERSER.traverse(visitor, messageStructure, message, EmptyMessageStructureReaderHandler.instance());
+        return visitor.getHumanMessage();
+    }
+
+    private long stamp() {
+        return combine(stamp(message), message.getMetaData().hashCode());
+    }
+
+    /**
+     * Combines versions of the message and its sub-messages with the contents of its lists
+     * @return {@link #UNVERSIONED} if some message doesn't track its modifications
+     */
+    private static long stamp(IMessage message) {
+        if (!(message instanceof IVersionedMessage)) {
+            return UNVERSIONED;
+        }
+
+        long result = ((IVersionedMessage)message).getVersion();
+
+        for (String fieldName : message.getFieldNames()) {
+            Object value = message.getField(fieldName);
+
+            if (value instanceof IMessage || value instanceof List<?>) {
+                result = combine(result, stampValue(value));
+
+                if (result == UNVERSIONED) {
+                    return UNVERSIONED;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists can be modified in place, so their elements are stamped as well.
+     * Other values are replaced by setting the field, which changes the version of the message
+     */
+    private static long stampValue(Object value) {
+        if (value instanceof IMessage) {
+            return stamp((IMessage)value);
+        }
+
+        if (value instanceof List<?>) {
+            long result = ((List<?>)value).size();
+
+            for (Object element : (List<?>)value) {
+                result = combine(result, stampValue(element));
+
+                if (result == UNVERSIONED) {
+                    return UNVERSIONED;
+                }
+            }
+
+            return result;
+        }
+
+        return Objects.hashCode(value);
+    }
+
+    private static long combine(long stamp, long subStamp) {
+        if (stamp == UNVERSIONED || subStamp == UNVERSIONED) {
+            return UNVERSIONED;
+        }
+
+        long result = stamp * 0x9E3779B97F4A7C15L + subStamp + 1;
+        return result == UNVERSIONED ? result + 1 : result;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.messages.FieldMetaData;
+import com.exactpro.sf.common.messages.IFieldInfo;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MessageUtil;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.google.common.collect.Sets;
+
+/**
+ * Live {@link IMessage} view of a map. Unlike {@link com.exactpro.sf.common.messages.MessageUtil#convertToIMessage}
+ * nothing is copied: reads and writes go to the map, nested maps and lists are wrapped when they are accessed.
+ * Nested maps are named after their fields.
+ * <p>
+ * The metadata of a {@link HashMapWrapper} is used as is, otherwise new metadata is created on the first access.
+ * Such metadata has zero id and sequence, so reading it doesn't take values from the global generators.
+ * Field metadata isn't stored. Keys mapped to {@code null} are not fields of the message.
+ */
+public class MapBackedMessage implements IMessage {
+    private static final Logger logger = LoggerFactory.getLogger(MapBackedMessage.class);
+
+    private final Map<String, Object> map;
+    private final String namespace;
+    private final String name;
+    private MsgMetaData metaData;
+
+    @SuppressWarnings("unchecked")
+    public MapBackedMessage(Map<String, ?> map, String namespace, String name) {
+        if (map == null) {
+            throw new IllegalArgumentException("[map] could not be null");
+        }
+        if (namespace == null) {
+            throw new IllegalArgumentException("[namespace] could not be null");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        this.map = (Map<String, Object>)map;
+        this.namespace = namespace;
+        this.name = name;
+        this.metaData = map instanceof HashMapWrapper ? ((HashMapWrapper<?, ?>)map).getMetaData() : null;
+    }
+
+    public Map<String, Object> getMap() {
+        return map;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getNamespace() {
+        return namespace;
+    }
+
+    @Override
+    public MsgMetaData getMetaData() {
+        if (metaData == null) {
+            metaData = new MsgMetaData(namespace, name, new Date(Math.floorDiv(MessageUtil.currentTimeNanos(), 1_000_000L)), 0, 0);
+        }
+        return metaData;
+    }
+
+    /**
+     * Views of messages and lists are unwrapped before they are put to the map
+     */
+    @Override
+    public void addField(String name, Object value) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+
+        if (value != null) {
+            map.put(name, unwrap(value));
+        }
+    }
+
+    @Override
+    public Object removeField(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+        return wrap(name, map.remove(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getField(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("[name] could not be null");
+        }
+        return (T)wrap(name, map.get(name));
+    }
+
+    @Override
+    public FieldMetaData getFieldMetaData(String name) {
+        return new FieldMetaData();
+    }
+
+    @Override
+    public boolean isFieldSet(String name) {
+        return map.get(name) != null;
+    }
+
+    /**
+     * Returns live view of the keys which are mapped to non-null values
+     */
+    @Override
+    public Set<String> getFieldNames() {
+        return Sets.filter(map.keySet(), fieldName -> map.get(fieldName) != null);
+    }
+
+    @Override
+    public int getFieldCount() {
+        int count = 0;
+
+        for (Object value : map.values()) {
+            if (value != null) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public IFieldInfo getFieldInfo(String name) {
+        Object value = getField(name);
+        return value != null ? new MapMessage.MapFieldInfo(name, value) : null;
+    }
+
+    @Override
+    public void forEachField(BiConsumer<String, Object> action) {
+        map.forEach((fieldName, value) -> {
+            if (value != null) {
+                action.accept(fieldName, wrap(fieldName, value));
+            }
+        });
+    }
+
+    /**
+     * Returns a mutable deep copy backed by {@link MapMessage}
+     */
+    @Override
+    public MapMessage cloneMessage() {
+        MapMessage cloned = new MapMessage(metaData != null ? metaData.clone() : new MsgMetaData(namespace, name));
+
+        map.forEach((fieldName, value) -> {
+            if (value != null) {
+                cloned.addField(fieldName, cloneValue(fieldName, value));
+            }
+        });
+
+        return cloned;
+    }
+
+    /**
+     * Compares the map directly, nested maps and lists are wrapped without copying
+     */
+    @Override
+    public boolean compare(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        if (!namespace.equals(message.getNamespace()) || !name.equals(message.getName())) {
+            logger.debug("Comparison failed. Message name [{}]. Name or namespace mismatch: this [{}:{}], other [{}:{}].",
+                    name, namespace, name, message.getNamespace(), message.getName());
+            return false;
+        }
+
+        for (Entry<String, Object> entry : map.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+
+            Object valueThis = wrap(entry.getKey(), entry.getValue());
+            Object valueThat = message.getField(entry.getKey());
+
+            if (valueThat == null) {
+                logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].", name, entry.getKey());
+                return false;
+            }
+
+            if (!IndexedMessage.compareValues(valueThis, valueThat)) {
+                logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
+                        name, entry.getKey(), valueThis, valueThat);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return MapMessage.toString(this);
+    }
+
+    private Object wrap(String fieldName, Object value) {
+        if (value instanceof Map<?, ?>) {
+            return new MapBackedMessage(castMap(value), namespace, fieldName);
+        }
+
+        if (value instanceof List<?>) {
+            return new WrappingList((List<?>)value, element -> wrap(fieldName, element), MapBackedMessage::unwrap);
+        }
+
+        return value;
+    }
+
+    private Object cloneValue(String fieldName, Object value) {
+        if (value instanceof Map<?, ?>) {
+            return new MapBackedMessage(castMap(value), namespace, fieldName).cloneMessage();
+        }
+
+        if (value instanceof IMessage) {
+            return ((IMessage)value).cloneMessage();
+        }
+
+        if (value instanceof List<?>) {
+            List<?> list = (List<?>)value;
+            List<Object> cloned = new ArrayList<>(list.size());
+
+            for (Object element : list) {
+                cloned.add(cloneValue(fieldName, element));
+            }
+
+            return cloned;
+        }
+
+        return value;
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof MapBackedMessage) {
+            return ((MapBackedMessage)value).map;
+        }
+
+        if (value instanceof WrappingList) {
+            return ((WrappingList)value).unwrap();
+        }
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> castMap(Object value) {
+        return (Map<String, ?>)value;
+    }
+}
@@ -16,16 +16,14 @@
 package com.exactpro.sf.common.impl.messages;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.slf4j.Logger;
@@ -35,20 +33,24 @@ import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
 import com.exactpro.sf.common.messages.FieldMetaData;
 import com.exactpro.sf.common.messages.IFieldInfo;
 import com.exactpro.sf.common.messages.IMessage;
-import com.exactpro.sf.common.messages.MetadataProperty;
+import com.exactpro.sf.common.messages.IVersionedMessage;
+import com.exactpro.sf.common.messages.MessageRenderer;
 import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.messages.ValueType;
 import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.common.util.SymbolTable;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
-public class MapMessage implements IMessage
+public class MapMessage implements IVersionedMessage
 {
 	private static final Logger logger = LoggerFactory.getLogger(MapMessage.class );
 
     private final Map<String, Object> fieldsMap = new HashMap<>();
     private final Map<String, FieldMetaData> fieldsMetaData = new HashMap<>();
+    private long version;
 	private MsgMetaData msgMetaData;
 	private String namespace;
 	private String name;
@@ -72,10 +74,10 @@ public class MapMessage implements IMessage
 			throw new IllegalArgumentException("[name] could not be null");
 		}
 
-		this.namespace = namespace;
-		this.name = name;
+		this.namespace = SymbolTable.intern(namespace);
+		this.name = SymbolTable.intern(name);
 
-		this.msgMetaData = new MsgMetaData(namespace, name);
+		this.msgMetaData = new MsgMetaData(this.namespace, this.name);
 	}
 
 
@@ -96,6 +98,7 @@ public class MapMessage implements IMessage
 
         if (value != null) {
             fieldsMap.put(name, value);
+            version++;
         }
 	}
 
@@ -105,15 +108,22 @@ public class MapMessage implements IMessage
 		return resultFieldsMap;
 	}
 
+    /**
+     * Field names are replaced with their canonical instances from {@link SymbolTable}
+     */
     @JsonSetter("fieldsMap")
-    @SuppressWarnings("ControlFlowStatementWithoutBraces")
 	public void addFieldsMap(Map<String, Object> fieldsMap){
-		this.fieldsMap.putAll(fieldsMap);
-        while (this.fieldsMap.values().remove(null));
+        for (Entry<String, Object> entry : fieldsMap.entrySet()) {
+            if (entry.getValue() != null) {
+                this.fieldsMap.put(SymbolTable.intern(entry.getKey()), entry.getValue());
+            }
+        }
+        version++;
 	}
 
 	public void removeAllFields(){
 		fieldsMap.clear();
+		version++;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -161,9 +171,21 @@ public class MapMessage implements IMessage
 		{
 			throw new IllegalArgumentException("[name] could not be null");
 		}
+        version++;
         return fieldsMap.remove(name);
 	}
 
+    @Override
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Clones the message with all its sub-messages and lists. Unlike {@link IndexedMessage} the clone is not copy-on-write:
+     * {@link #getFieldsMap()} and the JSON serialization hand the values out without going through the message,
+     * so a shared sub-message could not be copied before its modification
+     */
 	@Override
 	public MapMessage cloneMessage()
 	{
@@ -194,186 +216,108 @@ public class MapMessage implements IMessage
 		return o;
 	}
 
-	@Override
-	public boolean compare( IMessage message )
-	{
-		//return false;
-		if ( message == null )
-		{
-			throw new IllegalArgumentException("[message] could not be null");
-		}
-
-		if ( !( message instanceof MapMessage ))
-		{
-			return false;
-			//throw new IllegalArgumentException("[message] is not instance of MapMessage");
-		}
-
-		boolean equal = true;
+    @Override
+    public boolean compare(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
 
-        if (!namespace.equals(message.getNamespace()))
-		{
-			equal = false;
+        if (!(message instanceof MapMessage)) {
+            return false;
+        }
 
-			logger.debug("Comparison failed. Message name [{}]. Namespaces mismatch: this [{}], other [{}].",
+        if (!namespace.equals(message.getNamespace())) {
+            logger.debug("Comparison failed. Message name [{}]. Namespaces mismatch: this [{}], other [{}].",
                     name, namespace, message.getNamespace());
-        } else if (!name.equals(message.getName()))
-		{
-			equal = false;
+            return false;
+        }
 
-			logger.debug("Comparison failed. Message name [{}]. Names mismatch: this [{}], other [{}].",
+        if (!name.equals(message.getName())) {
+            logger.debug("Comparison failed. Message name [{}]. Names mismatch: this [{}], other [{}].",
                     name, name, message.getName());
-		}
-		else
-		{
-            for (String fldName : getFieldNames())
-			{
-				if ( ! message.getFieldNames().contains(fldName))
-				{
-					equal = false;
-
-					logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].",
-                            name, fldName);
-
-                    return equal;
-				}
-				else
-				{
-                    if ((getField(fldName) instanceof MapMessage)
-                            || (getField(fldName) instanceof MapMessage[])
-						|| ( message.getField( fldName ) instanceof MapMessage)
-						|| (message.getField( fldName ) instanceof MapMessage[]))
-					{
-                        if (!(((getField(fldName) instanceof MapMessage[]) &&
-								( message.getField( fldName ) instanceof MapMessage[] ))
-                                || ((getField(fldName) instanceof MapMessage) &&
-									( message.getField( fldName ) instanceof MapMessage ))))
-						{
-							equal = false;
-
-							logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Types mismatch. Class this: [{}], class other: [{}].",
-                                    name, fldName,
-                                    getField(fldName).getClass(),
-									message.getField( fldName ).getClass());
-
-                            return equal;
-						}
-						else
-						{
-                            if (getField(fldName) instanceof IMessage)
-							{
-                                equal = ((IMessage)getField(fldName))
-									.compare(message.getField( fldName ));
-
-								if (! equal )
-								{
-                                    return equal;
-								}
-							}
-							else
-							{
-                                IMessage[] thisArr = getField(fldName);
-								IMessage[] thatArr = message.getField( fldName );
-
-								if (thisArr.length != thatArr.length)
-								{
-									logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Arrays lengths are not equal. this: [{}], other: [{}].",
-                                            name, fldName, thisArr.length, thatArr.length);
-                                    return false;
-                                }
-
-								for ( int i = 0 ; i < thisArr.length; i++ )
-								{
-									equal = thisArr[i].compare( thatArr[i] );
-
-									if (! equal )
-									{
-										logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Sub messages at index [{}] are not equal.",
-                                                name, fldName, i);
-
-										break;
-									}
-								}
-								if (! equal )
-								{
-                                    return equal;
-								}
-							}
-						}
-					}
-					else
-					{
-                        if (getFieldType(fldName) != ((MapMessage)message).getFieldType(fldName))
-						{
-							equal = false;
-
-							logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. FieldType mismatch. this: [{}], other: [{}].",
-                                    name, fldName,
-                                    getFieldType(fldName),
-									((MapMessage)message).getFieldType(fldName));
-                            return equal;
-						}
-						else
-						{
-                            Object valueThis = getField(fldName);
-							Object valueThat = message.getField( fldName );
-
-							if (! compareValues(fldName, valueThis, valueThat))
-							{
-								equal = false;
-
-                                logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
-                                        name, fldName,
-                                        valueThis,
-                                        valueThat);
-
-                                return equal;
-							}
-						}
-					}
-				}
-			}
-		}
-		return equal;
-	}
+            return false;
+        }
 
-	private boolean compareValues(String fieldName, Object valueThis, Object valueThat)
-	{
+        Map<String, Object> thatFields = ((MapMessage)message).fieldsMap;
+
+        for (Entry<String, Object> entry : fieldsMap.entrySet()) {
+            String fldName = entry.getKey();
+            Object valueThis = entry.getValue();
+            Object valueThat = thatFields.get(fldName);
+
+            if (valueThat == null) {
+                logger.debug("Comparison failed. Message name [{}]. Other message does not contain field: [{}].",
+                        name, fldName);
+                return false;
+            }
+
+            boolean complexThis = valueThis instanceof MapMessage || valueThis instanceof MapMessage[];
+            boolean complexThat = valueThat instanceof MapMessage || valueThat instanceof MapMessage[];
+
+            if (complexThis || complexThat) {
+                if (valueThis instanceof MapMessage && valueThat instanceof MapMessage) {
+                    if (!((IMessage)valueThis).compare((IMessage)valueThat)) {
+                        return false;
+                    }
+                } else if (valueThis instanceof MapMessage[] && valueThat instanceof MapMessage[]) {
+                    IMessage[] thisArr = (IMessage[])valueThis;
+                    IMessage[] thatArr = (IMessage[])valueThat;
+
+                    if (thisArr.length != thatArr.length) {
+                        logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Arrays lengths are not equal. this: [{}], other: [{}].",
+                                name, fldName, thisArr.length, thatArr.length);
+                        return false;
+                    }
+
+                    for (int i = 0; i < thisArr.length; i++) {
+                        if (!thisArr[i].compare(thatArr[i])) {
+                            logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Sub messages at index [{}] are not equal.",
+                                    name, fldName, i);
+                            return false;
+                        }
+                    }
+                } else {
+                    logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Types mismatch. Class this: [{}], class other: [{}].",
+                            name, fldName, valueThis.getClass(), valueThat.getClass());
+                    return false;
+                }
+            } else {
+                JavaType typeThis = ValueType.of(valueThis).requireJavaType();
+                JavaType typeThat = ValueType.of(valueThat).requireJavaType();
 
+                if (typeThis != typeThat) {
+                    logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. FieldType mismatch. this: [{}], other: [{}].",
+                            name, fldName, typeThis, typeThat);
+                    return false;
+                }
+
+                if (!compareValues(fldName, valueThis, valueThat)) {
+                    logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Values mismatch. this: [{}], other: [{}].",
+                            name, fldName, valueThis, valueThat);
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean compareValues(String fieldName, Object valueThis, Object valueThat) {
         Class<?> clazzThis = valueThis.getClass();
-		Class<?> clazzThat = valueThat.getClass();
+        Class<?> clazzThat = valueThat.getClass();
 
-		if (clazzThis == clazzThat)
-		{
-			Object castedThis = clazzThis.cast(valueThis);
-			Object castedThat = clazzThis.cast(valueThat);
-
-            if (clazzThis == BigDecimal.class)
-			{
-				BigDecimal bigDecimalThis = (BigDecimal)castedThis;
-				BigDecimal bigDecimalThat = (BigDecimal)castedThat;
-				BigDecimal subtract = bigDecimalThis.subtract(bigDecimalThat);
-
-				if (subtract.doubleValue() == 0.0 )
-				{
-                    return true;
-				}
-			}
-			else if (castedThis.equals( castedThat))
-			{
-                return true;
-			}
-		}
-		else
-		{
+        if (clazzThis != clazzThat) {
             logger.debug("Comparison failed. Message name [{}]. Field name: [{}]. Types mismatch. this: [{}], other: [{}].",
-                    name, fieldName,
-                    clazzThis,
-                    clazzThat);
+                    name, fieldName, clazzThis, clazzThat);
+            return false;
+        }
 
-		}
-        return false;
-	}
+        if (clazzThis == BigDecimal.class) {
+            return ((BigDecimal)valueThis).compareTo((BigDecimal)valueThat) == 0;
+        }
+
+        return valueThis.equals(valueThat);
+    }
 
 	@Override
 	@JsonIgnore
@@ -382,6 +326,11 @@ public class MapMessage implements IMessage
 		return fieldsMap.keySet();
 	}
 
+    @Override
+    public void forEachField(BiConsumer<String, Object> action) {
+        fieldsMap.forEach(action);
+    }
+
     @Override
     @JsonIgnore
     public int getFieldCount() {
@@ -397,7 +346,7 @@ public class MapMessage implements IMessage
 
         if( fieldsMap.containsKey(name)) {
             Object field = fieldsMap.get(name);
-            return JavaType.fromValue(field.getClass().getCanonicalName());
+            return ValueType.of(field).requireJavaType();
 		}
 		else
 		{
@@ -410,39 +359,11 @@ public class MapMessage implements IMessage
 
 	@Override
     public String toString() {
-        StringBuilder toString = new StringBuilder(1024);
-
-        for (String fldName : getFieldNames()) {
-            if (toString.length() > 0) {
-                toString.append('|');
-            }
-
-            Object value = getField(fldName);
-
-            if (value instanceof IMessage) {
-                toString.append(value);
-            } else {
-                Object field = getField(fldName);
-
-                toString.append(fldName);
-                toString.append('=');
-
-                if (field instanceof BigDecimal) {
-                    toString.append(((BigDecimal)field).toPlainString());
-                } else {
-                    toString.append(field);
-                }
-            }
-        }
+        return toString(this);
+    }
 
-        if (toString.length() > 0) {
-            toString.append('|');
-        }
-        byte[] rawMessage = msgMetaData.getRawMessage();
-        toString.append(MetadataProperty.RAW_MESSAGE.getPropertyName())
-                .append('=')
-                .append(rawMessage == null ? "" : Hex.encodeHexString(rawMessage));
-        return toString.toString();
+    static String toString(IMessage message) {
+        return MessageRenderer.DEFAULT.render(message);
     }
 
 
@@ -461,13 +382,13 @@ public class MapMessage implements IMessage
 	}
 
 
-	private class MapFieldInfo implements IFieldInfo
+	static class MapFieldInfo implements IFieldInfo
 	{
         private final String fldName;
         private final Object value;
 
 
-		private MapFieldInfo(String name, Object value)
+		MapFieldInfo(String name, Object value)
 		{
 			this.fldName = name;
 			this.value = value;
@@ -496,28 +417,7 @@ public class MapMessage implements IMessage
 		@Override
 		public boolean isCollection()
 		{
-			if ( value instanceof List<?> )
-			{
-				return true;
-			}
-			else if ( value instanceof boolean[] ||
-						value instanceof short[] ||
-						value instanceof int[] ||
-						value instanceof long[] ||
-						value instanceof byte[] ||
-						value instanceof float[] ||
-						value instanceof double[] ||
-						value instanceof String[] ||
-                        value instanceof LocalDateTime[] ||
-                        value instanceof LocalDate[] ||
-                        value instanceof LocalTime[] ||
-						value instanceof char[] ||
-						value instanceof BigDecimal[] )
-			{
-				return true;
-			}
-
-			return false;
+			return ValueType.of(value).isCollection();
 		}
 
 
@@ -527,63 +427,13 @@ public class MapMessage implements IMessage
                 throw new NullPointerException("value");
             }
 
-            if (value instanceof IMessage) {
-                return FieldType.SUBMESSAGE;
-            }
-
-            if (value instanceof Boolean || value instanceof boolean[]) {
-                return FieldType.BOOLEAN;
-            }
-
-            if (value instanceof Short || value instanceof short[]) {
-                return FieldType.SHORT;
-            }
-
-            if (value instanceof Integer || value instanceof int[]) {
-                return FieldType.INT;
-            }
-
-            if (value instanceof Long || value instanceof long[]) {
-                return FieldType.LONG;
-            }
-
-            if (value instanceof Byte || value instanceof byte[]) {
-                return FieldType.BYTE;
-            }
-
-            if (value instanceof Float || value instanceof float[]) {
-                return FieldType.FLOAT;
-            }
-
-            if (value instanceof Double || value instanceof double[]) {
-                return FieldType.DOUBLE;
-            }
-
-            if (value instanceof String || value instanceof String[]) {
-                return FieldType.STRING;
-            }
-
-            if (value instanceof LocalDateTime || value instanceof LocalDateTime[]) {
-                return FieldType.DATE_TIME;
-            }
-
-            if (value instanceof LocalDate || value instanceof LocalDate[]) {
-                return FieldType.DATE;
-            }
-
-            if (value instanceof LocalTime || value instanceof LocalTime[]) {
-                return FieldType.TIME;
-            }
-
-            if (value instanceof Character || value instanceof char[]) {
-                return FieldType.CHAR;
-            }
+            FieldType fieldType = ValueType.of(value).getFieldType();
 
-            if (value instanceof BigDecimal || value instanceof BigDecimal[]) {
-                return FieldType.DECIMAL;
+            if (fieldType == null) {
+                throw new EPSCommonException("Cannot associate  [" + value.getClass().getCanonicalName() + "] with FieldType");
             }
 
-			throw new EPSCommonException("Cannot associate  [" + value.getClass().getCanonicalName() + "] with FieldType" );
+            return fieldType;
 		}
 
 	}
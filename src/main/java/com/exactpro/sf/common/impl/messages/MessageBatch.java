@@ -0,0 +1,202 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.IMessageStructureReaderHandler;
+import com.exactpro.sf.common.messages.IMessageStructureVisitor;
+import com.exactpro.sf.common.messages.MessageStructureReader;
+import com.exactpro.sf.common.messages.MetadataExtensions;
+import com.exactpro.sf.common.messages.MetadataProperty;
+import com.exactpro.sf.common.messages.impl.Metadata;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Group of messages received or sent together, e.g. messages of one network packet.
+ * <p>
+ * Properties common for the whole batch (protocol, dictionary URI, service info, from/to service, batch sequence)
+ * are kept once in the header, so the metadata of each message only needs its own properties.
+ * {@link MetadataProperty#SUBSEQUENCE} of a message is its index in the batch, it is derived from the position
+ * when it is read, so the messages are never modified by the batch and can be shared by several batches.
+ * Use {@link #getProperty(int, MetadataProperty)} to read a property of a message with the fallback to the header
+ * or {@link #explode()} to get independent messages with the header properties copied.
+ */
+public class MessageBatch implements Iterable<IMessage> {
+    private final Metadata header;
+    private final List<IMessage> messages;
+
+    public MessageBatch() {
+        this(new Metadata());
+    }
+
+    public MessageBatch(Metadata header) {
+        this(header, new ArrayList<>());
+    }
+
+    @JsonCreator
+    public MessageBatch(@JsonProperty("header") Metadata header,
+            @JsonProperty("messages") @JsonDeserialize(contentAs = MapMessage.class) List<IMessage> messages) {
+        if (header == null) {
+            throw new IllegalArgumentException("[header] could not be null");
+        }
+        this.header = header;
+        this.messages = new ArrayList<>(messages != null ? messages.size() : 10);
+
+        if (messages != null) {
+            messages.forEach(this::add);
+        }
+    }
+
+    /**
+     * Metadata shared by all messages of the batch
+     */
+    @JsonProperty("header")
+    public Metadata getHeader() {
+        return header;
+    }
+
+    @JsonProperty("messages")
+    public List<IMessage> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Appends the message, its {@link MetadataProperty#SUBSEQUENCE} is the index in the batch
+     */
+    public MessageBatch add(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        messages.add(message);
+        return this;
+    }
+
+    public IMessage get(int index) {
+        return messages.get(index);
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    @Override
+    public Iterator<IMessage> iterator() {
+        return getMessages().iterator();
+    }
+
+    /**
+     * Returns the property of the message or the property of the header if the message doesn't have it.
+     * {@link MetadataProperty#SUBSEQUENCE} is always the index of the message
+     */
+    public Object getProperty(int index, MetadataProperty property) {
+        Object value = messages.get(index).getMetaData().get(property);
+
+        if (property == MetadataProperty.SUBSEQUENCE) {
+            return index;
+        }
+
+        return value != null ? value : header.get(property);
+    }
+
+    /**
+     * Returns a new batch with the same header and the messages accepted by the filter.
+     * The messages are shared with this batch, their subsequences in the new batch are their new indexes.
+     */
+    public MessageBatch filter(Predicate<? super IMessage> filter) {
+        MessageBatch result = new MessageBatch(header);
+
+        for (IMessage message : messages) {
+            if (filter.test(message)) {
+                result.add(message);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Traverses all messages with the same visitor. The structure of each message name is looked up once per call.
+     * @throws EPSCommonException if the dictionary doesn't contain a message of the batch
+     */
+    public void traverse(MessageStructureReader reader, IDictionaryStructure dictionary,
+            IMessageStructureVisitor visitor, IMessageStructureReaderHandler handler) {
+        Map<String, IMessageStructure> structures = new HashMap<>();
+
+        for (IMessage message : messages) {
+            IMessageStructure structure = structures.computeIfAbsent(message.getName(), name -> dictionary.getMessages().get(name));
+
+            if (structure == null) {
+                throw new EPSCommonException("Dictionary " + dictionary.getNamespace() + " doesn't contain message " + message.getName());
+            }
+
+            reader.traverse(visitor, structure, message, handler);
+        }
+    }
+
+    /**
+     * Clones the messages of the batch keeping their ids, copies the header properties which are missing
+     * in the metadata of a message to its clone, sets {@link MetadataProperty#SUBSEQUENCE}
+     * and marks the last clone with {@link MetadataProperty#IS_LAST_IN_BATCH}. The messages of the batch are not modified
+     * @return messages of the batch which can be processed independently
+     */
+    public List<IMessage> explode() {
+        List<IMessage> result = new ArrayList<>(messages.size());
+
+        for (int i = 0; i < messages.size(); i++) {
+            IMessage message = messages.get(i);
+            IMessage clone = message.cloneMessage();
+            Metadata metaData = clone.getMetaData();
+
+            Object id = message.getMetaData().get(MetadataProperty.ID);
+
+            if (id != null) {
+                metaData.set(MetadataProperty.ID, id);
+            }
+
+            for (String key : header.getKeys()) {
+                if (!metaData.contains(key)) {
+                    metaData.set(key, header.get(key));
+                }
+            }
+
+            MetadataExtensions.setSubsequence(metaData, i);
+            MetadataExtensions.setLastInBatch(metaData, i == messages.size() - 1);
+            result.add(clone);
+        }
+
+        return result;
+    }
+}
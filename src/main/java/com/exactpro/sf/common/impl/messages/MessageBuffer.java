@@ -0,0 +1,158 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import com.exactpro.sf.common.util.EPSCommonException;
+
+/**
+ * Append-only storage of {@link BufferMessage} records over a heap, direct or memory-mapped {@link ByteBuffer}.
+ * Space is allocated by bumping the position. Space of the overwritten variable-length values isn't reused,
+ * so frequently modified messages should be copied to a new buffer from time to time.
+ * <p>
+ * Offsets are absolute indexes in the underlying buffer. The class isn't thread-safe for writing.
+ */
+public final class MessageBuffer {
+    private final ByteBuffer buffer;
+    private int position;
+
+    public MessageBuffer(ByteBuffer buffer) {
+        this(buffer, 0);
+    }
+
+    /**
+     * Creates a storage over a buffer which already contains records, e.g. a memory-mapped file
+     * @param position index of the first free byte of the buffer
+     */
+    public MessageBuffer(ByteBuffer buffer, int position) {
+        this.buffer = Objects.requireNonNull(buffer, "buffer cannot be null");
+
+        if (position < 0 || position > buffer.capacity()) {
+            throw new IllegalArgumentException("position is out of the buffer bounds: " + position);
+        }
+
+        this.position = position;
+    }
+
+    public static MessageBuffer allocateDirect(int capacity) {
+        return new MessageBuffer(ByteBuffer.allocateDirect(capacity));
+    }
+
+    /**
+     * Returns index of the first free byte of the buffer
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Allocates zero-filled space of the specified size and returns its offset
+     */
+    int allocate(int size) {
+        if (size > buffer.capacity() - position) {
+            throw new EPSCommonException(String.format("Message buffer is full. Capacity [%s], used [%s], requested [%s].",
+                    buffer.capacity(), position, size));
+        }
+
+        int offset = position;
+        position += size;
+        fill(offset, size);
+
+        return offset;
+    }
+
+    void copy(int from, int to, int length) {
+        int i = 0;
+
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            buffer.putLong(to + i, buffer.getLong(from + i));
+        }
+
+        for (; i < length; i++) {
+            buffer.put(to + i, buffer.get(from + i));
+        }
+    }
+
+    int putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = allocate(Integer.BYTES + bytes.length);
+
+        buffer.putInt(offset, bytes.length);
+        putBytes(offset + Integer.BYTES, bytes);
+
+        return offset;
+    }
+
+    String getString(int offset) {
+        return new String(getBytes(offset + Integer.BYTES, buffer.getInt(offset)), StandardCharsets.UTF_8);
+    }
+
+    int putBigDecimal(BigDecimal value) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        int offset = allocate(Integer.BYTES * 2 + unscaled.length);
+
+        buffer.putInt(offset, value.scale());
+        buffer.putInt(offset + Integer.BYTES, unscaled.length);
+        putBytes(offset + Integer.BYTES * 2, unscaled);
+
+        return offset;
+    }
+
+    BigDecimal getBigDecimal(int offset) {
+        int scale = buffer.getInt(offset);
+        byte[] unscaled = getBytes(offset + Integer.BYTES * 2, buffer.getInt(offset + Integer.BYTES));
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private void putBytes(int offset, byte[] bytes) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.put(bytes);
+    }
+
+    private byte[] getBytes(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.get(bytes);
+        return bytes;
+    }
+
+    private void fill(int offset, int size) {
+        int i = 0;
+
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            buffer.putLong(offset + i, 0L);
+        }
+
+        for (; i < size; i++) {
+            buffer.put(offset + i, (byte)0);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+
+/**
+ * Live {@link Map} view of a message. Unlike {@link com.exactpro.sf.common.messages.MessageUtil#convertToHashMap(IMessage)}
+ * nothing is copied: reads and writes go to the message, sub-messages and lists are wrapped when they are accessed.
+ */
+public class MessageMapView extends AbstractMap<String, Object> {
+    private final IMessage message;
+    private final Set<Entry<String, Object>> entrySet = new EntrySet();
+
+    public MessageMapView(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+        this.message = message;
+    }
+
+    public IMessage getMessage() {
+        return message;
+    }
+
+    public MsgMetaData getMetaData() {
+        return message.getMetaData();
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String ? wrap(message.getField((String)key)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && message.isFieldSet((String)key);
+    }
+
+    /**
+     * Views of messages and lists are unwrapped before they are put to the message
+     */
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = message.getField(key);
+        message.addField(key, unwrap(value));
+        return wrap(previous);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return key instanceof String ? wrap(message.removeField((String)key)) : null;
+    }
+
+    @Override
+    public int size() {
+        return message.getFieldCount();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return entrySet;
+    }
+
+    static Object wrap(Object value) {
+        if (value instanceof IMessage) {
+            return new MessageMapView((IMessage)value);
+        }
+
+        if (value instanceof List<?>) {
+            return new WrappingList((List<?>)value, MessageMapView::wrap, MessageMapView::unwrap);
+        }
+
+        return value;
+    }
+
+    static Object unwrap(Object value) {
+        if (value instanceof MessageMapView) {
+            return ((MessageMapView)value).message;
+        }
+
+        if (value instanceof WrappingList) {
+            return ((WrappingList)value).unwrap();
+        }
+
+        return value;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            Iterator<String> names = message.getFieldNames().iterator();
+
+            return new Iterator<Entry<String, Object>>() {
+                @Override
+                public boolean hasNext() {
+                    return names.hasNext();
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    return new FieldEntry(names.next());
+                }
+
+                @Override
+                public void remove() {
+                    names.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return message.getFieldCount();
+        }
+    }
+
+    private class FieldEntry implements Entry<String, Object> {
+        private final String name;
+
+        private FieldEntry(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getKey() {
+            return name;
+        }
+
+        @Override
+        public Object getValue() {
+            return wrap(message.getField(name));
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(name, value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> that = (Entry<?, ?>)obj;
+            return name.equals(that.getKey()) && Objects.equals(getValue(), that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + getValue();
+        }
+    }
+}
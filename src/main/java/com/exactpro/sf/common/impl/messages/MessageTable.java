@@ -0,0 +1,854 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.FieldMetaData;
+import com.exactpro.sf.common.messages.IFieldInfo;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.messages.ValueType;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.comparison.conversion.ConversionException;
+import com.exactpro.sf.comparison.conversion.IConverter;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+
+/**
+ * Columnar storage of messages of the same structure.
+ * <p>
+ * Each field of the structure is stored in its own column: integral numbers and characters in a {@code long[]},
+ * floating point numbers in a {@code double[]}, booleans in a bit set, strings are dictionary-encoded and
+ * other values are kept as references. Absent values are tracked by a bit set per column.
+ * Sub-messages and repeating groups are stored in nested tables which are created on the first use,
+ * so recursive structures are supported.
+ * <p>
+ * Rows are read through read-only {@link IMessage} views, columns can be scanned with predicates without
+ * creating the views. Values must have the Java types declared in the structure, except that integral and
+ * floating point numbers are converted to the declared type if it is possible without data loss.
+ * Fields which are missing in the structure aren't allowed. Only id, sequence and timestamp of the metadata are kept.
+ * <p>
+ * The table isn't thread-safe.
+ */
+public class MessageTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String namespace;
+    private final String name;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final String[] columnNames;
+    private final Column[] columnArray;
+    /** The table created by the public constructor */
+    private final MessageTable root;
+    /** The root table and all nested tables created so far, it is kept by the root table only */
+    private final List<MessageTable> tables;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+
+    public MessageTable(String namespace, IMessageStructure structure) {
+        this(null, namespace, structure.getName(), structure.getFields());
+    }
+
+    private MessageTable(MessageTable root, String namespace, String name, Map<String, IFieldStructure> fields) {
+        if (namespace == null) {
+            throw new IllegalArgumentException("[namespace] could not be null");
+        }
+
+        this.namespace = namespace;
+        this.name = name;
+        this.root = root != null ? root : this;
+        this.tables = root != null ? null : new ArrayList<>();
+        this.root.tables.add(this);
+
+        for (IFieldStructure field : fields.values()) {
+            columns.put(field.getName(), createColumn(field));
+        }
+
+        this.columnNames = columns.keySet().toArray(new String[0]);
+        this.columnArray = columns.values().toArray(new Column[0]);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Set<String> getColumnNames() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Appends the message as a new row. The table isn't changed if the message can't be stored.
+     * @return index of the row
+     * @throws EPSCommonException if the message has a field which is missing in the structure or a value of incompatible type
+     */
+    public int append(IMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        List<MessageTable> tables = root.tables;
+        int[] sizes = new int[tables.size()];
+
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = tables.get(i).size;
+        }
+
+        try {
+            return appendRow(message);
+        } catch (RuntimeException e) {
+            // tables created by the failed append are left empty
+            for (int i = 0; i < tables.size(); i++) {
+                tables.get(i).truncate(i < sizes.length ? sizes[i] : 0);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns read-only view of the row
+     */
+    public IMessage row(int index) {
+        checkRow(index);
+        return new Row(index);
+    }
+
+    /**
+     * Returns views of the rows which are set in the bit set, e.g. the result of a scan
+     */
+    public List<IMessage> rows(BitSet selection) {
+        List<IMessage> result = new ArrayList<>(selection.cardinality());
+
+        for (int index = selection.nextSetBit(0); index >= 0 && index < size; index = selection.nextSetBit(index + 1)) {
+            result.add(new Row(index));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the value of the row converted to the type of the column or {@code null} if it isn't set
+     */
+    public Object getValue(int index, String fieldName) {
+        checkRow(index);
+        Column column = getColumn(fieldName);
+        return column.present.get(index) ? column.get(index) : null;
+    }
+
+    public boolean isSet(int index, String fieldName) {
+        checkRow(index);
+        return getColumn(fieldName).present.get(index);
+    }
+
+    /**
+     * Returns the value of an integral or character column without boxing
+     * @throws IllegalStateException if the value isn't set
+     */
+    public long getLong(int index, String fieldName) {
+        checkRow(index);
+        LongColumn column = getColumn(fieldName, LongColumn.class);
+        column.checkPresent(index);
+        return column.values[index];
+    }
+
+    /**
+     * Returns the value of a floating point column without boxing
+     * @throws IllegalStateException if the value isn't set
+     */
+    public double getDouble(int index, String fieldName) {
+        checkRow(index);
+        DoubleColumn column = getColumn(fieldName, DoubleColumn.class);
+        column.checkPresent(index);
+        return column.values[index];
+    }
+
+    /**
+     * Returns rows of an integral or character column whose values match the predicate
+     */
+    public BitSet scanLong(String fieldName, LongPredicate predicate) {
+        LongColumn column = getColumn(fieldName, LongColumn.class);
+        BitSet result = new BitSet(size);
+
+        for (int index = column.present.nextSetBit(0); index >= 0; index = column.present.nextSetBit(index + 1)) {
+            if (predicate.test(column.values[index])) {
+                result.set(index);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns rows of a floating point column whose values match the predicate
+     */
+    public BitSet scanDouble(String fieldName, DoublePredicate predicate) {
+        DoubleColumn column = getColumn(fieldName, DoubleColumn.class);
+        BitSet result = new BitSet(size);
+
+        for (int index = column.present.nextSetBit(0); index >= 0; index = column.present.nextSetBit(index + 1)) {
+            if (predicate.test(column.values[index])) {
+                result.set(index);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns rows whose values of the column match the predicate, absent values are skipped.
+     * For a string column the predicate is evaluated once per distinct value.
+     */
+    public BitSet scan(String fieldName, Predicate<Object> predicate) {
+        Column column = getColumn(fieldName);
+        BitSet result = new BitSet(size);
+
+        if (column instanceof StringColumn) {
+            StringColumn strings = (StringColumn)column;
+            BitSet matches = new BitSet(strings.dictionary.size());
+
+            for (int code = 0; code < strings.dictionary.size(); code++) {
+                matches.set(code, predicate.test(strings.dictionary.get(code)));
+            }
+
+            for (int index = column.present.nextSetBit(0); index >= 0; index = column.present.nextSetBit(index + 1)) {
+                if (matches.get(strings.codes[index])) {
+                    result.set(index);
+                }
+            }
+
+            return result;
+        }
+
+        for (int index = column.present.nextSetBit(0); index >= 0; index = column.present.nextSetBit(index + 1)) {
+            if (predicate.test(column.get(index))) {
+                result.set(index);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the table of a sub-message or a repeating group column
+     */
+    public MessageTable getNestedTable(String fieldName) {
+        return getColumn(fieldName, NestedColumn.class).table();
+    }
+
+    private int appendRow(IMessage message) {
+        int known = 0;
+        int index = size;
+
+        ensureCapacity(index + 1);
+
+        for (int i = 0; i < columnArray.length; i++) {
+            Object value = message.getField(columnNames[i]);
+
+            if (value != null) {
+                columnArray[i].set(index, columnNames[i], value);
+                columnArray[i].present.set(index);
+                known++;
+            }
+        }
+
+        if (known != message.getFieldCount()) {
+            for (String fieldName : message.getFieldNames()) {
+                if (!columns.containsKey(fieldName) && message.getField(fieldName) != null) {
+                    throw new EPSCommonException("Field " + fieldName + " is missing in structure " + name);
+                }
+            }
+        }
+
+        MsgMetaData metaData = message.getMetaData();
+        ids[index] = metaData.getId();
+        sequences[index] = metaData.getSequence() != null ? metaData.getSequence() : 0;
+        timestamps[index] = metaData.getMsgTimestampNanos();
+
+        return size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            sequences = Arrays.copyOf(sequences, newCapacity);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            columns.values().forEach(column -> column.grow(newCapacity));
+        }
+    }
+
+    /**
+     * Removes the rows starting from the new size including the partially appended one
+     */
+    private void truncate(int newSize) {
+        for (Column column : columnArray) {
+            column.present.clear(newSize, Math.max(newSize, column.present.length()));
+            column.clear(newSize);
+        }
+        size = newSize;
+    }
+
+    private void checkRow(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row: " + index + ", size: " + size);
+        }
+    }
+
+    private Column getColumn(String fieldName) {
+        Column column = columns.get(fieldName);
+
+        if (column == null) {
+            throw new EPSCommonException("Field " + fieldName + " is missing in structure " + name);
+        }
+
+        return column;
+    }
+
+    private <T extends Column> T getColumn(String fieldName, Class<T> type) {
+        Column column = getColumn(fieldName);
+
+        if (!type.isInstance(column)) {
+            throw new EPSCommonException("Field " + fieldName + " of structure " + name + " isn't stored as " + type.getSimpleName());
+        }
+
+        return type.cast(column);
+    }
+
+    private Column createColumn(IFieldStructure field) {
+        if (field.isComplex()) {
+            return field.isCollection() ? new GroupColumn(this, field) : new MessageColumn(this, field);
+        }
+
+        if (field.isCollection()) {
+            return new ListColumn();
+        }
+
+        switch (field.getJavaType()) {
+        case JAVA_LANG_BOOLEAN:
+            return new BooleanColumn();
+        case JAVA_LANG_BYTE:
+        case JAVA_LANG_SHORT:
+        case JAVA_LANG_INTEGER:
+        case JAVA_LANG_LONG:
+        case JAVA_LANG_CHARACTER:
+            return new LongColumn(field.getJavaType());
+        case JAVA_LANG_FLOAT:
+        case JAVA_LANG_DOUBLE:
+            return new DoubleColumn(field.getJavaType());
+        case JAVA_LANG_STRING:
+            return new StringColumn();
+        case JAVA_MATH_BIG_DECIMAL:
+            return new ObjectColumn(BigDecimal.class);
+        case JAVA_TIME_LOCAL_DATE_TIME:
+            return new ObjectColumn(LocalDateTime.class);
+        case JAVA_TIME_LOCAL_DATE:
+            return new ObjectColumn(LocalDate.class);
+        case JAVA_TIME_LOCAL_TIME:
+            return new ObjectColumn(LocalTime.class);
+        default:
+            throw new EPSCommonException("Unsupported java type " + field.getJavaType() + " of field " + field.getName());
+        }
+    }
+
+    private static EPSCommonException incompatible(String fieldName, Object value, Object expected) {
+        return new EPSCommonException("Value of field " + fieldName + " has type " + value.getClass().getName() + ", expected " + expected);
+    }
+
+    /**
+     * Converts a number to the type of the column
+     * @throws EPSCommonException if the value doesn't fit the type
+     */
+    private static Object narrow(String fieldName, Object value, IConverter<?> converter) {
+        if (value.getClass() == converter.getTargetClass()) {
+            return value;
+        }
+
+        try {
+            return converter.convert(value);
+        } catch (ConversionException e) {
+            throw new EPSCommonException("Value " + value + " of field " + fieldName + " doesn't fit " + converter.getTargetClass().getName(), e);
+        }
+    }
+
+    private abstract static class Column {
+        protected final BitSet present = new BitSet();
+
+        abstract void set(int index, String fieldName, Object value);
+
+        abstract Object get(int index);
+
+        void grow(int capacity) {
+        }
+
+        /**
+         * Releases references held by the removed rows
+         */
+        void clear(int from) {
+        }
+
+        void checkPresent(int index) {
+            if (!present.get(index)) {
+                throw new IllegalStateException("Value isn't set in row " + index);
+            }
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private final JavaType type;
+        private final IConverter<?> converter;
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        private LongColumn(JavaType type) {
+            this.type = type;
+            this.converter = MultiConverter.getConverter(ValueType.javaClass(type));
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Character)) {
+                throw incompatible(fieldName, value, type.value());
+            }
+
+            Object converted = narrow(fieldName, value, converter);
+            values[index] = converted instanceof Character ? (Character)converted : ((Number)converted).longValue();
+        }
+
+        @Override
+        Object get(int index) {
+            long value = values[index];
+
+            switch (type) {
+            case JAVA_LANG_BYTE:
+                return (byte)value;
+            case JAVA_LANG_SHORT:
+                return (short)value;
+            case JAVA_LANG_INTEGER:
+                return (int)value;
+            case JAVA_LANG_CHARACTER:
+                return (char)value;
+            default:
+                return value;
+            }
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private final JavaType type;
+        private final IConverter<?> converter;
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        private DoubleColumn(JavaType type) {
+            this.type = type;
+            this.converter = MultiConverter.getConverter(ValueType.javaClass(type));
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof Double || value instanceof Float)) {
+                throw incompatible(fieldName, value, type.value());
+            }
+            values[index] = ((Number)narrow(fieldName, value, converter)).doubleValue();
+        }
+
+        @Override
+        Object get(int index) {
+            return type == JavaType.JAVA_LANG_FLOAT ? (Object)(float)values[index] : (Object)values[index];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        private final BitSet values = new BitSet();
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof Boolean)) {
+                throw incompatible(fieldName, value, Boolean.class.getName());
+            }
+            values.set(index, (Boolean)value);
+        }
+
+        @Override
+        Object get(int index) {
+            return values.get(index);
+        }
+    }
+
+    /**
+     * Dictionary-encoded strings: each row keeps a code of the value in the dictionary
+     */
+    private static class StringColumn extends Column {
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private int[] codes = new int[INITIAL_CAPACITY];
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof String)) {
+                throw incompatible(fieldName, value, String.class.getName());
+            }
+
+            Integer code = codesByValue.get(value);
+
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add((String)value);
+                codesByValue.put((String)value, code);
+            }
+
+            codes[index] = code;
+        }
+
+        @Override
+        Object get(int index) {
+            return dictionary.get(codes[index]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private final Class<?> type;
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private ObjectColumn(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!type.isInstance(value)) {
+                throw incompatible(fieldName, value, type.getName());
+            }
+            values[index] = value;
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void clear(int from) {
+            Arrays.fill(values, from, values.length, null);
+        }
+    }
+
+    /**
+     * Collections of simple values are stored as read-only copies
+     */
+    private static class ListColumn extends ObjectColumn {
+        private ListColumn() {
+            super(List.class);
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof List<?>)) {
+                throw incompatible(fieldName, value, List.class.getName());
+            }
+            super.set(index, fieldName, Collections.unmodifiableList(new ArrayList<>((List<?>)value)));
+        }
+    }
+
+    /**
+     * The nested table is created on the first use like the sub-layouts of {@link BufferLayout}
+     */
+    private abstract static class NestedColumn extends Column {
+        private final MessageTable owner;
+        private final IFieldStructure field;
+        protected MessageTable table;
+
+        private NestedColumn(MessageTable owner, IFieldStructure field) {
+            this.owner = owner;
+            this.field = field;
+        }
+
+        protected MessageTable table() {
+            if (table == null) {
+                String name = field.getReferenceName() != null ? field.getReferenceName() : field.getName();
+                table = new MessageTable(owner.root, owner.namespace, name, field.getFields());
+            }
+            return table;
+        }
+
+        protected IMessage toMessage(String fieldName, Object value) {
+            if (!(value instanceof IMessage)) {
+                throw incompatible(fieldName, value, IMessage.class.getName());
+            }
+            return (IMessage)value;
+        }
+    }
+
+    /**
+     * Each row keeps the index of the sub-message in the nested table
+     */
+    private static class MessageColumn extends NestedColumn {
+        private int[] rows = new int[INITIAL_CAPACITY];
+
+        private MessageColumn(MessageTable owner, IFieldStructure field) {
+            super(owner, field);
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            rows[index] = table().appendRow(toMessage(fieldName, value));
+        }
+
+        @Override
+        Object get(int index) {
+            return table.new Row(rows[index]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            rows = Arrays.copyOf(rows, capacity);
+        }
+    }
+
+    /**
+     * Elements of a group are stored in consecutive rows of the nested table,
+     * each row keeps the index of the first element and the number of elements
+     */
+    private static class GroupColumn extends NestedColumn {
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] counts = new int[INITIAL_CAPACITY];
+
+        private GroupColumn(MessageTable owner, IFieldStructure field) {
+            super(owner, field);
+        }
+
+        @Override
+        void set(int index, String fieldName, Object value) {
+            if (!(value instanceof List<?>)) {
+                throw incompatible(fieldName, value, List.class.getName());
+            }
+
+            List<?> elements = (List<?>)value;
+            MessageTable table = table();
+            starts[index] = table.size;
+            counts[index] = elements.size();
+
+            for (Object element : elements) {
+                table.appendRow(toMessage(fieldName, element));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            int start = starts[index];
+            int count = counts[index];
+
+            return new AbstractList<IMessage>() {
+                @Override
+                public IMessage get(int element) {
+                    if (element < 0 || element >= count) {
+                        throw new IndexOutOfBoundsException("Index: " + element + ", size: " + count);
+                    }
+                    return table.new Row(start + element);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        void grow(int capacity) {
+            starts = Arrays.copyOf(starts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+    }
+
+    /**
+     * Read-only view of a row. Views of the same row are equal.
+     */
+    private class Row implements IMessage {
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getNamespace() {
+            return namespace;
+        }
+
+        /**
+         * Returns a new metadata with the stored id, sequence and timestamp on each call
+         */
+        @Override
+        public MsgMetaData getMetaData() {
+            return new MsgMetaData(namespace, name, new Date(Math.floorDiv(timestamps[index], 1_000_000L)), ids[index], sequences[index]);
+        }
+
+        @Override
+        public void addField(String name, Object value) {
+            throw new UnsupportedOperationException("Row of a message table is read-only: " + MessageTable.this.name);
+        }
+
+        @Override
+        public Object removeField(String name) {
+            throw new UnsupportedOperationException("Row of a message table is read-only: " + MessageTable.this.name);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> T getField(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("[name] could not be null");
+            }
+
+            Column column = columns.get(name);
+            return column != null && column.present.get(index) ? (T)column.get(index) : null;
+        }
+
+        @Override
+        public FieldMetaData getFieldMetaData(String name) {
+            return new FieldMetaData();
+        }
+
+        @Override
+        public boolean isFieldSet(String name) {
+            return getField(name) != null;
+        }
+
+        @Override
+        public Set<String> getFieldNames() {
+            Set<String> result = new LinkedHashSet<>();
+
+            columns.forEach((fieldName, column) -> {
+                if (column.present.get(index)) {
+                    result.add(fieldName);
+                }
+            });
+
+            return result;
+        }
+
+        @Override
+        public int getFieldCount() {
+            int count = 0;
+
+            for (Column column : columnArray) {
+                if (column.present.get(index)) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        @Override
+        public IFieldInfo getFieldInfo(String name) {
+            Object value = getField(name);
+            return value != null ? new MapMessage.MapFieldInfo(name, value) : null;
+        }
+
+        /**
+         * Returns a mutable deep copy of the row
+         */
+        @Override
+        public MapMessage cloneMessage() {
+            return FrozenMessage.of(this).cloneMessage();
+        }
+
+        @Override
+        public boolean compare(IMessage message) {
+            return FrozenMessage.of(this).compare(message);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MessageTable.Row)) {
+                return false;
+            }
+
+            Row that = (Row)obj;
+            return index == that.index && getTable() == that.getTable();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(MessageTable.this) + index;
+        }
+
+        @Override
+        public String toString() {
+            return MapMessage.toString(this);
+        }
+
+        private MessageTable getTable() {
+            return MessageTable.this;
+        }
+    }
+}
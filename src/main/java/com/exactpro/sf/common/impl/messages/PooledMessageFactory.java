@@ -0,0 +1,249 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MessageUtil;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.configuration.suri.SailfishURI;
+
+/**
+ * Message factory which recycles instances of the messages described in the dictionary together with their metadata.
+ * Messages are created as {@link IndexedMessage} and returned to the pool by {@link #release(IMessage)}.
+ * <p>
+ * A released message, its metadata and its sub-messages must not be used anymore.
+ * Sub-messages of a message which has been cloned or is a clone are not returned to the pool.
+ * Messages which are never released are collected as usual. If leak detection is enabled,
+ * the stack trace of the acquisition of such a message is logged after it has been garbage collected.
+ */
+public abstract class PooledMessageFactory extends AbstractMessageFactory {
+    private static final Logger logger = LoggerFactory.getLogger(PooledMessageFactory.class);
+
+    public static final int DEFAULT_POOL_CAPACITY = 256;
+
+    /**
+     * Lease of a message which is kept in a pool
+     */
+    private static final Object IN_POOL = new Object();
+
+    private final int poolCapacity;
+    private final boolean leakDetection;
+    private final BlockingQueue<MsgMetaData> metaDataPool;
+    private Map<String, BlockingQueue<IndexedMessage>> pools = new HashMap<>();
+
+    private final ReferenceQueue<IndexedMessage> leakQueue = new ReferenceQueue<>();
+    private final Set<LeakRecord> leakRecords = ConcurrentHashMap.newKeySet();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    protected PooledMessageFactory() {
+        this(DEFAULT_POOL_CAPACITY, false);
+    }
+
+    /**
+     * @param poolCapacity max number of idle instances kept for each message type
+     * @param leakDetection if {@code true} the acquisition stack of each message is recorded to report messages which were not released
+     */
+    protected PooledMessageFactory(int poolCapacity, boolean leakDetection) {
+        if (poolCapacity <= 0) {
+            throw new IllegalArgumentException("poolCapacity must be positive: " + poolCapacity);
+        }
+
+        this.poolCapacity = poolCapacity;
+        this.leakDetection = leakDetection;
+        this.metaDataPool = new ArrayBlockingQueue<>(poolCapacity);
+    }
+
+    @Override
+    public void init(SailfishURI dictionaryURI, IDictionaryStructure dictionary) {
+        super.init(dictionaryURI, dictionary);
+
+        Map<String, BlockingQueue<IndexedMessage>> pools = new HashMap<>();
+        for (String messageName : dictionary.getMessages().keySet()) {
+            pools.put(messageName, new ArrayBlockingQueue<>(poolCapacity));
+        }
+        this.pools = pools;
+    }
+
+    @Override
+    protected boolean isIndexedStorageEnabled() {
+        return true;
+    }
+
+    @Override
+    public IMessage createMessage(String name, String namespace) {
+        return createMessage(acquireMetaData(namespace, name, MessageUtil.generateId()));
+    }
+
+    @Override
+    public IMessage createMessage(long id, String name, String namespace) {
+        return createMessage(acquireMetaData(namespace, name, id));
+    }
+
+    @Override
+    protected IMessage createMessageInstance(MsgMetaData metaData, IMessageStructure messageStructure) {
+        if (leakDetection) {
+            reportLeaks();
+        }
+
+        IndexedMessage message = null;
+
+        if (messageStructure != null) {
+            BlockingQueue<IndexedMessage> pool = pools.get(messageStructure.getName());
+
+            if (pool != null && (message = pool.poll()) != null) {
+                message.setMetaData(metaData);
+            }
+        }
+
+        if (message == null) {
+            IMessage created = super.createMessageInstance(metaData, messageStructure);
+
+            if (!(created instanceof IndexedMessage)) {
+                return created;
+            }
+
+            message = (IndexedMessage)created;
+        }
+
+        message.lease = leakDetection ? new LeakRecord(message, leakQueue, leakRecords) : null;
+
+        return message;
+    }
+
+    /**
+     * Returns the message, its metadata and its sub-messages to the pool.
+     * Messages which were not created by this factory are ignored.
+     * @throws IllegalStateException if the message has been already released
+     */
+    public void release(IMessage message) {
+        Objects.requireNonNull(message, "message cannot be null");
+
+        if (!(message instanceof IndexedMessage) || !message.getNamespace().equals(getNamespace())) {
+            return;
+        }
+
+        IndexedMessage indexed = (IndexedMessage)message;
+        BlockingQueue<IndexedMessage> pool = pools.get(indexed.getName());
+
+        if (pool == null || indexed.getIndex() != getFieldIndex(indexed.getName())) {
+            return;
+        }
+
+        if (indexed.lease == IN_POOL) {
+            throw new IllegalStateException("Message is already released: " + indexed.getName());
+        }
+
+        if (indexed.lease instanceof LeakRecord) {
+            LeakRecord record = (LeakRecord)indexed.lease;
+            leakRecords.remove(record);
+            record.clear();
+        }
+
+        // sub-messages referenced by a clone or taken from the cloned message are left to the garbage collector
+        if (!indexed.isValuesShared()) {
+            releaseSubMessages(indexed);
+        }
+
+        MsgMetaData metaData = indexed.getMetaData();
+
+        metaData.releaseRawMessage();
+        indexed.reset();
+        indexed.lease = IN_POOL;
+        pool.offer(indexed);
+        metaDataPool.offer(metaData);
+    }
+
+    /**
+     * Returns the number of the messages which were garbage collected without being released.
+     * Always returns zero if leak detection is disabled
+     */
+    public long getLeakCount() {
+        if (leakDetection) {
+            reportLeaks();
+        }
+        return leakCount.get();
+    }
+
+    private MsgMetaData acquireMetaData(String namespace, String name, long id) {
+        MsgMetaData metaData = metaDataPool.poll();
+
+        if (metaData == null) {
+            return new MsgMetaData(namespace, name, id);
+        }
+
+        metaData.reset(namespace, name, id);
+        return metaData;
+    }
+
+    private void releaseSubMessages(IndexedMessage message) {
+        for (String fieldName : message.getFieldNames()) {
+            Object value = message.getField(fieldName);
+
+            if (value instanceof IMessage) {
+                release((IMessage)value);
+            } else if (value instanceof List) {
+                for (Object element : (List<?>)value) {
+                    if (element instanceof IMessage) {
+                        release((IMessage)element);
+                    }
+                }
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        Reference<? extends IndexedMessage> reference;
+
+        while ((reference = leakQueue.poll()) != null) {
+            LeakRecord record = (LeakRecord)reference;
+
+            if (leakRecords.remove(record)) {
+                leakCount.incrementAndGet();
+                logger.error("Message [{}] was garbage collected without being released. Acquired at:", record.messageName, record.acquisition);
+            }
+        }
+    }
+
+    private static class LeakRecord extends WeakReference<IndexedMessage> {
+        private final String messageName;
+        private final Throwable acquisition;
+
+        public LeakRecord(IndexedMessage message, ReferenceQueue<IndexedMessage> queue, Set<LeakRecord> records) {
+            super(message, queue);
+            this.messageName = message.getName();
+            this.acquisition = new Throwable("Acquisition of message " + messageName);
+            records.add(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * Live view of a list which wraps elements on read and unwraps them on write
+ */
+class WrappingList extends AbstractList<Object> implements RandomAccess {
+    private final List<Object> list;
+    private final UnaryOperator<Object> wrap;
+    private final UnaryOperator<Object> unwrap;
+
+    @SuppressWarnings("unchecked")
+    WrappingList(List<?> list, UnaryOperator<Object> wrap, UnaryOperator<Object> unwrap) {
+        this.list = (List<Object>)list;
+        this.wrap = wrap;
+        this.unwrap = unwrap;
+    }
+
+    List<?> unwrap() {
+        return list;
+    }
+
+    @Override
+    public Object get(int index) {
+        return wrap.apply(list.get(index));
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        return wrap.apply(list.set(index, unwrap.apply(element)));
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        list.add(index, unwrap.apply(element));
+    }
+
+    @Override
+    public Object remove(int index) {
+        return wrap.apply(list.remove(index));
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+}
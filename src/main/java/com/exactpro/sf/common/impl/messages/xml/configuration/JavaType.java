@@ -3,6 +3,9 @@
 
 package com.exactpro.sf.common.impl.messages.xml.configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.xml.bind.annotation.XmlEnum;
 import javax.xml.bind.annotation.XmlEnumValue;
 import javax.xml.bind.annotation.XmlType;
@@ -63,6 +66,14 @@ public enum JavaType {
     JAVA_LANG_CHARACTER("java.lang.Character"),
     @XmlEnumValue("java.math.BigDecimal")
     JAVA_MATH_BIG_DECIMAL("java.math.BigDecimal");
+    private static final Map<String, JavaType> BY_VALUE = new HashMap<>();
+
+    static {
+        for (JavaType c: JavaType.values()) {
+            BY_VALUE.put(c.value, c);
+        }
+    }
+
     private final String value;
 
     JavaType(String v) {
@@ -74,12 +85,11 @@ public enum JavaType {
     }
 
     public static JavaType fromValue(String v) {
-        for (JavaType c: JavaType.values()) {
-            if (c.value.equals(v)) {
-                return c;
-            }
+        JavaType c = BY_VALUE.get(v);
+        if (c == null) {
+            throw new IllegalArgumentException(v);
         }
-        throw new IllegalArgumentException(v);
+        return c;
     }
 
 }
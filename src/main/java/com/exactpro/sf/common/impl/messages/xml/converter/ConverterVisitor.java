@@ -27,11 +27,11 @@ import org.slf4j.LoggerFactory;
 import com.exactpro.sf.common.impl.messages.xml.configuration.Attribute;
 import com.exactpro.sf.common.impl.messages.xml.configuration.Dictionary;
 import com.exactpro.sf.common.impl.messages.xml.configuration.Field;
-import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
 import com.exactpro.sf.common.impl.messages.xml.configuration.Message;
 import com.exactpro.sf.common.messages.IMessage;
 import com.exactpro.sf.common.messages.IMessageStructureVisitor;
 import com.exactpro.sf.common.messages.MessageStructureWriter;
+import com.exactpro.sf.common.messages.ValueType;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 
 public class ConverterVisitor implements IMessageStructureVisitor {
@@ -59,7 +59,7 @@ public class ConverterVisitor implements IMessageStructureVisitor {
 		Field newField = new Field();
 		// we know that only one inheritance level is available for simple
 		// fields
-		newField.setType(JavaType.fromValue(clazz.getCanonicalName()));
+		newField.setType(ValueType.of(clazz).requireJavaType());
 
 		newField.setName(fieldName);
 
@@ -74,7 +74,7 @@ public class ConverterVisitor implements IMessageStructureVisitor {
 			attribute.setName(name);
             Object val = attributeStructure.getCastValue();
 			attribute.setValue(val == null ? null : val.toString());
-			attribute.setType(val == null ? null : JavaType.fromValue(val.getClass().getName()));
+			attribute.setType(val == null ? null : ValueType.of(val).requireJavaType());
 			newField.getAttributes().add(attribute);
         });
 
@@ -104,7 +104,7 @@ public class ConverterVisitor implements IMessageStructureVisitor {
                     logger.debug("a type of an enumeration attribute is {}, value is {}",
                                 valObj.getClass(), valObj);
 					
-					valueAttribute.setType(JavaType.fromValue(valObj.getClass().getName()));
+					valueAttribute.setType(ValueType.of(valObj).requireJavaType());
 					
 					enumXmlField.getValues().add(valueAttribute);
 				}
@@ -296,7 +296,7 @@ public class ConverterVisitor implements IMessageStructureVisitor {
                 logger.debug("an attribute type of the attribute {} = {}", name, val.getClass().getName());
             }
 
-			attribute.setType(val == null ? null : JavaType.fromValue(val.getClass().getName()));
+			attribute.setType(val == null ? null : ValueType.of(val).requireJavaType());
 			messageField.getAttributes().add(attribute);
         });
 
@@ -19,41 +19,90 @@ package com.exactpro.sf.common.messages;
 import static com.exactpro.sf.common.messages.DirtyConst.EXCLUDED_FIELD;
 import static com.exactpro.sf.common.messages.DirtyConst.FIELD_ORDER;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Map.Entry;
 
 import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.TraversalPlan.FieldHandler;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.util.EPSCommonException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public class DirtyMessageTraverser extends MessageTraverser {
 
+    private static final int MAX_ORDERS = 256;
+
+    // keyed by the content of the fields, so equal maps combined for different messages share the reordered fields
+    private final Cache<OrderKey, Map<String, IFieldStructure>> reorderedFields = CacheBuilder.newBuilder().maximumSize(MAX_ORDERS).build();
+
+    public DirtyMessageTraverser() {
+    }
+
+    public DirtyMessageTraverser(InferredStructureRegistry registry) {
+        super(registry);
+    }
 
     @Override
     public void traverse(IMessageStructureVisitor msgStrVisitor, Map<String, IFieldStructure> fields, IMessage message,
                          IMessageStructureReaderHandler handler) {
 
+        TraversalPlan plan = TraversalPlan.of(fields);
         fields = combineUnknownFields(fields, message);
 
         if (message.isFieldSet(FIELD_ORDER)) {
             fields = handleFieldOrderMode(fields, message);
         }
 
-        super.traverse(msgStrVisitor, fields, message, handler);
+        traverse(msgStrVisitor, plan.derive(fields), message, handler);
     }
 
+    /**
+     * Returns the fields reordered according to {@link DirtyConst#FIELD_ORDER} of the message.
+     * Reordered maps are cached by the names and structures of the fields and the order,
+     * so the returned map is unmodifiable and can be shared by several messages.
+     */
     protected Map<String, IFieldStructure> handleFieldOrderMode(Map<String, IFieldStructure> fields, IMessage message) {
         Object fieldValue = message.getField(FIELD_ORDER);
-        List<String> newFieldOrder = validateFieldOrderValue(fieldValue, String.class);
 
-        ReorderFieldComparator comparator = new ReorderFieldComparator(newFieldOrder, fields.keySet());
-        TreeMap<String, IFieldStructure> result = new TreeMap<>(comparator);
-        result.putAll(fields);
+        if (!(fieldValue instanceof List<?>)) {
+            validateFieldOrderValue(fieldValue, String.class);
+        }
+
+        Map<String, IFieldStructure> result = reorderedFields.getIfPresent(new OrderKey(fields, (List<?>)fieldValue));
+
+        // an equal order is already validated
+        if (result == null) {
+            List<String> newFieldOrder = validateFieldOrderValue(fieldValue, String.class);
+            result = reorder(fields, newFieldOrder);
+            reorderedFields.put(new OrderKey(fields, Collections.unmodifiableList(new ArrayList<>(newFieldOrder))), result);
+        }
 
         return result;
     }
 
+    private static Map<String, IFieldStructure> reorder(Map<String, IFieldStructure> fields, List<String> order) {
+        List<Entry<String, IFieldStructure>> entries = new ArrayList<>(fields.entrySet());
+        List<String> names = new ArrayList<>(entries.size());
+
+        for (Entry<String, IFieldStructure> entry : entries) {
+            names.add(entry.getKey());
+        }
+
+        Map<String, IFieldStructure> result = new LinkedHashMap<>();
+
+        for (int index : ReorderFieldComparator.permutation(order, names)) {
+            Entry<String, IFieldStructure> entry = entries.get(index);
+            result.put(entry.getKey(), entry.getValue());
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
     protected boolean ensureListType(List<?> list, Class<?> type) {
         for (Object e : list) {
             if (e != null && !type.isAssignableFrom(e.getClass())) {
@@ -75,13 +124,27 @@ public class DirtyMessageTraverser extends MessageTraverser {
         return (List<String>) fieldValue;
     }
 
+    /**
+     * Subclasses overriding the legacy hooks drop the meta fields in
+     * {@link #visitField(IFieldStructure, IMessageStructureVisitor, IMessageStructureReaderHandler, IMessage, String, Object)} as before
+     */
+    @Override
+    protected void visitField(FieldHandler field, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler, IMessage message, Object value) {
+
+        if(!usesLegacyHooks() && dropMetaField(field.getStructure(), value)) {
+            return;
+        }
+
+        super.visitField(field, msgStrVisitor, handler, message, value);
+    }
+
     @Override
     protected void visitSimpleField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessage message, JavaType javaType, String fieldName, Object value, boolean isDefault) {
 
         if(dropMetaField(curField, value)) {
             return;
         }
-        
+
         super.visitSimpleField(curField, msgStrVisitor, message, javaType, fieldName, value, isDefault);
     }
 
@@ -108,4 +171,59 @@ public class DirtyMessageTraverser extends MessageTraverser {
     private boolean dropMetaField(IFieldStructure curField, Object value) {
         return value == EXCLUDED_FIELD || curField.getName().equals(FIELD_ORDER);
     }
+
+    /**
+     * Names and structures of the fields with the order, the structures are compared by identity
+     */
+    private static final class OrderKey {
+        private final Object[] fields;
+        private final List<?> order;
+        private final int hash;
+
+        private OrderKey(Map<String, IFieldStructure> fields, List<?> order) {
+            this.fields = new Object[fields.size() * 2];
+            this.order = order;
+
+            int result = 1;
+            int index = 0;
+
+            for (Entry<String, IFieldStructure> entry : fields.entrySet()) {
+                this.fields[index++] = entry.getKey();
+                this.fields[index++] = entry.getValue();
+                result = 31 * (31 * result + entry.getKey().hashCode()) + System.identityHashCode(entry.getValue());
+            }
+
+            this.hash = 31 * result + order.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof OrderKey)) {
+                return false;
+            }
+
+            OrderKey that = (OrderKey)obj;
+
+            if (hash != that.hash || fields.length != that.fields.length) {
+                return false;
+            }
+
+            for (int i = 0; i < fields.length; i += 2) {
+                if (fields[i + 1] != that.fields[i + 1] || !fields[i].equals(that.fields[i])) {
+                    return false;
+                }
+            }
+
+            return order.equals(that.order);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
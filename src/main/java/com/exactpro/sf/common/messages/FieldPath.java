@@ -0,0 +1,364 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.common.util.SymbolTable;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+
+/**
+ * Accessor of a nested field compiled from a path like {@code Parties[2].PartyID} or {@code Parties[*].PartyID}.
+ * <p>
+ * The path is parsed and validated against the message structure once: each segment must be a field of the structure,
+ * indexes are allowed only for collections and a collection of sub-messages must be indexed unless it is the last segment.
+ * Set values are converted to the type of the field declared in the structure.
+ * <p>
+ * Compiled paths are cached per structure and are thread-safe.
+ */
+public final class FieldPath {
+    private static final int NO_INDEX = -2;
+    private static final int ANY_INDEX = -1;
+
+    private static final Map<IMessageStructure, ConcurrentMap<String, FieldPath>> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String path;
+    private final Step[] steps;
+    private final boolean multiple;
+    private final Class<?> type;
+
+    private FieldPath(String path, Step[] steps, Class<?> type) {
+        this.path = path;
+        this.steps = steps;
+        this.type = type;
+
+        boolean multiple = false;
+
+        for (Step step : steps) {
+            multiple |= step.index == ANY_INDEX;
+        }
+
+        this.multiple = multiple;
+    }
+
+    /**
+     * Returns the compiled path from the cache of the structure or compiles it
+     * @throws EPSCommonException if the path doesn't match the structure
+     */
+    public static FieldPath compile(IMessageStructure structure, String path) {
+        if (structure == null) {
+            throw new IllegalArgumentException("[structure] could not be null");
+        }
+        if (path == null) {
+            throw new IllegalArgumentException("[path] could not be null");
+        }
+
+        ConcurrentMap<String, FieldPath> paths;
+
+        synchronized (CACHE) {
+            paths = CACHE.computeIfAbsent(structure, key -> new ConcurrentHashMap<>());
+        }
+
+        return paths.computeIfAbsent(path, key -> parse(structure, key));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns {@code true} if the path contains {@code [*]}
+     */
+    public boolean isMultiple() {
+        return multiple;
+    }
+
+    /**
+     * Returns the declared type of the last field, {@code null} for sub-messages
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the value or {@code null} if some field on the path isn't set or an index is out of range.
+     * For a path with {@code [*]} the first found value is returned.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(IMessage message) {
+        if (multiple) {
+            List<Object> values = getAll(message);
+            return values.isEmpty() ? null : (T)values.get(0);
+        }
+
+        Object current = message;
+
+        for (Step step : steps) {
+            current = step.get(current);
+
+            if (current == null) {
+                return null;
+            }
+        }
+
+        return (T)current;
+    }
+
+    /**
+     * Returns all values matched by the path
+     */
+    public List<Object> getAll(IMessage message) {
+        List<Object> result = new ArrayList<>();
+        collect(message, 0, result);
+        return result;
+    }
+
+    public boolean exists(IMessage message) {
+        return get(message) != null;
+    }
+
+    /**
+     * Sets the value converted to the declared type of the field, {@code null} removes the field.
+     * Sub-messages and lists on the path must exist, for a path with {@code [*]} the value is set to all matched places.
+     * @throws EPSCommonException if a sub-message on the path is missing or an index is out of range
+     */
+    public void set(IMessage message, Object value) {
+        Object converted = convert(value);
+        Step last = steps[steps.length - 1];
+        List<Object> parents = new ArrayList<>();
+
+        collectParents(message, 0, parents);
+
+        for (Object parent : parents) {
+            last.set((IMessage)parent, converted);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private void collect(Object current, int stepIndex, List<Object> result) {
+        if (current == null) {
+            return;
+        }
+
+        if (stepIndex == steps.length) {
+            result.add(current);
+            return;
+        }
+
+        Step step = steps[stepIndex];
+
+        if (step.index == ANY_INDEX) {
+            Object value = current instanceof IMessage ? ((IMessage)current).getField(step.name) : null;
+
+            if (value instanceof List<?>) {
+                for (Object element : (List<?>)value) {
+                    collect(element, stepIndex + 1, result);
+                }
+            }
+        } else {
+            collect(step.get(current), stepIndex + 1, result);
+        }
+    }
+
+    private void collectParents(Object current, int stepIndex, List<Object> result) {
+        if (!(current instanceof IMessage)) {
+            throw new EPSCommonException("Sub-message is missing on path " + path + " at step " + stepIndex);
+        }
+
+        if (stepIndex == steps.length - 1) {
+            result.add(current);
+            return;
+        }
+
+        Step step = steps[stepIndex];
+
+        if (step.index == ANY_INDEX) {
+            Object value = ((IMessage)current).getField(step.name);
+
+            if (value instanceof List<?>) {
+                for (Object element : (List<?>)value) {
+                    collectParents(element, stepIndex + 1, result);
+                }
+            }
+        } else {
+            collectParents(step.get(current), stepIndex + 1, result);
+        }
+    }
+
+    private Object convert(Object value) {
+        if (value == null || type == null) {
+            return value;
+        }
+
+        Step last = steps[steps.length - 1];
+
+        if (last.collection && last.index == NO_INDEX) {
+            if (!(value instanceof List<?>)) {
+                throw new EPSCommonException("Value of " + path + " should be a list: " + value);
+            }
+            return MultiConverter.convert((List<?>)value, type, ArrayList::new);
+        }
+
+        return ValueType.of(type).convert(value);
+    }
+
+    private static FieldPath parse(IMessageStructure structure, String path) {
+        String[] segments = path.split("\\.", -1);
+        Step[] steps = new Step[segments.length];
+        Map<String, IFieldStructure> fields = structure.getFields();
+        Class<?> type = null;
+
+        for (int i = 0; i < segments.length; i++) {
+            if (fields == null) {
+                throw new EPSCommonException("Field " + segments[i - 1] + " of path " + path + " isn't a sub-message");
+            }
+
+            String segment = segments[i];
+            int index = NO_INDEX;
+            int bracket = segment.indexOf('[');
+
+            if (bracket >= 0) {
+                if (!segment.endsWith("]")) {
+                    throw new EPSCommonException("Invalid segment " + segment + " of path " + path);
+                }
+
+                String indexText = segment.substring(bracket + 1, segment.length() - 1);
+                segment = segment.substring(0, bracket);
+
+                if ("*".equals(indexText)) {
+                    index = ANY_INDEX;
+                } else {
+                    try {
+                        index = Integer.parseInt(indexText);
+                    } catch (NumberFormatException e) {
+                        throw new EPSCommonException("Invalid index " + indexText + " of path " + path, e);
+                    }
+
+                    if (index < 0) {
+                        throw new EPSCommonException("Negative index " + indexText + " of path " + path);
+                    }
+                }
+            }
+
+            IFieldStructure field = fields.get(segment);
+
+            if (field == null) {
+                throw new EPSCommonException("Structure " + structure.getName() + " doesn't contain field " + segment + " of path " + path);
+            }
+
+            if (index != NO_INDEX && !field.isCollection()) {
+                throw new EPSCommonException("Field " + segment + " of path " + path + " isn't a collection");
+            }
+
+            boolean last = i == segments.length - 1;
+
+            if (!last && field.isCollection() && index == NO_INDEX) {
+                throw new EPSCommonException("Collection " + segment + " of path " + path + " should be indexed");
+            }
+
+            steps[i] = new Step(SymbolTable.intern(segment), index, field.isCollection());
+            fields = field.isComplex() ? field.getFields() : null;
+
+            if (last && !field.isComplex()) {
+                type = toClass(field);
+            }
+        }
+
+        return new FieldPath(path, steps, type);
+    }
+
+    private static Class<?> toClass(IFieldStructure field) {
+        Class<?> type = ValueType.javaClass(field.getJavaType());
+
+        if (type == null) {
+            throw new EPSCommonException("Unknown type " + field.getJavaType() + " of field " + field.getName());
+        }
+
+        return type;
+    }
+
+    private static class Step {
+        private final String name;
+        private final int index;
+        private final boolean collection;
+
+        private Step(String name, int index, boolean collection) {
+            this.name = name;
+            this.index = index;
+            this.collection = collection;
+        }
+
+        private Object get(Object current) {
+            if (!(current instanceof IMessage)) {
+                return null;
+            }
+
+            Object value = ((IMessage)current).getField(name);
+
+            if (index < 0) {
+                return value;
+            }
+
+            if (!(value instanceof List<?>)) {
+                return null;
+            }
+
+            List<?> list = (List<?>)value;
+            return index < list.size() ? list.get(index) : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void set(IMessage parent, Object value) {
+            if (index == NO_INDEX) {
+                if (value == null) {
+                    parent.removeField(name);
+                } else {
+                    parent.addField(name, value);
+                }
+                return;
+            }
+
+            Object list = parent.getField(name);
+
+            if (!(list instanceof List<?>)) {
+                throw new EPSCommonException("Collection " + name + " is missing");
+            }
+
+            List<Object> elements = (List<Object>)list;
+
+            if (index == ANY_INDEX) {
+                elements.replaceAll(element -> value);
+            } else if (index < elements.size()) {
+                elements.set(index, value);
+            } else {
+                throw new EPSCommonException("Index " + index + " is out of range of collection " + name + " of size " + elements.size());
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.exactpro.sf.common.messages;
 
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 
 /**
@@ -57,4 +58,18 @@ public interface IMessage
 
 	boolean compare(IMessage message);
 
+    /**
+     * Passes each set field to the action without looking up values by name where the implementation allows it.
+     * The message must not be modified by the action.
+     */
+    default void forEachField(BiConsumer<String, Object> action) {
+        for (String fieldName : getFieldNames()) {
+            Object value = getField(fieldName);
+
+            if (value != null) {
+                action.accept(fieldName, value);
+            }
+        }
+    }
+
 }
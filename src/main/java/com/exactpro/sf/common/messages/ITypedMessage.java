@@ -0,0 +1,58 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+/**
+ * {@link IMessage} with unboxed accessors for primitive fields.
+ * <p>
+ * Values set through the typed setters are still visible through {@link #getField(String)} as boxed values.
+ * Typed getters convert a value of another type via {@link com.exactpro.sf.comparison.conversion.MultiConverter}
+ * and throw {@link com.exactpro.sf.common.util.EPSCommonException} if the field is not set.
+ */
+public interface ITypedMessage extends IMessage {
+
+    long getLong(String name);
+
+    int getInt(String name);
+
+    short getShort(String name);
+
+    byte getByte(String name);
+
+    double getDouble(String name);
+
+    float getFloat(String name);
+
+    char getChar(String name);
+
+    boolean getBoolean(String name);
+
+    void setLong(String name, long value);
+
+    void setInt(String name, int value);
+
+    void setShort(String name, short value);
+
+    void setByte(String name, byte value);
+
+    void setDouble(String name, double value);
+
+    void setFloat(String name, float value);
+
+    void setChar(String name, char value);
+
+    void setBoolean(String name, boolean value);
+}
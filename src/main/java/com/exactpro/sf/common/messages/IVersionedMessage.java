@@ -0,0 +1,27 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+/**
+ * Message which tracks modifications of its fields, so the values derived from it can be cached
+ */
+public interface IVersionedMessage extends IMessage {
+    /**
+     * @return value which changes each time a field of this message is added, replaced or removed.
+     * Modifications of the sub-messages aren't reflected in the version of the parent
+     */
+    long getVersion();
+}
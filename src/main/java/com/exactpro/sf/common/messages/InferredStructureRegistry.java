@@ -0,0 +1,260 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded registry of field structures inferred by {@link MessageTraverser} from the runtime values of fields.
+ * Structures are memoized by the origin structure, the field name and the inferred type of the value,
+ * the least recently used ones are evicted when the registry is full.
+ * The origin structures are referenced weakly, so the registry doesn't keep unloaded dictionaries,
+ * entries of the collected origins are removed on the next {@link #infer} call.
+ * <p>
+ * The registry also keeps a learned structure for each type of messages without a dictionary.
+ * Its fields map is empty, so only the fields present in a message are traversed, but the structures inferred
+ * for the fields of the type are recorded in it and reused for the following messages of the type.
+ */
+public class InferredStructureRegistry {
+    public static final long DEFAULT_MAX_SIZE = 16 * 1024;
+
+    public static final InferredStructureRegistry DEFAULT = new InferredStructureRegistry(DEFAULT_MAX_SIZE);
+
+    /**
+     * Maximum number of fields recorded for a learned structure
+     */
+    static final int MAX_LEARNED_FIELDS = 1024;
+
+    private final Cache<Key, IFieldStructure> structures;
+    private final Cache<List<String>, LearnedStructure> learnedStructures;
+    private final ReferenceQueue<IFieldStructure> collectedOrigins = new ReferenceQueue<>();
+
+    /**
+     * @param maxSize maximum number of inferred field structures and of learned message structures
+     */
+    public InferredStructureRegistry(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.structures = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.learnedStructures = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Returns the memoized structure or the one created by the factory
+     * @param origin structure of the field in the dictionary, can be {@code null}
+     * @param javaType type inferred from the value or from the first non-null element of a collection, can be {@code null}
+     * @param hasValue whether the value or an element of the collection is not {@code null}
+     */
+    public IFieldStructure infer(IFieldStructure origin, String namespace, String fieldName, boolean collection,
+            StructureType structureType, JavaType javaType, boolean hasValue, Supplier<IFieldStructure> factory) {
+        purgeCollectedOrigins();
+
+        Key key = new Key(origin, namespace, fieldName, collection, structureType, javaType, hasValue, null);
+        IFieldStructure structure = structures.getIfPresent(key);
+
+        if (structure == null) {
+            structure = factory.get();
+            structures.put(new Key(origin, namespace, fieldName, collection, structureType, javaType, hasValue, collectedOrigins), structure);
+        }
+
+        return structure;
+    }
+
+    /**
+     * Returns the structure learned for messages of the type without a dictionary.
+     * The same instance is returned for all messages of the type, its fields map is empty.
+     */
+    public IMessageStructure getLearnedStructure(String namespace, String name) {
+        return learnedStructure(namespace, name);
+    }
+
+    /**
+     * Returns the structure of the field recorded for messages of the type without a dictionary
+     * by {@link #learnField(String, String, IFieldStructure)} or {@code null} if there is no one
+     */
+    public IFieldStructure getLearnedField(String namespace, String name, String fieldName) {
+        LearnedStructure structure = learnedStructures.getIfPresent(Arrays.asList(namespace, name));
+        return structure != null ? structure.learnedFields.get(fieldName) : null;
+    }
+
+    /**
+     * Records the structure inferred for the field of messages of the type without a dictionary,
+     * the previously recorded structure of the field is replaced
+     */
+    public void learnField(String namespace, String name, IFieldStructure field) {
+        LearnedStructure structure = learnedStructure(namespace, name);
+
+        if (structure.learnedFields.size() < MAX_LEARNED_FIELDS || structure.learnedFields.containsKey(field.getName())) {
+            structure.learnedFields.put(field.getName(), field);
+        }
+    }
+
+    private LearnedStructure learnedStructure(String namespace, String name) {
+        List<String> key = Arrays.asList(namespace, name);
+        LearnedStructure structure = learnedStructures.getIfPresent(key);
+
+        if (structure == null) {
+            structure = new LearnedStructure(namespace, name);
+            LearnedStructure previous = learnedStructures.asMap().putIfAbsent(key, structure);
+
+            if (previous != null) {
+                structure = previous;
+            }
+        }
+
+        return structure;
+    }
+
+    private void purgeCollectedOrigins() {
+        for (OriginReference reference; (reference = (OriginReference)collectedOrigins.poll()) != null; ) {
+            structures.invalidate(reference.key);
+        }
+    }
+
+    public long getHitCount() {
+        return structures.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return structures.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return structures.stats().evictionCount();
+    }
+
+    /**
+     * Returns number of the memoized field structures
+     */
+    public long size() {
+        return structures.size();
+    }
+
+    public void clear() {
+        structures.invalidateAll();
+        learnedStructures.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = structures.stats();
+        return "InferredStructureRegistry[size=" + structures.size() + ", hits=" + stats.hitCount()
+                + ", misses=" + stats.missCount() + ", evictions=" + stats.evictionCount() + "]";
+    }
+
+    private static final class LearnedStructure extends MessageStructure {
+        private final ConcurrentMap<String, IFieldStructure> learnedFields = new ConcurrentHashMap<>();
+
+        private LearnedStructure(String namespace, String name) {
+            // each structure gets its own empty map, so combined fields of the types are cached separately
+            super(name, namespace, null, new HashMap<>(), null, null);
+        }
+    }
+
+    private static final class OriginReference extends WeakReference<IFieldStructure> {
+        private final Key key;
+
+        private OriginReference(IFieldStructure origin, Key key, ReferenceQueue<IFieldStructure> queue) {
+            super(origin, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class Key {
+        private final Object origin;
+        private final String namespace;
+        private final String fieldName;
+        private final boolean collection;
+        private final StructureType structureType;
+        private final JavaType javaType;
+        private final boolean hasValue;
+        private final int hash;
+
+        /**
+         * @param queue queue to register the weak reference to the origin with for the stored keys,
+         *              {@code null} for the lookup keys which reference the origin strongly
+         */
+        private Key(IFieldStructure origin, String namespace, String fieldName, boolean collection,
+                StructureType structureType, JavaType javaType, boolean hasValue, ReferenceQueue<IFieldStructure> queue) {
+            this.origin = (origin == null || queue == null) ? origin : new OriginReference(origin, this, queue);
+            this.namespace = namespace;
+            this.fieldName = fieldName;
+            this.collection = collection;
+            this.structureType = structureType;
+            this.javaType = javaType;
+            this.hasValue = hasValue;
+
+            int result = System.identityHashCode(origin);
+            result = 31 * result + Objects.hashCode(namespace);
+            result = 31 * result + Objects.hashCode(fieldName);
+            result = 31 * result + Boolean.hashCode(collection);
+            result = 31 * result + Objects.hashCode(structureType);
+            result = 31 * result + Objects.hashCode(javaType);
+            this.hash = 31 * result + Boolean.hashCode(hasValue);
+        }
+
+        private Object origin() {
+            return origin instanceof OriginReference ? ((OriginReference)origin).get() : origin;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key that = (Key)obj;
+
+            // a collected origin is never equal to a live one, and a null origin is never stored in a reference
+            return hash == that.hash
+                    && (origin == null) == (that.origin == null)
+                    && origin() == that.origin()
+                    && collection == that.collection
+                    && structureType == that.structureType
+                    && javaType == that.javaType
+                    && hasValue == that.hasValue
+                    && Objects.equals(fieldName, that.fieldName)
+                    && Objects.equals(namespace, that.namespace);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
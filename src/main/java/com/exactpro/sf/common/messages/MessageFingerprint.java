@@ -0,0 +1,454 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.exactpro.sf.common.messages.TraversalPlan.FieldHandler;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+
+/**
+ * Computes 64-bit fingerprint of the message content. Fields are visited in the dictionary order
+ * by {@link MessageStructureReader}, values are hashed without conversion to strings.
+ * <p>
+ * Messages which are equal according to {@link IMessage#compare(IMessage)} have the same fingerprint:
+ * decimals which differ only in scale, e.g. {@code 1.5} and {@code 1.50}, produce the same hash.
+ * Values of the same number with different types, e.g. {@code Integer} and {@code Long}, produce different hashes.
+ * Default values which aren't set in the message are ignored. {@code null} elements of collections are hashed as a marker.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class MessageFingerprint {
+    private static final MessageFingerprint DEFAULT = new MessageFingerprint(Collections.emptySet());
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private static final int BOOLEAN = 1;
+    private static final int BYTE = 2;
+    private static final int CHARACTER = 3;
+    private static final int LOCAL_DATE = 4;
+    private static final int LOCAL_TIME = 5;
+    private static final int LOCAL_DATE_TIME = 6;
+    private static final int DOUBLE = 7;
+    private static final int FLOAT = 8;
+    private static final int INTEGER = 9;
+    private static final int LONG = 10;
+    private static final int BIG_DECIMAL = 11;
+    private static final int SHORT = 12;
+    private static final int STRING = 13;
+    private static final int MESSAGE = 14;
+    private static final int MESSAGE_END = 15;
+    private static final int COLLECTION = 16;
+
+    /**
+     * Hashed in place of a {@code null} element of a collection
+     */
+    private static final long NULL = 0x2545F4914F6CDD1DL;
+
+    private final FingerprintReader reader;
+
+    /**
+     * @param excludedFields names of the fields which are skipped on all levels of the message, e.g. timestamps or sequence numbers
+     */
+    public MessageFingerprint(Set<String> excludedFields) {
+        if (excludedFields == null) {
+            throw new IllegalArgumentException("[excludedFields] could not be null");
+        }
+        this.reader = new FingerprintReader(new HashSet<>(excludedFields));
+    }
+
+    /**
+     * Computes fingerprint of the message without excluded fields
+     */
+    public static long of(IMessageStructure structure, IMessage message) {
+        return DEFAULT.compute(structure, message);
+    }
+
+    public long compute(IMessageStructure structure, IMessage message) {
+        if (structure == null) {
+            throw new IllegalArgumentException("[structure] could not be null");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+
+        FingerprintVisitor visitor = new FingerprintVisitor(reader);
+        visitor.mix(structure.getNamespace().hashCode());
+        visitor.mix(structure.getName().hashCode());
+        reader.traverse(visitor, structure, message, EmptyMessageStructureReaderHandler.instance());
+
+        return finish(visitor.hash);
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static class FingerprintReader extends MessageStructureReader {
+        private final Set<String> excludedFields;
+
+        private FingerprintReader(Set<String> excludedFields) {
+            this.excludedFields = excludedFields;
+        }
+
+        /**
+         * Absent fields are skipped before default values are applied, so the visitor gets only the values set in the message
+         */
+        @Override
+        protected void visitField(FieldHandler field, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler,
+                IMessage message, Object value) {
+            if (value != null && !excludedFields.contains(field.getName())) {
+                super.visitField(field, msgStrVisitor, handler, message, value);
+            }
+        }
+
+        /**
+         * Values are converted for hashing only, so frozen or shared messages can be fingerprinted
+         */
+        @Override
+        protected boolean isWriteBack(IMessage message) {
+            return false;
+        }
+    }
+
+    private static class FingerprintVisitor implements IMessageStructureVisitor {
+        private final MessageStructureReader reader;
+        private long hash = SEED;
+
+        private FingerprintVisitor(MessageStructureReader reader) {
+            this.reader = reader;
+        }
+
+        private void mix(long value) {
+            hash = Long.rotateLeft(hash ^ (value * C1), 31) * C2;
+        }
+
+        private void field(String fieldName, int type) {
+            mix(fieldName.hashCode());
+            mix(type);
+        }
+
+        private void collection(String fieldName, int type, List<?> values) {
+            field(fieldName, COLLECTION);
+            mix(type);
+            mix(values.size());
+        }
+
+        /**
+         * Mixes the marker of the {@code null} element
+         * @return {@code true} if the element is {@code null}
+         */
+        private boolean mixNull(Object element) {
+            if (element == null) {
+                mix(NULL);
+                return true;
+            }
+            return false;
+        }
+
+        private void mixString(String value) {
+            mix(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                mix(value.charAt(i));
+            }
+        }
+
+        private void mixDecimal(BigDecimal value) {
+            if (value.signum() == 0) {
+                mix(0);
+                return;
+            }
+
+            BigInteger unscaled = value.unscaledValue();
+            int scale = value.scale();
+
+            // trailing zeros are stripped without creating a new decimal unless the unscaled value doesn't fit into long
+            if (unscaled.bitLength() >= Long.SIZE) {
+                BigDecimal normalized = value.stripTrailingZeros();
+                unscaled = normalized.unscaledValue();
+                scale = normalized.scale();
+
+                if (unscaled.bitLength() >= Long.SIZE) {
+                    mix(scale);
+                    mix(unscaled.hashCode());
+                    return;
+                }
+            }
+
+            long digits = unscaled.longValue();
+
+            while (digits % 10 == 0) {
+                digits /= 10;
+                scale--;
+            }
+
+            mix(scale);
+            mix(digits);
+        }
+
+        private void mixDateTime(LocalDateTime value) {
+            mix(value.toLocalDate().toEpochDay());
+            mix(value.toLocalTime().toNanoOfDay());
+        }
+
+        private void mixMessage(IMessage message, IFieldStructure complexField) {
+            if (mixNull(message)) {
+                return;
+            }
+
+            mix(MESSAGE);
+            reader.traverse(this, complexField.getFields(), message, EmptyMessageStructureReaderHandler.instance());
+            mix(MESSAGE_END);
+        }
+
+        @Override
+        public void visit(String fieldName, Boolean value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, BOOLEAN);
+            mix(value ? 1 : 0);
+        }
+
+        @Override
+        public void visitBooleanCollection(String fieldName, List<Boolean> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, BOOLEAN, value);
+            for (Boolean element : value) {
+                if (!mixNull(element)) {
+                    mix(element ? 1 : 0);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Byte value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, BYTE);
+            mix(value);
+        }
+
+        @Override
+        public void visitByteCollection(String fieldName, List<Byte> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, BYTE, value);
+            for (Byte element : value) {
+                if (!mixNull(element)) {
+                    mix(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Character value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, CHARACTER);
+            mix(value);
+        }
+
+        @Override
+        public void visitCharCollection(String fieldName, List<Character> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, CHARACTER, value);
+            for (Character element : value) {
+                if (!mixNull(element)) {
+                    mix(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, LocalDate value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, LOCAL_DATE);
+            mix(value.toEpochDay());
+        }
+
+        @Override
+        public void visitDateCollection(String fieldName, List<LocalDate> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, LOCAL_DATE, value);
+            for (LocalDate element : value) {
+                if (!mixNull(element)) {
+                    mix(element.toEpochDay());
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, LocalTime value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, LOCAL_TIME);
+            mix(value.toNanoOfDay());
+        }
+
+        @Override
+        public void visitTimeCollection(String fieldName, List<LocalTime> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, LOCAL_TIME, value);
+            for (LocalTime element : value) {
+                if (!mixNull(element)) {
+                    mix(element.toNanoOfDay());
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, LocalDateTime value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, LOCAL_DATE_TIME);
+            mixDateTime(value);
+        }
+
+        @Override
+        public void visitDateTimeCollection(String fieldName, List<LocalDateTime> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, LOCAL_DATE_TIME, value);
+            for (LocalDateTime element : value) {
+                if (!mixNull(element)) {
+                    mixDateTime(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Double value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, DOUBLE);
+            mix(Double.doubleToLongBits(value));
+        }
+
+        @Override
+        public void visitDoubleCollection(String fieldName, List<Double> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, DOUBLE, value);
+            for (Double element : value) {
+                if (!mixNull(element)) {
+                    mix(Double.doubleToLongBits(element));
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Float value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, FLOAT);
+            mix(Float.floatToIntBits(value));
+        }
+
+        @Override
+        public void visitFloatCollection(String fieldName, List<Float> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, FLOAT, value);
+            for (Float element : value) {
+                if (!mixNull(element)) {
+                    mix(Float.floatToIntBits(element));
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Integer value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, INTEGER);
+            mix(value);
+        }
+
+        @Override
+        public void visitIntCollection(String fieldName, List<Integer> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, INTEGER, value);
+            for (Integer element : value) {
+                if (!mixNull(element)) {
+                    mix(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Long value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, LONG);
+            mix(value);
+        }
+
+        @Override
+        public void visitLongCollection(String fieldName, List<Long> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, LONG, value);
+            for (Long element : value) {
+                if (!mixNull(element)) {
+                    mix(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, BigDecimal value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, BIG_DECIMAL);
+            mixDecimal(value);
+        }
+
+        @Override
+        public void visitBigDecimalCollection(String fieldName, List<BigDecimal> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, BIG_DECIMAL, value);
+            for (BigDecimal element : value) {
+                if (!mixNull(element)) {
+                    mixDecimal(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, Short value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, SHORT);
+            mix(value);
+        }
+
+        @Override
+        public void visitShortCollection(String fieldName, List<Short> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, SHORT, value);
+            for (Short element : value) {
+                if (!mixNull(element)) {
+                    mix(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, String value, IFieldStructure fldStruct, boolean isDefault) {
+            field(fieldName, STRING);
+            mixString(value);
+        }
+
+        @Override
+        public void visitStringCollection(String fieldName, List<String> value, IFieldStructure fldStruct, boolean isDefault) {
+            collection(fieldName, STRING, value);
+            for (String element : value) {
+                if (!mixNull(element)) {
+                    mixString(element);
+                }
+            }
+        }
+
+        @Override
+        public void visit(String fieldName, IMessage message, IFieldStructure complexField, boolean isDefault) {
+            field(fieldName, MESSAGE);
+            mixMessage(message, complexField);
+        }
+
+        @Override
+        public void visitMessageCollection(String fieldName, List<IMessage> message, IFieldStructure complexField, boolean isDefault) {
+            collection(fieldName, MESSAGE, message);
+            for (IMessage element : message) {
+                mixMessage(element, complexField);
+            }
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Renders a message in the {@code name=value|...|RawMessage=hex} format of {@code MapMessage.toString()}
+ * directly to an {@link Appendable} or a {@link ByteBuffer}, without building intermediate strings.
+ * <p>
+ * Output can be limited by length: the rest of the message is replaced with {@link #TRUNCATION_MARKER}.
+ * {@code NUL} characters can be escaped as {@code &NULL} in the same pass.
+ * Instances are immutable and thread-safe.
+ */
+public final class MessageRenderer {
+    public static final String TRUNCATION_MARKER = "...";
+    public static final String NULL_ESCAPE = "&NULL";
+
+    /**
+     * Renders messages completely without escaping
+     */
+    public static final MessageRenderer DEFAULT = new MessageRenderer(Integer.MAX_VALUE, false);
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int MAX_CACHED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> SCRATCH = new ThreadLocal<>();
+
+    private final int maxLength;
+    private final boolean escapeNulls;
+
+    /**
+     * @param maxLength maximum number of characters including the truncation marker
+     * @param escapeNulls replace {@code NUL} characters with {@link #NULL_ESCAPE}
+     */
+    public MessageRenderer(int maxLength, boolean escapeNulls) {
+        if (maxLength <= TRUNCATION_MARKER.length()) {
+            throw new IllegalArgumentException("maxLength must be greater than " + TRUNCATION_MARKER.length() + ": " + maxLength);
+        }
+        this.maxLength = maxLength;
+        this.escapeNulls = escapeNulls;
+    }
+
+    /**
+     * Renders the message to a string using a scratch buffer of the current thread
+     */
+    public String render(IMessage message) {
+        StringBuilder builder = SCRATCH.get();
+
+        // the buffer is taken from the thread while in use, so a nested call, e.g. from toString() of a value, gets its own buffer
+        if (builder == null) {
+            builder = new StringBuilder(1024);
+        } else {
+            SCRATCH.set(null);
+        }
+
+        try {
+            return render(message, builder).toString();
+        } finally {
+            if (builder.capacity() <= MAX_CACHED_CAPACITY) {
+                builder.setLength(0);
+                SCRATCH.set(builder);
+            }
+        }
+    }
+
+    /**
+     * Writes the message to the output, {@link IOException} of the output is rethrown as {@link UncheckedIOException}
+     */
+    public <T extends Appendable> T render(IMessage message, T output) {
+        if (message == null) {
+            throw new IllegalArgumentException("[message] could not be null");
+        }
+        if (output == null) {
+            throw new IllegalArgumentException("[output] could not be null");
+        }
+
+        try {
+            renderMessage(message, new Output(output, maxLength, escapeNulls));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return output;
+    }
+
+    /**
+     * Writes the message to the buffer in UTF-8 starting from its position
+     * @throws java.nio.BufferOverflowException if the message doesn't fit in the buffer
+     */
+    public ByteBuffer render(IMessage message, ByteBuffer buffer) {
+        ByteBufferAppendable output = new ByteBufferAppendable(buffer);
+        render(message, output);
+        output.flush();
+        return buffer;
+    }
+
+    /**
+     * Appends the characters replacing {@code NUL} with {@link #NULL_ESCAPE} in a single pass
+     */
+    public static <T extends Appendable> T appendEscaped(CharSequence source, T output) throws IOException {
+        int start = 0;
+
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\u0000') {
+                output.append(source, start, i).append(NULL_ESCAPE);
+                start = i + 1;
+            }
+        }
+
+        output.append(source, start, source.length());
+        return output;
+    }
+
+    /**
+     * Appends the characters replacing {@code NUL} with {@link #NULL_ESCAPE} in a single pass
+     */
+    public static StringBuilder appendEscaped(CharSequence source, StringBuilder output) {
+        try {
+            appendEscaped(source, (Appendable)output);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw it
+            throw new UncheckedIOException(e);
+        }
+
+        return output;
+    }
+
+    private static void renderMessage(IMessage message, Output output) throws IOException {
+        boolean first = true;
+
+        for (String fieldName : message.getFieldNames()) {
+            if (output.isFull()) {
+                return;
+            }
+
+            if (!first) {
+                output.append('|');
+            }
+            first = false;
+
+            Object value = message.getField(fieldName);
+
+            if (value instanceof IMessage) {
+                renderMessage((IMessage)value, output);
+            } else {
+                output.append(fieldName).append('=');
+
+                if (value instanceof BigDecimal) {
+                    output.append(((BigDecimal)value).toPlainString());
+                } else {
+                    renderValue(value, output);
+                }
+            }
+        }
+
+        if (!first) {
+            output.append('|');
+        }
+
+        output.append(MetadataProperty.RAW_MESSAGE.getPropertyName()).append('=');
+        renderRawMessage(message.getMetaData().get(MetadataProperty.RAW_MESSAGE), output);
+    }
+
+    private static void renderValue(Object value, Output output) throws IOException {
+        if (value instanceof IMessage) {
+            renderMessage((IMessage)value, output);
+        } else if (value instanceof List<?>) {
+            output.append('[');
+            boolean first = true;
+
+            for (Object element : (List<?>)value) {
+                if (output.isFull()) {
+                    return;
+                }
+
+                if (!first) {
+                    output.append(", ");
+                }
+                first = false;
+                renderValue(element, output);
+            }
+
+            output.append(']');
+        } else {
+            output.append(String.valueOf(value));
+        }
+    }
+
+    private static void renderRawMessage(Object rawMessage, Output output) throws IOException {
+        if (rawMessage instanceof RawMessageBuffer) {
+            ByteBuffer bytes = ((RawMessageBuffer)rawMessage).buffer();
+
+            for (int i = 0; i < bytes.limit() && !output.isFull(); i++) {
+                appendHex(bytes.get(i), output);
+            }
+        } else if (rawMessage instanceof byte[]) {
+            byte[] bytes = (byte[])rawMessage;
+
+            for (int i = 0; i < bytes.length && !output.isFull(); i++) {
+                appendHex(bytes[i], output);
+            }
+        }
+    }
+
+    private static void appendHex(int value, Output output) throws IOException {
+        output.append(HEX_DIGITS[(value >> 4) & 0xF]).append(HEX_DIGITS[value & 0xF]);
+    }
+
+    /**
+     * Counts written characters and truncates the output when the limit is reached
+     */
+    private static class Output {
+        private final Appendable target;
+        private final int limit;
+        private final boolean escapeNulls;
+        private int length;
+        private boolean full;
+
+        private Output(Appendable target, int maxLength, boolean escapeNulls) {
+            this.target = target;
+            this.limit = maxLength == Integer.MAX_VALUE ? maxLength : maxLength - TRUNCATION_MARKER.length();
+            this.escapeNulls = escapeNulls;
+        }
+
+        private boolean isFull() {
+            return full;
+        }
+
+        private Output append(char value) throws IOException {
+            if (escapeNulls && value == '\u0000') {
+                return appendRaw(NULL_ESCAPE);
+            }
+
+            if (!full) {
+                if (length < limit) {
+                    target.append(value);
+                    length++;
+                } else {
+                    truncate();
+                }
+            }
+
+            return this;
+        }
+
+        private Output append(CharSequence value) throws IOException {
+            if (escapeNulls) {
+                int start = 0;
+
+                for (int i = 0; i < value.length(); i++) {
+                    if (value.charAt(i) == '\u0000') {
+                        appendRaw(value.subSequence(start, i));
+                        appendRaw(NULL_ESCAPE);
+                        start = i + 1;
+                    }
+                }
+
+                return start == 0 ? appendRaw(value) : appendRaw(value.subSequence(start, value.length()));
+            }
+
+            return appendRaw(value);
+        }
+
+        private Output appendRaw(CharSequence value) throws IOException {
+            if (full) {
+                return this;
+            }
+
+            int available = limit - length;
+
+            if (value.length() <= available) {
+                target.append(value);
+                length += value.length();
+            } else {
+                target.append(value, 0, available);
+                length = limit;
+                truncate();
+            }
+
+            return this;
+        }
+
+        private void truncate() throws IOException {
+            if (!full) {
+                full = true;
+
+                if (limit != Integer.MAX_VALUE) {
+                    target.append(TRUNCATION_MARKER);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes characters to UTF-8. Unpaired surrogates are encoded as {@code '?'} like {@link String#getBytes} does
+     */
+    private static class ByteBufferAppendable implements Appendable {
+        private static final byte REPLACEMENT = '?';
+
+        private final ByteBuffer buffer;
+        private char highSurrogate;
+
+        private ByteBufferAppendable(ByteBuffer buffer) {
+            if (buffer == null) {
+                throw new IllegalArgumentException("[buffer] could not be null");
+            }
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                    buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+                    return this;
+                }
+
+                buffer.put(REPLACEMENT);
+            }
+
+            if (c < 0x80) {
+                buffer.put((byte)c);
+            } else if (c < 0x800) {
+                buffer.put((byte)(0xC0 | (c >> 6)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                buffer.put(REPLACEMENT);
+            } else {
+                buffer.put((byte)(0xE0 | (c >> 12)));
+                buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+
+        /**
+         * Encodes a high surrogate which ends the output
+         */
+        private void flush() {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                buffer.put(REPLACEMENT);
+            }
+        }
+    }
+}
@@ -15,12 +15,8 @@
  */
 package com.exactpro.sf.common.messages;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -29,25 +25,63 @@ import javax.annotation.concurrent.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.exactpro.sf.common.impl.messages.MapBackedMessage;
 import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.TraversalPlan.FieldHandler;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.messages.structures.IMessageStructure;
 import com.exactpro.sf.common.util.EPSCommonException;
-import com.exactpro.sf.comparison.conversion.MultiConverter;
 
 /**
  *  Using on encode to native view
  *  Call IMessageStructureVisitor for each IMessage`s field described in IMessageStructure.
  *  Value with simple type convert in right type before call IMessageStructureVisitor
+ *  Fields are visited by the handlers of a {@link TraversalPlan} compiled once per structure.
+ *  {@link #SPECIALIZED_READER} and the subclasses created with {@code specialize} which don't override
+ *  the per-field methods visit the fields through a {@link SpecializedTraverser} of the plan and the visitor class if it can be built.
  */
 @ThreadSafe
 public class MessageStructureReader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageStructureReader.class);
 
+    /**
+     * Subclasses overriding the per-field methods of the interpreted traversal
+     */
+    private static final ClassValue<Boolean> LEGACY_HOOKS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overridesLegacyHooks(type);
+        }
+    };
+
+    /**
+     * Subclasses which don't override the per-field methods and can use {@link SpecializedTraverser}
+     */
+    private static final ClassValue<Boolean> SPECIALIZABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !overridesFieldMethods(type);
+        }
+    };
+
     public static MessageStructureReader READER = new MessageStructureReader();
 
-    protected MessageStructureReader(){}
+    /**
+     * Reader which visits the fields through a {@link SpecializedTraverser}. It avoids the per-field type checks of
+     * {@link #READER} but isn't faster for small structures, so it is used only when requested explicitly
+     */
+    public static final MessageStructureReader SPECIALIZED_READER = new MessageStructureReader(true);
+
+    private final boolean specialize;
+
+    protected MessageStructureReader(){
+        this(false);
+    }
+
+    protected MessageStructureReader(boolean specialize) {
+        this.specialize = specialize;
+    }
 
     public void traverse(IMessageStructureVisitor msgStrVisitor,
                          IMessageStructure msgStructure,
@@ -76,22 +110,67 @@ public class MessageStructureReader {
 			IMessage message,
 			IMessageStructureReaderHandler handler)
 	{
+        traverse(msgStrVisitor, TraversalPlan.of(fields), message, handler);
+	}
 
-        fields.forEach((fieldName, curField) -> {
-            if(message == null) {
-                throw new NullPointerException("message is null for field " + fieldName);
+    protected void traverse(IMessageStructureVisitor msgStrVisitor, TraversalPlan plan, IMessage message, IMessageStructureReaderHandler handler) {
+        if (specialize && message != null && msgStrVisitor != null && SPECIALIZABLE.get(getClass())) {
+            SpecializedTraverser traverser = SpecializedTraverser.of(plan, msgStrVisitor.getClass());
+
+            if (traverser != null) {
+                traverser.traverse(msgStrVisitor, message, handler, isWriteBack(message));
+                return;
             }
+        }
 
-			Object value = message.getField(fieldName);
+        for (int i = 0; i < plan.size(); i++) {
+            FieldHandler field = plan.handler(i);
 
-			try {
-    			visitField(curField, msgStrVisitor, handler, message, fieldName, value);
-			} catch (RuntimeException e) {
-			    throw new EPSCommonException("Travers problem for FieldName = " + fieldName + ", FieldValue = " + message.getField(fieldName), e);
-			}
-        });
-	}
+            if (message == null) {
+                throw new NullPointerException("message is null for field " + field.getName());
+            }
+
+            Object value = message.getField(field.getName());
 
+            try {
+                visitField(field, msgStrVisitor, handler, message, value);
+            } catch (RuntimeException e) {
+                throw new EPSCommonException("Travers problem for FieldName = " + field.getName() + ", FieldValue = " + message.getField(field.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Visits the field using its precompiled handler. Subclasses which override
+     * {@link #visitField(IFieldStructure, IMessageStructureVisitor, IMessageStructureReaderHandler, IMessage, String, Object)} or
+     * {@link #visitSimpleField(IFieldStructure, IMessageStructureVisitor, IMessage, JavaType, String, Object, boolean)}
+     * are still called through those methods with the structure of the traversed fields, see {@link #usesLegacyHooks()}.
+     */
+    protected void visitField(FieldHandler field, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler,
+            IMessage message, Object value) {
+        if (usesLegacyHooks()) {
+            visitField(field.getStructure(), msgStrVisitor, handler, message, field.getName(), value);
+            return;
+        }
+
+        if (field.isComplex()) {
+            visitComplexField(field.getStructure(), msgStrVisitor, field.getName(), value);
+            return;
+        }
+
+        boolean isDefault = false;
+
+        if (value == null) {
+            if (field.isRequiredWithoutDefault()) {
+                handler.onRequiredFieldAbsence(field.getStructure());
+            }
+
+            value = field.getDefaultValue();
+            isDefault = value != null;
+        }
+
+        field.visitSimple(msgStrVisitor, isWriteBack(message) ? message : null, value, isDefault);
+    }
 
     protected void visitField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler,
             IMessage message, String fieldName, Object value) {
@@ -125,209 +204,76 @@ public class MessageStructureReader {
     }
 
 
-    @SuppressWarnings("unchecked")
     protected void visitSimpleField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessage message,
                                         JavaType javaType, String fieldName, Object value, boolean isDefault) {
-        try {
-            switch ( javaType )
-            {
-                case JAVA_LANG_BOOLEAN :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Boolean.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitBooleanCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Boolean.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_SHORT :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Short.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitShortCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Short.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_INTEGER :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Integer.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitIntCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Integer.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_LONG :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Long.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitLongCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Long.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_BYTE :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                curField.getName(),
-                                castByDictionary(message, fieldName, value, Byte.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitByteCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Byte.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_FLOAT :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Float.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitFloatCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Float.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_DOUBLE :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Double.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitDoubleCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Double.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_STRING :
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, String.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitStringCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, String.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_TIME_LOCAL_DATE_TIME:
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, LocalDateTime.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitDateTimeCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, LocalDateTime.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_TIME_LOCAL_DATE:
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, LocalDate.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitDateCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, LocalDate.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_TIME_LOCAL_TIME:
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, LocalTime.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitTimeCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, LocalTime.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_LANG_CHARACTER:
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, Character.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitCharCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, Character.class, isDefault),
-                                curField, isDefault);
-                    }
-                    break;
-                case JAVA_MATH_BIG_DECIMAL:
-                    if (!curField.isCollection()) {
-                        msgStrVisitor.visit(
-                                fieldName,
-                                castByDictionary(message, fieldName, value, BigDecimal.class, isDefault),
-                                curField, isDefault);
-                    } else {
-                        msgStrVisitor.visitBigDecimalCollection(
-                                fieldName,
-                                castCollectionByDictionary(message, fieldName, value, BigDecimal.class, isDefault),
-                                curField, isDefault);
+        TraversalPlan.visitSimple(msgStrVisitor, curField, javaType, isWriteBack(message) ? message : null, fieldName, value, isDefault);
+    }
+
+    /**
+     * Returns {@code true} if values of simple fields converted to the java types of the dictionary are put back to the message.
+     * Readers which must not modify the traversed messages return {@code false}.
+     * Values are never put back to a {@link MapBackedMessage}, so traversal doesn't modify the map it wraps.
+     */
+    protected boolean isWriteBack(IMessage message) {
+        return !(message instanceof MapBackedMessage);
+    }
+
+    /**
+     * Returns {@code true} if the class of this reader overrides the per-field methods of the interpreted traversal.
+     * Such readers are traversed through those methods, and the built-in traversers adjust field structures
+     * in their overrides of them, so the subclass gets the same structures as before the handlers were introduced.
+     */
+    protected final boolean usesLegacyHooks() {
+        return LEGACY_HOOKS.get(getClass());
+    }
+
+    private static boolean overridesLegacyHooks(Class<?> type) {
+        for (Class<?> current = type; current != MessageStructureReader.class; current = current.getSuperclass()) {
+            // the built-in traversers override the hooks only to keep them working for their subclasses
+            if (current == MessageTraverser.class || current == DirtyMessageTraverser.class) {
+                continue;
+            }
+
+            try {
+                current.getDeclaredMethod("visitField", IFieldStructure.class, IMessageStructureVisitor.class,
+                        IMessageStructureReaderHandler.class, IMessage.class, String.class, Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this class
+            }
+
+            try {
+                current.getDeclaredMethod("visitSimpleField", IFieldStructure.class, IMessageStructureVisitor.class,
+                        IMessage.class, JavaType.class, String.class, Object.class, boolean.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this class
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean overridesFieldMethods(Class<?> type) {
+        for (Class<?> current = type; current != MessageStructureReader.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                switch (method.getName()) {
+                case "visitField":
+                case "visitSimpleField":
+                case "visitComplexField":
+                    return true;
+                case "traverse":
+                    if (Arrays.asList(method.getParameterTypes()).contains(TraversalPlan.class)) {
+                        return true;
                     }
                     break;
                 default:
-                    throw new EPSCommonException("Unknown FieldType = [" +
-                            javaType + "] for FieldName = [" +
-                            curField.getName() + "]" );
+                    break;
+                }
             }
         }
-        catch ( ClassCastException e )
-        {
-            throw new EPSCommonException(e.getMessage()+ " fieldName = " + fieldName + ", javaType = " + javaType, e);
-        }
-    }
 
-    private <T> T castByDictionary(IMessage message, String fieldName, Object value, Class<T> clazz, boolean isDefault) {
-        T convertedValue = MultiConverter.convert(value, clazz);
-        if (isDefault) {
-            return convertedValue;
-        }
-        message.addField(fieldName, convertedValue);
-        return convertedValue;
-    }
-    
-    private <T> List<T> castCollectionByDictionary(IMessage message, String fieldName, Object value, Class<T> clazz, boolean isDefault) {
-        List<T> convertedCollection = MultiConverter.convert((Collection<?>)value, clazz, ArrayList::new);
-        if (isDefault) {
-            return convertedCollection;
-        }
-        message.addField(fieldName, convertedCollection);
-        return convertedCollection;
+        return false;
     }
 
     @SuppressWarnings("unchecked")
@@ -15,38 +15,72 @@
  */
 package com.exactpro.sf.common.messages;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.exactpro.sf.common.messages.structures.IAttributeStructure;
 import com.exactpro.sf.common.messages.structures.impl.AttributeStructure;
 import org.apache.commons.lang3.ObjectUtils;
 
-import com.exactpro.sf.common.impl.messages.DefaultMessageFactory;
 import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.TraversalPlan.FieldHandler;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.messages.structures.IMessageStructure;
 import com.exactpro.sf.common.messages.structures.StructureType;
 import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
 import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public class MessageTraverser extends MessageStructureReader {
 
+    private static final int MAX_SHAPES = 64;
+
+    // combined maps refer to structures which can refer to the key, so they are held softly to let the weak keys be collected
+    private static final Cache<Map<String, IFieldStructure>, ConcurrentMap<FieldsShape, Map<String, IFieldStructure>>> COMBINED_FIELDS =
+            CacheBuilder.newBuilder().weakKeys().softValues().build();
+
+    private static final ClassValue<Boolean> CUSTOM_STRUCTURES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overridesFieldStructures(type);
+        }
+    };
+
     private final IMessageStructure emptyMessageStructure = new MessageStructure("Empty", "Empty", false, null);
+    private final InferredStructureRegistry registry;
+
+    public MessageTraverser() {
+        this(InferredStructureRegistry.DEFAULT);
+    }
 
+    public MessageTraverser(InferredStructureRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("[registry] could not be null");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Messages without a structure are traversed with the structure learned for their type by the registry,
+     * the structures of their fields are reused for the following messages of the type
+     */
     @Override
     public void traverse(IMessageStructureVisitor msgStrVisitor,
             IMessageStructure msgStructure,
             IMessage message, IMessageStructureReaderHandler handler) {
         if (msgStructure == null) {
-            msgStructure = new MessageStructure(message.getName(), message.getNamespace(), false, emptyMessageStructure);
+            msgStructure = registry.getLearnedStructure(message.getNamespace(), message.getName());
         }
         super.traverse(msgStrVisitor, msgStructure, message, handler);
     }
@@ -56,33 +90,119 @@ public class MessageTraverser extends MessageStructureReader {
             IMessageStructureReaderHandler handler) {
         Map<String, IFieldStructure> combinedFields = combineUnknownFields(fields, message);
 
-        super.traverse(msgStrVisitor, combinedFields, message, handler);
+        traverse(msgStrVisitor, TraversalPlan.of(fields).derive(combinedFields), message, handler);
     }
 
+    /**
+     * Returns the fields followed by structures of the message fields which are missing in them.
+     * The fields themselves are returned if the message has no unknown fields.
+     * Combined maps are cached by the fields and the names and value classes of the unknown fields, so the result shouldn't be modified.
+     */
     protected Map<String, IFieldStructure> combineUnknownFields(Map<String, IFieldStructure> fields, IMessage message) {
-        return Stream.concat(fields.values().stream(),
-                message.getFieldNames().stream()
-                        .filter(field -> !fields.containsKey(field))
-                        .map(name -> createFieldStructure(message, name)))
-                .collect(Collectors.groupingBy(IFieldStructure::getName, LinkedHashMap::new, Collectors.reducing(this::overrideStructure)))
-                .values().stream()
-                .map(Optional::get)
-                .collect(LinkedHashMap::new, (map, value) -> map.put(value.getName(), value), Map::putAll);
+        List<String> unknownNames = null;
+
+        for (String name : message.getFieldNames()) {
+            if (!fields.containsKey(name)) {
+                if (unknownNames == null) {
+                    unknownNames = new ArrayList<>();
+                }
+                unknownNames.add(name);
+            }
+        }
+
+        if (unknownNames == null) {
+            return fields;
+        }
+
+        // structures created by a subclass can depend on something else than the value classes
+        if (CUSTOM_STRUCTURES.get(getClass())) {
+            return combine(fields, message, unknownNames, false);
+        }
+
+        ConcurrentMap<FieldsShape, Map<String, IFieldStructure>> shapes = COMBINED_FIELDS.asMap().computeIfAbsent(fields, key -> new ConcurrentHashMap<>());
+        FieldsShape shape = new FieldsShape(message, unknownNames);
+        Map<String, IFieldStructure> combinedFields = shapes.get(shape);
+
+        if (combinedFields == null) {
+            combinedFields = Collections.unmodifiableMap(combine(fields, message, unknownNames, fields.isEmpty()));
+
+            if (shapes.size() < MAX_SHAPES) {
+                shapes.putIfAbsent(shape, combinedFields);
+            }
+        }
+
+        return combinedFields;
     }
 
-    private IFieldStructure overrideStructure(IFieldStructure a, IFieldStructure b) {
-        return b;
+    /**
+     * @param learn whether the message has no structure, so the structures of its fields are taken from and recorded to
+     *              the structure learned for its type by the registry
+     */
+    private Map<String, IFieldStructure> combine(Map<String, IFieldStructure> fields, IMessage message, List<String> unknownNames, boolean learn) {
+        Map<String, IFieldStructure> combinedFields = new LinkedHashMap<>(fields);
+
+        for (String name : unknownNames) {
+            combinedFields.put(name, learn ? learnFieldStructure(message, name) : createFieldStructure(message, name));
+        }
+
+        return combinedFields;
     }
 
-    private boolean contains(Map<String, JavaType> namesByDictionary, String name, Object fieldValue) {
+    private IFieldStructure learnFieldStructure(IMessage message, String fieldName) {
+        IFieldStructure learned = registry.getLearnedField(message.getNamespace(), message.getName(), fieldName);
+        // the learned structure is returned as is if it fits the value
+        IFieldStructure structure = learned != null ? createFieldStructure(learned, message, fieldName) : createFieldStructure(message, fieldName);
 
-        try {
-            JavaType fieldType = (fieldValue != null) ? JavaType.fromValue(fieldValue.getClass().getName()) : null;
-            return namesByDictionary.entrySet().stream()
-                    .anyMatch(p -> p.getKey().equals(name) && (fieldType != null) && (p.getValue() == fieldType));
-        } catch (IllegalArgumentException e) {
-            return namesByDictionary.containsKey(name);
+        if (structure != learned) {
+            registry.learnField(message.getNamespace(), message.getName(), structure);
         }
+
+        return structure;
+    }
+
+    private static boolean overridesFieldStructures(Class<?> type) {
+        for (Class<?> current = type; current != MessageTraverser.class; current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod("createFieldStructure", IMessage.class, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this class
+            }
+
+            try {
+                current.getDeclaredMethod("createFieldStructure", IFieldStructure.class, String.class, String.class, Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this class
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The structure of the field is adjusted to the actual value, the handler is recompiled only if the structure is changed.
+     * Subclasses overriding the legacy hooks get the structure adjusted by
+     * {@link #visitField(IFieldStructure, IMessageStructureVisitor, IMessageStructureReaderHandler, IMessage, String, Object)} instead
+     */
+    @Override
+    protected void visitField(FieldHandler field, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler, IMessage message, Object value) {
+        if (usesLegacyHooks()) {
+            super.visitField(field, msgStrVisitor, handler, message, value);
+            return;
+        }
+
+        IFieldStructure curField = createFieldStructure(field.getStructure(), field.getStructure().getNamespace(), field.getName(), value);
+
+        if (curField != field.getStructure()) {
+            field = TraversalPlan.compile(field.getName(), curField);
+        }
+
+        // Check unsupported type
+        if (field.isPlainString() && value != null && !(value instanceof String)) {
+            value = value.toString();
+        }
+        super.visitField(field, msgStrVisitor, handler, message, value);
     }
 
     @Override
@@ -102,18 +222,19 @@ public class MessageTraverser extends MessageStructureReader {
         String namespace = curField.getNamespace();
         String name = curField.getName();
         
+        // maps are wrapped without copying, so the list is rebuilt only if it has maps
         if (value != null) {
             if (curField.isCollection()) {
-                value = ((List<Object>) value).stream()
-                        .map(msg -> {
-                            if (msg instanceof Map) {
-                                return MessageUtil.convertToIMessage((Map<?, ?>)msg, DefaultMessageFactory.getFactory(), namespace, name);
-                            }
-                            return msg;
-                        }).collect(Collectors.toList());
+                List<Object> list = (List<Object>)value;
+
+                if (list.stream().anyMatch(Map.class::isInstance)) {
+                    value = list.stream()
+                            .map(msg -> msg instanceof Map ? MessageUtil.asMessage((Map<String, ?>)msg, namespace, name) : msg)
+                            .collect(Collectors.toList());
+                }
             } else {
                 if (value instanceof Map) {
-                    value = MessageUtil.convertToIMessage((Map<?, ?>)value, DefaultMessageFactory.getFactory(), namespace, curField.getName());
+                    value = MessageUtil.asMessage((Map<String, ?>)value, namespace, curField.getName());
                 }
             }
         }
@@ -121,65 +242,81 @@ public class MessageTraverser extends MessageStructureReader {
         super.visitComplexField(curField, msgStrVisitor, fieldName, value);
     }
     
+    /**
+     * Returns the structure of the field adjusted to the value. New structures are memoized in the {@link InferredStructureRegistry}.
+     */
     protected IFieldStructure createFieldStructure(IFieldStructure originFieldStructure, String namespace, String fieldName, Object value) {
-        IFieldStructure fieldStructure = originFieldStructure;
-        if(value != null) {
-            boolean isCollection = false;
-            JavaType javaType = null;
-            StructureType structureType = (originFieldStructure != null && !originFieldStructure.isComplex()) ? originFieldStructure.getStructureType() : StructureType.SIMPLE;
-
-            if(value instanceof List<?>) {
-                isCollection = true;
-                value = ((List<?>)value).stream()
-                        .filter(Objects::nonNull)
-                        .findFirst()
-                        .orElse(null);
+        if (value == null) {
+            if (originFieldStructure != null) {
+                return originFieldStructure;
             }
+            return registry.infer(null, namespace, fieldName, false, StructureType.SIMPLE, JavaType.JAVA_LANG_STRING, false,
+                    () -> new FieldStructure(fieldName, namespace, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        }
 
-            if(value != null) {
-                if((value instanceof IMessage) || (value instanceof HashMap)) {
-                    structureType = StructureType.COMPLEX;
-                } else {
-                    javaType = ObjectUtils.defaultIfNull(getJavaTypeSafe(value.getClass().getCanonicalName()), JavaType.JAVA_LANG_STRING);
-                }
-            }
+        boolean isCollection = false;
+        JavaType javaType = null;
+        StructureType structureType = (originFieldStructure != null && !originFieldStructure.isComplex()) ? originFieldStructure.getStructureType() : StructureType.SIMPLE;
 
-            if (originFieldStructure == null
-                    || originFieldStructure.isCollection() != isCollection
-                    || originFieldStructure.getStructureType() != structureType
-                    || (structureType == StructureType.COMPLEX && javaType != null)
-                    || (structureType != StructureType.COMPLEX && originFieldStructure.getJavaType() != javaType)) {
-                if (structureType == StructureType.COMPLEX && javaType == null) {
-                    fieldStructure = new MessageStructure(fieldName, namespace, isCollection, emptyMessageStructure);
-                } else if  (originFieldStructure != null && value != null) {
-                    Map<String, IAttributeStructure> newValues =  new HashMap<>();
-
-                    originFieldStructure.getValues().forEach((nameValue, originalValue) -> {
-                        AttributeStructure attributeStructure = new AttributeStructure(nameValue, originalValue.getValue(), originalValue.getValue(), JavaType.JAVA_LANG_STRING);
-                        newValues.put(nameValue, attributeStructure );
-                    });
-                    fieldStructure = new FieldStructure(fieldName, namespace, ObjectUtils.defaultIfNull(javaType, JavaType.JAVA_LANG_STRING), isCollection, structureType, originFieldStructure.getAttributes(), newValues);
-                } else {
-                    fieldStructure = new FieldStructure(fieldName, namespace, ObjectUtils.defaultIfNull(javaType, JavaType.JAVA_LANG_STRING), isCollection, structureType);
-                }
+        if(value instanceof List<?>) {
+            isCollection = true;
+            value = firstNonNull((List<?>)value);
+        }
+
+        if(value != null) {
+            ValueType valueType = ValueType.of(value);
+            // any map is traversed as a sub-message by visitComplexField
+            if(valueType.isMessage() || (value instanceof Map)) {
+                structureType = StructureType.COMPLEX;
+            } else {
+                javaType = ObjectUtils.defaultIfNull(valueType.getJavaType(), JavaType.JAVA_LANG_STRING);
             }
         }
 
-        if (fieldStructure == null) {
-            return new FieldStructure(fieldName, namespace, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE);
+        if (originFieldStructure != null
+                && originFieldStructure.isCollection() == isCollection
+                && originFieldStructure.getStructureType() == structureType
+                && (structureType != StructureType.COMPLEX || javaType == null)
+                && (structureType == StructureType.COMPLEX || originFieldStructure.getJavaType() == javaType)) {
+            return originFieldStructure;
         }
 
-        return fieldStructure;
+        boolean collection = isCollection;
+        JavaType type = javaType;
+        StructureType typeOfStructure = structureType;
+        boolean hasValue = value != null;
+
+        return registry.infer(originFieldStructure, namespace, fieldName, isCollection, structureType, javaType, hasValue,
+                () -> newFieldStructure(originFieldStructure, namespace, fieldName, collection, typeOfStructure, type, hasValue));
+    }
+
+    private IFieldStructure newFieldStructure(IFieldStructure originFieldStructure, String namespace, String fieldName, boolean isCollection,
+            StructureType structureType, JavaType javaType, boolean hasValue) {
+        if (structureType == StructureType.COMPLEX && javaType == null) {
+            // each inferred message gets its own fields map, so its combined fields are cached separately
+            return new MessageStructure(fieldName, namespace, null, Collections.emptyMap(), false, isCollection, null, emptyMessageStructure);
+        } else if  (originFieldStructure != null && !originFieldStructure.isComplex() && hasValue) {
+            Map<String, IAttributeStructure> newValues =  new HashMap<>();
+
+            originFieldStructure.getValues().forEach((nameValue, originalValue) -> {
+                AttributeStructure attributeStructure = new AttributeStructure(nameValue, originalValue.getValue(), originalValue.getValue(), JavaType.JAVA_LANG_STRING);
+                newValues.put(nameValue, attributeStructure );
+            });
+            return new FieldStructure(fieldName, namespace, ObjectUtils.defaultIfNull(javaType, JavaType.JAVA_LANG_STRING), isCollection, structureType, originFieldStructure.getAttributes(), newValues);
+        } else {
+            return new FieldStructure(fieldName, namespace, ObjectUtils.defaultIfNull(javaType, JavaType.JAVA_LANG_STRING), isCollection, structureType);
+        }
     }
 
-    private JavaType getJavaTypeSafe(String value) {
-        try {
-            return JavaType.fromValue(value);
-        } catch (RuntimeException e) {
-            return null;
+    private static Object firstNonNull(List<?> list) {
+        for (Object element : list) {
+            if (element != null) {
+                return element;
+            }
         }
+        return null;
     }
-    
+
     private IFieldStructure createFieldStructure(IFieldStructure fieldStructure, IMessage message, String fieldName) {
         return createFieldStructure(fieldStructure, message.getNamespace(), fieldName, message.getField(fieldName));
     }
@@ -187,4 +324,55 @@ public class MessageTraverser extends MessageStructureReader {
     protected IFieldStructure createFieldStructure(IMessage message, String fieldName) {
         return createFieldStructure(null, message, fieldName);
     }
+
+    /**
+     * Namespace of the message with names and value classes of its unknown fields, the classes of the first non-null elements are used for lists.
+     * Structures of the unknown fields depend only on these properties.
+     */
+    private static final class FieldsShape {
+        private final String namespace;
+        private final Object[] signature;
+        private final int hash;
+
+        private FieldsShape(IMessage message, List<String> names) {
+            this.namespace = message.getNamespace();
+            this.signature = new Object[names.size() * 3];
+
+            int index = 0;
+
+            for (String name : names) {
+                Object value = message.getField(name);
+                boolean collection = value instanceof List<?>;
+
+                if (collection) {
+                    value = firstNonNull((List<?>)value);
+                }
+
+                signature[index++] = name;
+                signature[index++] = collection;
+                signature[index++] = value != null ? value.getClass() : null;
+            }
+
+            this.hash = 31 * Objects.hashCode(namespace) + Arrays.hashCode(signature);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof FieldsShape)) {
+                return false;
+            }
+
+            FieldsShape that = (FieldsShape)obj;
+            return hash == that.hash && Objects.equals(namespace, that.namespace) && Arrays.equals(signature, that.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -17,10 +17,19 @@ package com.exactpro.sf.common.messages;
 
 import com.exactpro.sf.common.impl.messages.DefaultMessageFactory;
 import com.exactpro.sf.common.impl.messages.HashMapWrapper;
+import com.exactpro.sf.common.impl.messages.HumanMessageCache;
+import com.exactpro.sf.common.impl.messages.LazyHumanMessage;
+import com.exactpro.sf.common.impl.messages.MapBackedMessage;
+import com.exactpro.sf.common.impl.messages.MessageMapView;
 import com.exactpro.sf.common.messages.IFieldInfo.FieldType;
 import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.util.BlockIdGenerator;
+import com.exactpro.sf.common.util.IClock;
+import com.exactpro.sf.common.util.IHighWaterMarkStore;
+import com.exactpro.sf.common.util.IIdGenerator;
+import com.exactpro.sf.common.util.SystemClock;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
@@ -32,7 +41,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Contains message processing routines
@@ -44,8 +52,9 @@ public class MessageUtil
     public static final MessageTraverser MESSAGE_TRAVERSER = new MessageTraverser();
 
     private static final long NANOSECONDS_IN_SECOND = 1_000_000_000L;
-    private static final AtomicLong counter = new AtomicLong();
-    private static final AtomicLong sequenceGenerator = new AtomicLong(getStartSequence());
+    private static volatile IIdGenerator idGenerator = new BlockIdGenerator(0);
+    private static volatile IIdGenerator sequenceGenerator = new BlockIdGenerator(getStartSequence());
+    private static volatile IClock clock = SystemClock.INSTANCE;
     public static final String MESSAGE_REJECTED_POSTFIX = " (REJECTED)";
 
     public static String toString(IMessage msg, String separator)
@@ -54,8 +63,10 @@ public class MessageUtil
             return "null";
         }
 
-        StringBuilder result = new StringBuilder(128);
+        return appendMessage(new StringBuilder(128), msg, separator).toString();
+	}
 
+    private static StringBuilder appendMessage(StringBuilder result, IMessage msg, String separator) {
         for(String fldName : msg.getFieldNames())
 		{
 			IFieldInfo fldInfo = msg.getFieldInfo(fldName);
@@ -70,7 +81,7 @@ public class MessageUtil
 					result.append('{');
 					for(Object o : vals) {
                         if(o instanceof IMessage) {
-							result.append(toString((IMessage) o, separator));
+							appendMessage(result, (IMessage) o, separator);
 						} else {
                             result.append(o);
 						}
@@ -83,7 +94,7 @@ public class MessageUtil
 			{
 				result.append('{');
 
-				result.append(toString((IMessage)fldInfo.getValue(), separator));
+				appendMessage(result, (IMessage)fldInfo.getValue(), separator);
 
 				result.append('}');
 			}
@@ -94,9 +105,12 @@ public class MessageUtil
 			}
 		}
 
-		return result.toString();
+		return result;
 	}
 
+    /**
+     * Copies the message tree to maps, use {@link #asMap(IMessage)} to avoid copying
+     */
 	public static HashMapWrapper<String, Object> convertToHashMap(IMessage message) {
 	    if (message != null) {
             HashMapWrapper<String, Object> result = new HashMapWrapper<>(message.getMetaData());
@@ -123,12 +137,42 @@ public class MessageUtil
 	    return null;
     }
 
+    /**
+     * Renders the message immediately and returns a snapshot which doesn't change with the message.
+     * Use it when the result is stored or compared with the message later, e.g. kept in a message storage together with the message.
+     * Callers which only log or display the result should use {@link #convertToLazyHumanMessage} instead
+     */
 	public static IHumanMessage convertToIHumanMessage(IMessageFactory messageFactory, IMessageStructure messageStructure, IMessage message) {
 	    HumanMessageStructureVisitor visitor = new HumanMessageStructureVisitor(messageFactory, message.getName());
 	    MESSAGE_TRAVERSER.traverse(visitor, messageStructure, message, EmptyMessageStructureReaderHandler.instance());
 	    return visitor.getHumanMessage();
     }
 
+    /**
+     * Returns a live representation which is rendered on the first use and cached until the message is modified.
+     * Unlike {@link #convertToIHumanMessage} it reflects the modifications made after the call
+     */
+    public static IHumanMessage convertToLazyHumanMessage(IMessageFactory messageFactory, IMessageStructure messageStructure, IMessage message) {
+        return new LazyHumanMessage(messageFactory, messageStructure, message, HumanMessageCache.DEFAULT);
+    }
+
+    /**
+     * Returns live map view of the message, sub-messages and lists are wrapped on access
+     */
+    public static Map<String, Object> asMap(IMessage message) {
+        return message != null ? new MessageMapView(message) : null;
+    }
+
+    /**
+     * Returns live message view of the map, nested maps and lists are wrapped on access
+     */
+    public static IMessage asMessage(Map<String, ?> map, String namespace, String name) {
+        return map != null ? new MapBackedMessage(map, namespace, name) : null;
+    }
+
+    /**
+     * Copies the map tree to messages created by the factory, use {@link #asMessage(Map, String, String)} to avoid copying
+     */
     public static IMessage convertToIMessage(Map<?, ?> map, IMessageFactory messageFactory, String namespace, String name) {
         if (map == null) {
             return null;
@@ -189,7 +233,7 @@ public class MessageUtil
 
         MessageStructureReader.READER.traverse(visitor, msgStruct, msg, MessageStructureReaderHandlerImpl.instance());
 
-		return escapeCharacter(buffer);
+		return buffer.toString();
 	}
 
 	public static IMessage extractMessage(Object field) {
@@ -546,6 +590,10 @@ public class MessageUtil
 	    }
 	}
 
+    /**
+     * Appends the field replacing {@code NUL} characters of the value with {@link MessageRenderer#NULL_ESCAPE}.
+     * Field names come from the dictionary, so they are appended as is
+     */
 	private static void convertField(StringBuilder buffer, String fieldName, Object value, IFieldStructure fldStruct, boolean showNulls)
 	{
 		boolean required = fldStruct.isRequired();
@@ -562,32 +610,46 @@ public class MessageUtil
 			if ( value != null )
 			{
 				String alias = getAlias(fldStruct, value);
-				buffer.append(alias);
+				MessageRenderer.appendEscaped(String.valueOf(alias), buffer);
             } else {
                 buffer.append("null");
             }
 		}
 		else
 		{
-            buffer.append(value);
+            MessageRenderer.appendEscaped(String.valueOf(value), buffer);
 		}
 
 		buffer.append("; ");
 	}
 
 	public static String escapeCharacter(StringBuilder stringBuilder) {
-	    int index = stringBuilder.length();
-	    
-	    while (--index >= 0) {
-	        if (stringBuilder.charAt(index) == '\u0000') {
-	            stringBuilder.replace(index, index + 1, "&NULL");
-	        }
-        }
-	    return stringBuilder.toString();
+	    return escapeCharacter((CharSequence)stringBuilder);
 	}
 
     public static String escapeCharacter(String source) {
-        return escapeCharacter(new StringBuilder(source));
+        return escapeCharacter((CharSequence)source);
+    }
+
+    /**
+     * Replaces {@code NUL} characters with {@link MessageRenderer#NULL_ESCAPE} in a single forward pass.
+     * The source isn't copied if there is nothing to escape
+     */
+    private static String escapeCharacter(CharSequence source) {
+        StringBuilder result = null;
+        int start = 0;
+
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\u0000') {
+                if (result == null) {
+                    result = new StringBuilder(source.length() + 16);
+                }
+                result.append(source, start, i).append(MessageRenderer.NULL_ESCAPE);
+                start = i + 1;
+            }
+        }
+
+        return result == null ? source.toString() : result.append(source, start, source.length()).toString();
     }
 
     /***
@@ -596,7 +658,11 @@ public class MessageUtil
      * @param destination
      */
     public static void transferMetadata(MsgMetaData source, MsgMetaData destination) {
-        destination.setRawMessage(source.getRawMessage());
+        if (source.get(MetadataProperty.RAW_MESSAGE) instanceof RawMessageBuffer) {
+            destination.setRawMessageBuffer(source.getRawMessageBuffer().retain());
+        } else {
+            destination.setRawMessage(source.getRawMessage());
+        }
         destination.setAdmin(source.isAdmin());
         destination.setDictionaryURI(source.getDictionaryURI());
         destination.setProtocol(source.getProtocol());
@@ -620,14 +686,72 @@ public class MessageUtil
 	}
 
 	public static long generateId(){
-	    return counter.getAndIncrement();
+	    return idGenerator.next();
     }
 
 	public static long generateSequence(){
-	    return sequenceGenerator.getAndIncrement();
+	    return sequenceGenerator.next();
+    }
+
+    /**
+     * Reserves {@code count} consecutive message ids for a batch
+     * @return the first reserved id
+     */
+    public static long reserveIds(int count) {
+        return idGenerator.reserve(count);
+    }
+
+    /**
+     * Reserves {@code count} consecutive sequences for a batch
+     * @return the first reserved sequence
+     */
+    public static long reserveSequences(int count) {
+        return sequenceGenerator.reserve(count);
+    }
+
+    public static void setIdGenerator(IIdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("[generator] could not be null");
+        }
+        idGenerator = generator;
+    }
+
+    public static void setSequenceGenerator(IIdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("[generator] could not be null");
+        }
+        sequenceGenerator = generator;
+    }
+
+    /**
+     * Makes sequences unique across restarts: new sequences continue after the mark kept in the store
+     * if it is ahead of the current time
+     */
+    public static void setSequenceStore(IHighWaterMarkStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("[store] could not be null");
+        }
+        sequenceGenerator = new BlockIdGenerator(getStartSequence(), BlockIdGenerator.DEFAULT_BLOCK_SIZE, store);
+    }
+
+    /**
+     * Returns current time of the clock used for metadata timestamps in nanoseconds since the epoch
+     */
+    public static long currentTimeNanos() {
+        return clock.epochNanos();
+    }
+
+    /**
+     * Replaces the clock used for metadata timestamps, e.g. with {@link com.exactpro.sf.common.util.CoarseClock}
+     * to make it cheaper or with {@link com.exactpro.sf.common.util.HighResolutionClock} to get sub-millisecond precision
+     */
+    public static void setClock(IClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("[clock] could not be null");
+        }
+        MessageUtil.clock = clock;
     }
 
-    //FIXME: This values should be got from memcache
     private static long getStartSequence() {
         Instant now = Instant.now();
         return now.getEpochSecond() * NANOSECONDS_IN_SECOND + now.getNano();
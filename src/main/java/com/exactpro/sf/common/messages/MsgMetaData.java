@@ -36,6 +36,7 @@ import static com.exactpro.sf.common.messages.MetadataExtensions.setNamespace;
 import static com.exactpro.sf.common.messages.MetadataExtensions.setSequence;
 import static com.exactpro.sf.common.messages.MetadataExtensions.setTimestamp;
 import static com.exactpro.sf.common.messages.MetadataProperty.ID;
+import static com.exactpro.sf.common.messages.MetadataProperty.RAW_MESSAGE;
 
 /**
  * To be removed in the next release. Please use {@link IMetadata} instead
@@ -46,29 +47,56 @@ public class MsgMetaData extends Metadata {
     public MsgMetaData(IMetadata metadata) {
         Objects.requireNonNull(metadata, "metadata is null");
 
-        for (String key : metadata.getKeys()) {
-            set(key, metadata.get(key));
+        if (metadata instanceof Metadata) {
+            copyFrom((Metadata)metadata);
+        } else {
+            MetadataExtensions.merge(this, metadata);
         }
     }
 
     public MsgMetaData(String namespace, String name, Date msgTimestamp, long id, long sequence) {
-        setNamespace(this, namespace);
-        setName(this, name);
-        setTimestamp(this, msgTimestamp);
-        setId(this, id);
-        setSequence(this, sequence);
+        initialize(namespace, name, msgTimestamp, id, sequence);
     }
 
     public MsgMetaData(String namespace, String name, Date msgTimestamp) {
         this(namespace, name, msgTimestamp, MessageUtil.generateId(), MessageUtil.generateSequence());
     }
 
+    /**
+     * Creates metadata with the current time of {@link MessageUtil#currentTimeNanos()},
+     * a new {@link Date} of the timestamp is created on each {@link #getMsgTimestamp()} call
+     */
     public MsgMetaData(String namespace, String name) {
-        this(namespace, name, new Date(), MessageUtil.generateId(), MessageUtil.generateSequence());
+        this(namespace, name, MessageUtil.generateId());
     }
 
     public MsgMetaData(String namespace, String name, long id) {
-        this(namespace, name, new Date(), id, MessageUtil.generateSequence());
+        initialize(namespace, name, MessageUtil.currentTimeNanos(), id, MessageUtil.generateSequence());
+    }
+
+    /**
+     * Removes all properties and initializes the metadata like {@link #MsgMetaData(String, String, long)} does,
+     * so the instance can be reused for a new message
+     */
+    public void reset(String namespace, String name, long id) {
+        clear();
+        initialize(namespace, name, MessageUtil.currentTimeNanos(), id, MessageUtil.generateSequence());
+    }
+
+    private void initialize(String namespace, String name, Date msgTimestamp, long id, long sequence) {
+        setNamespace(this, namespace);
+        setName(this, name);
+        setTimestamp(this, msgTimestamp);
+        setId(this, id);
+        setSequence(this, sequence);
+    }
+
+    private void initialize(String namespace, String name, long timestampNanos, long id, long sequence) {
+        setNamespace(this, namespace);
+        setName(this, name);
+        setTimestampNanos(timestampNanos);
+        setId(this, id);
+        setSequence(this, sequence);
     }
 
     public long getId() {
@@ -130,6 +158,13 @@ public class MsgMetaData extends Metadata {
         return getTimestamp(this);
     }
 
+    /**
+     * Returns the timestamp in nanoseconds since the epoch without creating a {@link Date}
+     */
+    public long getMsgTimestampNanos() {
+        return getTimestampNanos();
+    }
+
     public String getMsgNamespace() {
         return getNamespace(this);
     }
@@ -147,6 +182,34 @@ public class MsgMetaData extends Metadata {
         MetadataExtensions.setRawMessage(this, value);
     }
 
+    /**
+     * Returns raw message without copying it
+     */
+    @Nullable
+    public RawMessageBuffer getRawMessageBuffer() {
+        return MetadataExtensions.getRawMessageBuffer(this);
+    }
+
+    /**
+     * Sets raw message. The metadata takes over the reference of the buffer, so the caller should retain it if it is still needed
+     */
+    public void setRawMessageBuffer(@Nullable RawMessageBuffer value) {
+        MetadataExtensions.setRawMessageBuffer(this, value);
+    }
+
+    /**
+     * Removes raw message and releases its buffer
+     */
+    public void releaseRawMessage() {
+        MetadataExtensions.setRawMessageBuffer(this, null);
+    }
+
+    @Override
+    public void clear() {
+        releaseRawMessage();
+        super.clear();
+    }
+
     @Nullable
     public ServiceInfo getServiceInfo() {
         return MetadataExtensions.getServiceInfo(this);
@@ -183,17 +246,49 @@ public class MsgMetaData extends Metadata {
         MetadataExtensions.setRejectReason(this, rejectReason);
     }
 
+    /**
+     * Returns a read-only copy of the metadata with the same id. The raw message is copied,
+     * so the copy doesn't hold a reference to the raw message buffer and doesn't share an array with this metadata.
+     * Clones of the copy are writable.
+     */
+    public MsgMetaData readOnlyCopy() {
+        MsgMetaData copy = new MsgMetaData(this);
+        byte[] rawMessage = getRawMessage();
+
+        if (rawMessage != null) {
+            if (get(RAW_MESSAGE) instanceof byte[]) {
+                rawMessage = Arrays.copyOf(rawMessage, rawMessage.length);
+            }
+
+            copy.setRawMessageBuffer(RawMessageBuffer.wrap(rawMessage));
+        }
+
+        copy.makeReadOnly();
+        return copy;
+    }
+
     // FIXME: find all the usages of MsgMetaData.clone() and copy id as well if it doesn't break anything
     @Override
     public MsgMetaData clone() {
-        MsgMetaData metaData = new MsgMetaData(super.clone());
+        return clone(true);
+    }
 
-        metaData.set(ID.getPropertyName(), MessageUtil.generateId());
+    /**
+     * Clones the metadata like {@link #clone()} does.
+     * If {@code copyRawMessage} is {@code false} the clone shares the raw message array with this metadata,
+     * so the array must not be modified afterwards.
+     */
+    public MsgMetaData clone(boolean copyRawMessage) {
+        MsgMetaData metaData = new MsgMetaData(this);
 
-        byte[] rawMessage = getRawMessage();
+        metaData.set(ID, MessageUtil.generateId());
 
-        if (rawMessage != null) {
-            metaData.setRawMessage(Arrays.copyOf(rawMessage, rawMessage.length));
+        Object rawMessage = get(RAW_MESSAGE);
+
+        // buffers are read-only and shared by the clones
+        if (copyRawMessage && rawMessage instanceof byte[]) {
+            byte[] bytes = (byte[])rawMessage;
+            metaData.setRawMessage(Arrays.copyOf(bytes, bytes.length));
         }
 
         return metaData;
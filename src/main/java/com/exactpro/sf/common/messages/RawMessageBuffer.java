@@ -0,0 +1,176 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only view of the raw bytes of a message, e.g. a slice of a network or file buffer.
+ * All slices of the same backing buffer share one reference counter. The release callback of the backing buffer
+ * is invoked when the counter drops to zero, after that the bytes cannot be accessed anymore.
+ * <p>
+ * {@link MsgMetaData} owns one reference of its raw message buffer: its clones retain the buffer
+ * and {@link MsgMetaData#releaseRawMessage()} releases it.
+ */
+public final class RawMessageBuffer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final Runnable NO_OP = () -> {};
+
+    private final ByteBuffer buffer;
+    private final Owner owner;
+
+    private RawMessageBuffer(ByteBuffer buffer, Owner owner) {
+        this.buffer = buffer;
+        this.owner = owner;
+    }
+
+    /**
+     * Wraps remaining bytes of the buffer without copying. The returned instance holds the only reference to the buffer
+     * @param onRelease callback invoked when the last reference is released, e.g. to return the buffer to a pool
+     */
+    public static RawMessageBuffer wrap(ByteBuffer buffer, Runnable onRelease) {
+        Objects.requireNonNull(buffer, "buffer cannot be null");
+        Objects.requireNonNull(onRelease, "onRelease cannot be null");
+        return new RawMessageBuffer(buffer.slice().asReadOnlyBuffer(), new Owner(onRelease));
+    }
+
+    /**
+     * Wraps the array without copying. The array must not be modified afterwards
+     */
+    public static RawMessageBuffer wrap(byte[] bytes) {
+        return wrap(ByteBuffer.wrap(bytes), NO_OP);
+    }
+
+    /**
+     * Returns a view of the part of this buffer. The view holds a new reference to the backing buffer
+     */
+    public RawMessageBuffer slice(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IndexOutOfBoundsException(String.format("offset: %s, length: %s, buffer length: %s", offset, length, buffer.limit()));
+        }
+
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+
+        retain();
+        return new RawMessageBuffer(duplicate.slice(), owner);
+    }
+
+    public RawMessageBuffer retain() {
+        int refCount;
+
+        do {
+            refCount = owner.refCount.get();
+
+            if (refCount == 0) {
+                throw new IllegalStateException("Raw message buffer is already released");
+            }
+        } while (!owner.refCount.compareAndSet(refCount, refCount + 1));
+
+        return this;
+    }
+
+    /**
+     * Releases a reference to the backing buffer
+     * @return {@code true} if it was the last reference and the backing buffer has been released
+     */
+    public boolean release() {
+        int refCount = owner.refCount.decrementAndGet();
+
+        if (refCount < 0) {
+            owner.refCount.incrementAndGet();
+            throw new IllegalStateException("Raw message buffer is already released");
+        }
+
+        if (refCount == 0) {
+            owner.onRelease.run();
+            return true;
+        }
+
+        return false;
+    }
+
+    public int refCount() {
+        return owner.refCount.get();
+    }
+
+    public int length() {
+        return buffer.limit();
+    }
+
+    /**
+     * Returns a new read-only buffer over the bytes, its position is zero and its limit is the length
+     */
+    public ByteBuffer buffer() {
+        checkAccessible();
+        return buffer.duplicate();
+    }
+
+    public byte[] toByteArray() {
+        checkAccessible();
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Appends lowercase hex representation of the bytes without copying them
+     */
+    public StringBuilder appendHex(StringBuilder builder) {
+        checkAccessible();
+        builder.ensureCapacity(builder.length() + buffer.limit() * 2);
+
+        for (int i = 0; i < buffer.limit(); i++) {
+            int value = buffer.get(i);
+            builder.append(HEX_DIGITS[(value >> 4) & 0xF]).append(HEX_DIGITS[value & 0xF]);
+        }
+
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof RawMessageBuffer && buffer.equals(((RawMessageBuffer)obj).buffer);
+    }
+
+    @Override
+    public int hashCode() {
+        return buffer.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return refCount() > 0 ? appendHex(new StringBuilder()).toString() : "released";
+    }
+
+    private void checkAccessible() {
+        if (owner.refCount.get() == 0) {
+            throw new IllegalStateException("Raw message buffer is already released");
+        }
+    }
+
+    private static class Owner {
+        private final AtomicInteger refCount = new AtomicInteger(1);
+        private final Runnable onRelease;
+
+        private Owner(Runnable onRelease) {
+            this.onRelease = onRelease;
+        }
+    }
+}
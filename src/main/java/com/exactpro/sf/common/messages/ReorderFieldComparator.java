@@ -9,8 +9,10 @@
  */
 package com.exactpro.sf.common.messages;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,11 +22,12 @@ public class ReorderFieldComparator implements Comparator<String> {
     private final Map<String, Integer> order = new LinkedHashMap<>();
 
     public ReorderFieldComparator(List<String> order, Collection<String> names) {
+        Map<String, Integer> positions = positions(order);
 
         for (String name : names) {
-            int index = order.indexOf(name);
+            Integer index = positions.get(name);
 
-            if(index == -1) {
+            if(index == null) {
                 continue;
             }
 
@@ -45,4 +48,45 @@ public class ReorderFieldComparator implements Comparator<String> {
     public int compare(String o1, String o2) {
         return order.get(o1) - order.get(o2);
     }
+
+    /**
+     * Returns indexes of the names in the order defined by this comparator: names listed in the order go first
+     * and the rest keep their relative positions. The names are placed without sorting.
+     */
+    public static int[] permutation(List<String> order, List<String> names) {
+        Map<String, Integer> positions = positions(order);
+        int[] slots = new int[order.size() + names.size()];
+        Arrays.fill(slots, -1);
+
+        int counter = order.size();
+
+        for (int i = 0; i < names.size(); i++) {
+            Integer index = positions.get(names.get(i));
+            slots[index != null ? index : counter++] = i;
+        }
+
+        int[] permutation = new int[names.size()];
+        int size = 0;
+
+        for (int slot : slots) {
+            if (slot != -1) {
+                permutation[size++] = slot;
+            }
+        }
+
+        return permutation;
+    }
+
+    /**
+     * Positions of the first occurrences of the names in the order
+     */
+    private static Map<String, Integer> positions(List<String> order) {
+        Map<String, Integer> positions = new HashMap<>(order.size() * 2);
+
+        for (int i = 0; i < order.size(); i++) {
+            positions.putIfAbsent(order.get(i), i);
+        }
+
+        return positions;
+    }
 }
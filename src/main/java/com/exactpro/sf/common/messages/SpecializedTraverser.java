@@ -0,0 +1,234 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.messages.TraversalPlan.FieldHandler;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Traversal of a {@link TraversalPlan} specialized for a visitor class. Each field is bound to a class generated
+ * by {@link LambdaMetafactory} which calls the exact {@link IMessageStructureVisitor} method overload of the visitor class,
+ * so the call to the visitor is monomorphic and can be inlined by the JIT instead of being dispatched
+ * through the visitor interface and the type bindings of the plan.
+ * <p>
+ * A class is generated once per visitor class and method overload and is shared by all plans.
+ * Traversers are built on the first use of a plan with a visitor class and are cached for the pair.
+ * If a traverser can't be built, e.g. the visitor class isn't public, isn't visible from this class loader,
+ * a field has an unknown java type or the plan has more than {@link #MAX_FIELDS} fields,
+ * {@link #of(TraversalPlan, Class)} returns {@code null} and the plan is traversed as usual.
+ */
+final class SpecializedTraverser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecializedTraverser.class);
+
+    /**
+     * Plans with more fields are traversed as usual, their specialized traversal wouldn't be compiled by the JIT anyway
+     */
+    static final int MAX_FIELDS = 256;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(FieldVisitor.class);
+    private static final MethodType VISIT_TYPE = MethodType.methodType(void.class,
+            IMessageStructureVisitor.class, String.class, Object.class, IFieldStructure.class, boolean.class);
+
+    private static final ClassValue<ConcurrentMap<TraversalPlan, Optional<SpecializedTraverser>>> TRAVERSERS =
+            new ClassValue<ConcurrentMap<TraversalPlan, Optional<SpecializedTraverser>>>() {
+        @Override
+        protected ConcurrentMap<TraversalPlan, Optional<SpecializedTraverser>> computeValue(Class<?> type) {
+            return new MapMaker().weakKeys().makeMap();
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<String, Optional<FieldVisitor>>> FIELD_VISITORS =
+            new ClassValue<ConcurrentMap<String, Optional<FieldVisitor>>>() {
+        @Override
+        protected ConcurrentMap<String, Optional<FieldVisitor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> visitorClass;
+    private final FieldHandler[] fields;
+    private final FieldVisitor[] visitors;
+
+    private SpecializedTraverser(Class<?> visitorClass, FieldHandler[] fields, FieldVisitor[] visitors) {
+        this.visitorClass = visitorClass;
+        this.fields = fields;
+        this.visitors = visitors;
+    }
+
+    /**
+     * Returns the cached traverser of the plan for the visitor class or {@code null} if it can't be built
+     */
+    static SpecializedTraverser of(TraversalPlan plan, Class<? extends IMessageStructureVisitor> visitorClass) {
+        if (plan == null) {
+            throw new IllegalArgumentException("[plan] could not be null");
+        }
+        if (visitorClass == null) {
+            throw new IllegalArgumentException("[visitorClass] could not be null");
+        }
+
+        // the plan remembers the last traverser, so a plan used with a single visitor class skips the lookup
+        SpecializedTraverser last = plan.specialized;
+
+        if (last != null && last.visitorClass == visitorClass) {
+            return last;
+        }
+
+        ConcurrentMap<TraversalPlan, Optional<SpecializedTraverser>> traversers = TRAVERSERS.get(visitorClass);
+        Optional<SpecializedTraverser> traverser = traversers.get(plan);
+
+        if (traverser == null) {
+            traverser = Optional.ofNullable(build(plan, visitorClass));
+            traversers.putIfAbsent(plan, traverser);
+        }
+
+        traverser.ifPresent(value -> plan.specialized = value);
+        return traverser.orElse(null);
+    }
+
+    /**
+     * Visits fields of the message like {@link MessageStructureReader} does for the plan
+     * @param writeBack {@code true} if the converted values are put back to the message
+     */
+    void traverse(IMessageStructureVisitor visitor, IMessage message, IMessageStructureReaderHandler handler, boolean writeBack) {
+        IMessage target = writeBack ? message : null;
+
+        for (int i = 0; i < fields.length; i++) {
+            FieldHandler field = fields[i];
+            Object value = message.getField(field.getName());
+
+            try {
+                visit(field, visitors[i], visitor, target, handler, value);
+            } catch (RuntimeException e) {
+                throw new EPSCommonException("Travers problem for FieldName = " + field.getName() + ", FieldValue = " + message.getField(field.getName()), e);
+            }
+        }
+    }
+
+    private static void visit(FieldHandler field, FieldVisitor fieldVisitor, IMessageStructureVisitor visitor, IMessage target,
+            IMessageStructureReaderHandler handler, Object value) {
+        if (field.isComplex()) {
+            fieldVisitor.visit(visitor, field.getName(), value, field.getStructure(), false);
+            return;
+        }
+
+        boolean isDefault = false;
+
+        if (value == null) {
+            if (field.isRequiredWithoutDefault()) {
+                handler.onRequiredFieldAbsence(field.getStructure());
+            }
+
+            value = field.getDefaultValue();
+            isDefault = value != null;
+        }
+
+        try {
+            fieldVisitor.visit(visitor, field.getName(), field.convert(target, value, isDefault), field.getStructure(), isDefault);
+        } catch (ClassCastException e) {
+            throw new EPSCommonException(e.getMessage() + " fieldName = " + field.getName() + ", javaType = " + field.getJavaType(), e);
+        }
+    }
+
+    private static SpecializedTraverser build(TraversalPlan plan, Class<?> visitorClass) {
+        if (plan.size() > MAX_FIELDS || !isAccessible(visitorClass)) {
+            return null;
+        }
+
+        FieldHandler[] fields = new FieldHandler[plan.size()];
+        FieldVisitor[] visitors = new FieldVisitor[plan.size()];
+
+        for (int i = 0; i < fields.length; i++) {
+            FieldHandler field = plan.handler(i);
+            String methodName = field.getVisitorMethodName();
+
+            if (methodName == null) {
+                return null;
+            }
+
+            Class<?> valueType = field.getVisitorValueType();
+            Optional<FieldVisitor> fieldVisitor = FIELD_VISITORS.get(visitorClass)
+                    .computeIfAbsent(methodName + '(' + valueType.getName() + ')', key -> Optional.ofNullable(generate(visitorClass, methodName, valueType)));
+
+            if (!fieldVisitor.isPresent()) {
+                return null;
+            }
+
+            fields[i] = field;
+            visitors[i] = fieldVisitor.get();
+        }
+
+        return new SpecializedTraverser(visitorClass, fields, visitors);
+    }
+
+    /**
+     * Generated classes refer to the visitor class by name, so it must be public and resolvable from this class loader
+     */
+    private static boolean isAccessible(Class<?> visitorClass) {
+        if (!Modifier.isPublic(visitorClass.getModifiers())) {
+            return false;
+        }
+
+        try {
+            return Class.forName(visitorClass.getName(), false, SpecializedTraverser.class.getClassLoader()) == visitorClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static FieldVisitor generate(Class<?> visitorClass, String methodName, Class<?> valueType) {
+        try {
+            Method method = visitorClass.getMethod(methodName, String.class, valueType, IFieldStructure.class, boolean.class);
+
+            if (!isAccessible(method.getDeclaringClass())) {
+                return null;
+            }
+
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "visit", FACTORY_TYPE, VISIT_TYPE, LOOKUP.unreflect(method),
+                    MethodType.methodType(void.class, visitorClass, String.class, valueType, IFieldStructure.class, boolean.class));
+
+            return (FieldVisitor)site.getTarget().invoke();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            LOGGER.debug("Visitor method {}({}) of {} can't be specialized", methodName, valueType.getName(), visitorClass.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Call of a visitor method with the value of its exact type, implemented by the generated classes
+     */
+    @FunctionalInterface
+    interface FieldVisitor {
+        void visit(IMessageStructureVisitor visitor, String fieldName, Object value, IFieldStructure structure, boolean isDefault);
+    }
+}
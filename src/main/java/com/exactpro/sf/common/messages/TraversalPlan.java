@@ -0,0 +1,391 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.comparison.conversion.IConverter;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Fields of a structure compiled for {@link MessageStructureReader} into an array of {@link FieldHandler}.
+ * Each handler knows in advance the converter, the default value, the required flag and the visitor method of its field,
+ * so a traversal doesn't interpret the field structure again.
+ * <p>
+ * Plans are cached by the identity of the fields map, which is the same instance for each call of
+ * {@link com.exactpro.sf.common.messages.structures.IMessageStructure#getFields()}. The cache doesn't prevent structures from being garbage collected,
+ * cached plans can be dropped under memory pressure.
+ */
+public final class TraversalPlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraversalPlan.class);
+
+    // plans refer to their fields maps, so they are held softly to let the weak keys be collected
+    private static final Cache<Map<String, IFieldStructure>, TraversalPlan> PLANS = CacheBuilder.newBuilder().weakKeys().softValues().build();
+    private static final Map<JavaType, Binding<?>> BINDINGS = new EnumMap<>(JavaType.class);
+
+    static {
+        bind(JavaType.JAVA_LANG_BOOLEAN, Boolean.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitBooleanCollection, "visitBooleanCollection");
+        bind(JavaType.JAVA_LANG_SHORT, Short.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitShortCollection, "visitShortCollection");
+        bind(JavaType.JAVA_LANG_INTEGER, Integer.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitIntCollection, "visitIntCollection");
+        bind(JavaType.JAVA_LANG_LONG, Long.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitLongCollection, "visitLongCollection");
+        bind(JavaType.JAVA_LANG_BYTE, Byte.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitByteCollection, "visitByteCollection");
+        bind(JavaType.JAVA_LANG_FLOAT, Float.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitFloatCollection, "visitFloatCollection");
+        bind(JavaType.JAVA_LANG_DOUBLE, Double.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitDoubleCollection, "visitDoubleCollection");
+        bind(JavaType.JAVA_LANG_STRING, String.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitStringCollection, "visitStringCollection");
+        bind(JavaType.JAVA_TIME_LOCAL_DATE_TIME, LocalDateTime.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitDateTimeCollection, "visitDateTimeCollection");
+        bind(JavaType.JAVA_TIME_LOCAL_DATE, LocalDate.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitDateCollection, "visitDateCollection");
+        bind(JavaType.JAVA_TIME_LOCAL_TIME, LocalTime.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitTimeCollection, "visitTimeCollection");
+        bind(JavaType.JAVA_LANG_CHARACTER, Character.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitCharCollection, "visitCharCollection");
+        bind(JavaType.JAVA_MATH_BIG_DECIMAL, BigDecimal.class, IMessageStructureVisitor::visit, IMessageStructureVisitor::visitBigDecimalCollection, "visitBigDecimalCollection");
+    }
+
+    private final Map<String, IFieldStructure> fields;
+    private final FieldHandler[] handlers;
+    private final Map<String, FieldHandler> handlersByName;
+    /**
+     * Last traverser built for the plan, see {@link SpecializedTraverser#of(TraversalPlan, Class)}
+     */
+    volatile SpecializedTraverser specialized;
+
+    private TraversalPlan(Map<String, IFieldStructure> fields, TraversalPlan base) {
+        this.fields = fields;
+        this.handlers = new FieldHandler[fields.size()];
+        this.handlersByName = new HashMap<>(fields.size() * 2);
+
+        int index = 0;
+
+        for (Entry<String, IFieldStructure> entry : fields.entrySet()) {
+            FieldHandler handler = base != null ? base.handlersByName.get(entry.getKey()) : null;
+
+            if (handler == null || handler.structure != entry.getValue()) {
+                handler = new FieldHandler(entry.getKey(), entry.getValue());
+            }
+
+            handlers[index++] = handler;
+            handlersByName.put(entry.getKey(), handler);
+        }
+    }
+
+    /**
+     * Returns the cached plan of the fields or compiles a new one
+     */
+    public static TraversalPlan of(Map<String, IFieldStructure> fields) {
+        if (fields == null) {
+            throw new IllegalArgumentException("[fields] could not be null");
+        }
+
+        return cached(fields, null);
+    }
+
+    /**
+     * Returns the plan of other fields, e.g. the fields of this plan combined with unknown fields of a message.
+     * Handlers of this plan are reused for the same field structures.
+     */
+    public TraversalPlan derive(Map<String, IFieldStructure> fields) {
+        if (fields == null) {
+            throw new IllegalArgumentException("[fields] could not be null");
+        }
+        return fields == this.fields ? this : cached(fields, this);
+    }
+
+    private static TraversalPlan cached(Map<String, IFieldStructure> fields, TraversalPlan base) {
+        TraversalPlan plan = PLANS.getIfPresent(fields);
+
+        // the map is expected to be immutable, a changed size means it was modified after the plan was compiled
+        if (plan == null || plan.handlers.length != fields.size()) {
+            plan = new TraversalPlan(fields, base);
+            PLANS.put(fields, plan);
+        }
+
+        return plan;
+    }
+
+    /**
+     * Compiles a handler of a single field structure without caching
+     */
+    public static FieldHandler compile(String fieldName, IFieldStructure structure) {
+        return new FieldHandler(fieldName, structure);
+    }
+
+    public FieldHandler[] getHandlers() {
+        return handlers.clone();
+    }
+
+    public FieldHandler getHandler(String fieldName) {
+        return handlersByName.get(fieldName);
+    }
+
+    public int size() {
+        return handlers.length;
+    }
+
+    FieldHandler handler(int index) {
+        return handlers[index];
+    }
+
+    /**
+     * Converts the value and visits it like the {@code visitSimpleField} of {@link MessageStructureReader} does
+     * for a field of the type
+     * @param target message which the converted value is put back to, {@code null} if the value isn't put back
+     */
+    static void visitSimple(IMessageStructureVisitor visitor, IFieldStructure structure, JavaType javaType, IMessage target,
+            String fieldName, Object value, boolean isDefault) {
+        Binding<?> binding = javaType != null ? BINDINGS.get(javaType) : null;
+
+        if (binding == null) {
+            throw new EPSCommonException("Unknown FieldType = [" + javaType + "] for FieldName = [" + structure.getName() + "]");
+        }
+
+        try {
+            binding.visit(visitor, structure, structure.isCollection(), target, fieldName, value, isDefault);
+        } catch (ClassCastException e) {
+            throw new EPSCommonException(e.getMessage() + " fieldName = " + fieldName + ", javaType = " + javaType, e);
+        }
+    }
+
+    private static <T> void bind(JavaType javaType, Class<T> type, VisitorMethod<T> single, VisitorMethod<List<T>> collection,
+            String collectionMethod) {
+        BINDINGS.put(javaType, new Binding<>(type, MultiConverter.getConverter(type), single, collection, collectionMethod));
+    }
+
+    /**
+     * Precompiled traversal of a single field
+     */
+    public static final class FieldHandler {
+        private final String name;
+        private final IFieldStructure structure;
+        private final boolean complex;
+        private final boolean collection;
+        private final boolean requiredWithoutDefault;
+        private final boolean plainString;
+        private final JavaType javaType;
+        private final Object defaultValue;
+        private final Binding<?> binding;
+
+        private FieldHandler(String name, IFieldStructure structure) {
+            if (name == null) {
+                throw new IllegalArgumentException("[name] could not be null");
+            }
+            if (structure == null) {
+                throw new IllegalArgumentException("[structure] could not be null");
+            }
+
+            this.name = name;
+            this.structure = structure;
+            this.complex = structure.isComplex();
+            this.collection = structure.isCollection();
+
+            if (complex) {
+                this.requiredWithoutDefault = false;
+                this.plainString = false;
+                this.javaType = null;
+                this.defaultValue = null;
+                this.binding = null;
+                return;
+            }
+
+            Object defaultValue = structure.getDefaultValue();
+
+            if (defaultValue != null && collection && !(defaultValue instanceof List<?>)) {
+                LOGGER.warn("Incorrect default value for [{}] field", name);
+                this.defaultValue = null;
+            } else {
+                this.defaultValue = defaultValue;
+            }
+
+            this.requiredWithoutDefault = structure.isRequired() && defaultValue == null;
+            this.javaType = structure.getJavaType();
+            this.plainString = !collection && javaType == JavaType.JAVA_LANG_STRING;
+            this.binding = javaType != null ? BINDINGS.get(javaType) : null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public IFieldStructure getStructure() {
+            return structure;
+        }
+
+        public boolean isComplex() {
+            return complex;
+        }
+
+        public boolean isCollection() {
+            return collection;
+        }
+
+        /**
+         * Returns {@code true} if the field is a single string value, any other value is visited as its string representation
+         */
+        public boolean isPlainString() {
+            return plainString;
+        }
+
+        /**
+         * Returns {@code true} if absence of the field is reported to the handler
+         */
+        public boolean isRequiredWithoutDefault() {
+            return requiredWithoutDefault;
+        }
+
+        /**
+         * Returns the default value or {@code null} if it isn't set or is incorrect
+         */
+        public Object getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * Converts the value of the simple field and calls the visitor method of its type
+         * @param target message which the converted value is put back to, {@code null} if the value isn't put back
+         */
+        void visitSimple(IMessageStructureVisitor visitor, IMessage target, Object value, boolean isDefault) {
+            if (binding == null) {
+                throw new EPSCommonException("Unknown FieldType = [" + javaType + "] for FieldName = [" + structure.getName() + "]");
+            }
+
+            try {
+                binding.visit(visitor, structure, collection, target, name, value, isDefault);
+            } catch (ClassCastException e) {
+                throw new EPSCommonException(e.getMessage() + " fieldName = " + name + ", javaType = " + javaType, e);
+            }
+        }
+
+        /**
+         * Converts the value of the simple field to the java type of the field like {@link #visitSimple} does
+         * @param target message which the converted value is put back to, {@code null} if the value isn't put back
+         */
+        Object convert(IMessage target, Object value, boolean isDefault) {
+            if (binding == null) {
+                throw new EPSCommonException("Unknown FieldType = [" + javaType + "] for FieldName = [" + structure.getName() + "]");
+            }
+            return collection ? binding.convertCollection(target, name, value, isDefault) : binding.convert(target, name, value, isDefault);
+        }
+
+        /**
+         * Returns the name of the {@link IMessageStructureVisitor} method called for the field or {@code null} if the java type is unknown
+         */
+        String getVisitorMethodName() {
+            if (complex) {
+                return collection ? "visitMessageCollection" : "visit";
+            }
+            return binding == null ? null : collection ? binding.collectionMethod : "visit";
+        }
+
+        /**
+         * Returns the type of the value parameter of the visitor method or {@code null} if the java type is unknown
+         */
+        Class<?> getVisitorValueType() {
+            if (collection) {
+                return List.class;
+            }
+            if (complex) {
+                return IMessage.class;
+            }
+            return binding == null ? null : binding.type;
+        }
+
+        JavaType getJavaType() {
+            return javaType;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @FunctionalInterface
+    private interface VisitorMethod<T> {
+        void visit(IMessageStructureVisitor visitor, String fieldName, T value, IFieldStructure structure, boolean isDefault);
+    }
+
+    /**
+     * Converter and visitor methods of a java type
+     */
+    private static final class Binding<T> {
+        private final Class<T> type;
+        private final IConverter<T> converter;
+        private final VisitorMethod<T> single;
+        private final VisitorMethod<List<T>> collection;
+        private final String collectionMethod;
+
+        private Binding(Class<T> type, IConverter<T> converter, VisitorMethod<T> single, VisitorMethod<List<T>> collection,
+                String collectionMethod) {
+            this.type = type;
+            this.converter = converter;
+            this.single = single;
+            this.collection = collection;
+            this.collectionMethod = collectionMethod;
+        }
+
+        private void visit(IMessageStructureVisitor visitor, IFieldStructure structure, boolean isCollection, IMessage target,
+                String fieldName, Object value, boolean isDefault) {
+            if (isCollection) {
+                collection.visit(visitor, fieldName, convertCollection(target, fieldName, value, isDefault), structure, isDefault);
+            } else {
+                single.visit(visitor, fieldName, convert(target, fieldName, value, isDefault), structure, isDefault);
+            }
+        }
+
+        private T convert(IMessage target, String fieldName, Object value, boolean isDefault) {
+            T convertedValue = converter.convert(value);
+            // converters return the same instance if value already has the required type,
+            // so writing it back would only replace an unboxed value of ITypedMessage with a boxed one
+            if (target != null && !isDefault && convertedValue != value) {
+                target.addField(fieldName, convertedValue);
+            }
+            return convertedValue;
+        }
+
+        private List<T> convertCollection(IMessage target, String fieldName, Object value, boolean isDefault) {
+            List<T> convertedCollection = null;
+
+            if (value != null) {
+                Collection<?> values = (Collection<?>)value;
+                convertedCollection = new ArrayList<>(values.size());
+
+                for (Object element : values) {
+                    convertedCollection.add(converter.convert(element));
+                }
+            }
+
+            if (target != null && !isDefault) {
+                target.addField(fieldName, convertedCollection);
+            }
+            return convertedCollection;
+        }
+    }
+}
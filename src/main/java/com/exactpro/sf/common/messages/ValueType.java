@@ -0,0 +1,221 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IFieldInfo.FieldType;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.comparison.conversion.MultiConverter;
+
+/**
+ * Classification of field values by their runtime class: {@link JavaType}, {@link FieldType}, collection flag and conversion.
+ * The classification of each class is computed once and cached in a {@link ClassValue},
+ * so type dispatch costs a single lookup without string comparisons or exceptions.
+ */
+public final class ValueType {
+    private static final Map<Class<?>, FieldType> FIELD_TYPES = new LinkedHashMap<>();
+    private static final Map<JavaType, Class<?>> JAVA_CLASSES = new EnumMap<>(JavaType.class);
+    private static final Map<Class<?>, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        FIELD_TYPES.put(Boolean.class, FieldType.BOOLEAN);
+        FIELD_TYPES.put(Short.class, FieldType.SHORT);
+        FIELD_TYPES.put(Integer.class, FieldType.INT);
+        FIELD_TYPES.put(Long.class, FieldType.LONG);
+        FIELD_TYPES.put(Byte.class, FieldType.BYTE);
+        FIELD_TYPES.put(Float.class, FieldType.FLOAT);
+        FIELD_TYPES.put(Double.class, FieldType.DOUBLE);
+        FIELD_TYPES.put(String.class, FieldType.STRING);
+        FIELD_TYPES.put(LocalDateTime.class, FieldType.DATE_TIME);
+        FIELD_TYPES.put(LocalDate.class, FieldType.DATE);
+        FIELD_TYPES.put(LocalTime.class, FieldType.TIME);
+        FIELD_TYPES.put(Character.class, FieldType.CHAR);
+        FIELD_TYPES.put(BigDecimal.class, FieldType.DECIMAL);
+
+        PRIMITIVES.put(boolean.class, Boolean.class);
+        PRIMITIVES.put(short.class, Short.class);
+        PRIMITIVES.put(int.class, Integer.class);
+        PRIMITIVES.put(long.class, Long.class);
+        PRIMITIVES.put(byte.class, Byte.class);
+        PRIMITIVES.put(float.class, Float.class);
+        PRIMITIVES.put(double.class, Double.class);
+        PRIMITIVES.put(char.class, Character.class);
+
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_BOOLEAN, Boolean.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_SHORT, Short.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_INTEGER, Integer.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_LONG, Long.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_BYTE, Byte.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_FLOAT, Float.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_DOUBLE, Double.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_STRING, String.class);
+        JAVA_CLASSES.put(JavaType.JAVA_TIME_LOCAL_DATE_TIME, LocalDateTime.class);
+        JAVA_CLASSES.put(JavaType.JAVA_TIME_LOCAL_DATE, LocalDate.class);
+        JAVA_CLASSES.put(JavaType.JAVA_TIME_LOCAL_TIME, LocalTime.class);
+        JAVA_CLASSES.put(JavaType.JAVA_LANG_CHARACTER, Character.class);
+        JAVA_CLASSES.put(JavaType.JAVA_MATH_BIG_DECIMAL, BigDecimal.class);
+    }
+
+    private static final ClassValue<ValueType> TYPES = new ClassValue<ValueType>() {
+        @Override
+        protected ValueType computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final JavaType javaType;
+    private final FieldType fieldType;
+    private final boolean collection;
+
+    private ValueType(Class<?> type, JavaType javaType, FieldType fieldType, boolean collection) {
+        this.type = type;
+        this.javaType = javaType;
+        this.fieldType = fieldType;
+        this.collection = collection;
+    }
+
+    public static ValueType of(Class<?> type) {
+        return TYPES.get(type);
+    }
+
+    /**
+     * @throws NullPointerException if the value is {@code null}
+     */
+    public static ValueType of(Object value) {
+        return TYPES.get(value.getClass());
+    }
+
+    /**
+     * Returns the class of values of the Java type
+     */
+    public static Class<?> javaClass(JavaType javaType) {
+        return JAVA_CLASSES.get(javaType);
+    }
+
+    /**
+     * Returns the Java type if the class is exactly one of the {@link JavaType} classes, otherwise {@code null}
+     */
+    public JavaType getJavaType() {
+        return javaType;
+    }
+
+    /**
+     * Returns the Java type like {@link JavaType#fromValue(String)} does for the name of the class
+     * @throws IllegalArgumentException if the class isn't one of the {@link JavaType} classes
+     */
+    public JavaType requireJavaType() {
+        if (javaType == null) {
+            throw new IllegalArgumentException(type.getName());
+        }
+        return javaType;
+    }
+
+    /**
+     * Returns the field type of the value or an array element, {@link FieldType#SUBMESSAGE} for messages
+     * and {@code null} for lists and unsupported classes. Subclasses get the type of their supported superclass.
+     */
+    public FieldType getFieldType() {
+        return fieldType;
+    }
+
+    /**
+     * Returns {@code true} for lists and arrays
+     */
+    public boolean isCollection() {
+        return collection;
+    }
+
+    public boolean isMessage() {
+        return fieldType == FieldType.SUBMESSAGE;
+    }
+
+    /**
+     * Converts the value to the class of this type using {@link MultiConverter}
+     * @throws EPSCommonException if the class isn't one of the {@link JavaType} classes
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T convert(Object value) {
+        if (javaType == null) {
+            throw new EPSCommonException("No converter for type: " + type.getName());
+        }
+        return type.isInstance(value) ? (T)value : (T)MultiConverter.convert(value, type);
+    }
+
+    @Override
+    public String toString() {
+        return type.getName();
+    }
+
+    private static ValueType classify(Class<?> type) {
+        if (IMessage.class.isAssignableFrom(type)) {
+            return new ValueType(type, null, FieldType.SUBMESSAGE, false);
+        }
+
+        if (List.class.isAssignableFrom(type)) {
+            return new ValueType(type, null, null, true);
+        }
+
+        if (type.isArray()) {
+            // arrays of primitives are supported, but not arrays of their wrappers
+            Class<?> componentType = type.getComponentType();
+            FieldType fieldType = null;
+
+            if (componentType.isPrimitive()) {
+                fieldType = fieldType(box(componentType));
+            } else if (!PRIMITIVES.containsValue(componentType)) {
+                fieldType = fieldType(componentType);
+            }
+
+            return new ValueType(type, null, fieldType, fieldType != null);
+        }
+
+        JavaType javaType = null;
+
+        for (Entry<JavaType, Class<?>> entry : JAVA_CLASSES.entrySet()) {
+            if (entry.getValue() == type) {
+                javaType = entry.getKey();
+                break;
+            }
+        }
+
+        return new ValueType(type, javaType, fieldType(type), false);
+    }
+
+    private static FieldType fieldType(Class<?> type) {
+        for (Entry<Class<?>, FieldType> entry : FIELD_TYPES.entrySet()) {
+            if (entry.getKey().isAssignableFrom(type)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> primitive) {
+        return PRIMITIVES.getOrDefault(primitive, primitive);
+    }
+}
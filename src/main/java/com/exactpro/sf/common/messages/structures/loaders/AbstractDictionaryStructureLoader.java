@@ -49,6 +49,7 @@ import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
 import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
 import com.exactpro.sf.common.messages.structures.impl.MessageStructurePromise;
 import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.common.util.SymbolTable;
 // import com.sun.istack.NotNull;
 
 /**
@@ -117,7 +118,9 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
 
     public IDictionaryStructure convert(IDictionary dictionary) throws EPSCommonException {
 
-        StructureBuilder builder = initStructureBuilder(dictionary.getName());
+        // names are interned, so the structures of all dictionaries and the messages share the same instances
+        String namespace = SymbolTable.intern(dictionary.getName());
+        StructureBuilder builder = initStructureBuilder(namespace);
 
         for (IField field : dictionary.getFields()) {
 
@@ -141,8 +144,8 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
                 IFieldStructure fieldStructure = createFieldStructure(
                         field, true,
                         field.getId(),
-                        field.getName(),
-                        dictionary.getName(),
+                        SymbolTable.intern(field.getName()),
+                        namespace,
                         field.getDescription(),
                         javaType,
                         field.isRequired(),
@@ -185,7 +188,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
             IMessage msg = messages.get(i++);
 
             if (builder.getMessageStructure(msg.getName()) == null) {
-                convertMessage(dictionary.getName(), builder, msg);
+                convertMessage(namespace, builder, msg);
             }
 
             startRecursionMessageName = null;
@@ -195,7 +198,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
 
         Map<String, IAttributeStructure> dictAttributes = getDictionaryAttributes(dictionary);
 
-        return createDictionaryStructure(dictionary.getName(), dictionary.getDescription(), dictAttributes,
+        return createDictionaryStructure(namespace, dictionary.getDescription(), dictAttributes,
                 builder.getMsgStructureMap(), builder.getFieldStructureMap());
     }
 
@@ -259,7 +262,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
         return createMessageStructure(
                 message,
                 message.getId(),
-                message.getName(),
+                SymbolTable.intern(message.getName()),
                 namespace,
                 message.getDescription(),
                 message.isRequired(),
@@ -273,7 +276,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
     protected IFieldStructure createFieldStructure(IField field, boolean isTemplate, String id, String name, String namespace,
                                                    String description, JavaType javaType, Boolean isRequired, Boolean isCollection, Boolean isServiceName, String defaultValue) {
 
-        String referenceName = field.getReference() != null ? field.getReference().getName() : null;
+        String referenceName = field.getReference() != null ? SymbolTable.intern(field.getReference().getName()) : null;
 
         try {
             Map<String, ? extends IAttributeStructure> attributes = getAttributes(field, false, null);
@@ -349,7 +352,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
                     fieldStructure = convertMessageInternal(namespace, builder, (IMessage)field, null);
                 } else {
                     fieldStructure = createMessageStructure((IMessage)field.getReference(), field, field.getId(),
-                            field.getName(), namespace, field.getDescription(), field.isRequired(), field.isIsCollection(), struct);
+                            SymbolTable.intern(field.getName()), namespace, field.getDescription(), field.isRequired(), field.isIsCollection(), struct);
                 }
 
             } else {
@@ -366,7 +369,7 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
                 fieldStructure = createFieldStructure(
                         field, false,
                         field.getId(),
-                        field.getName(),
+                        SymbolTable.intern(field.getName()),
                         namespace,
                         field.getDescription(),
                         javaType,
@@ -454,8 +457,9 @@ public abstract class AbstractDictionaryStructureLoader implements IDictionarySt
         for (IAttribute attribute : attributes) {
             Object value = getAttributeValue(attribute, javaType);
 
-            result.put(attribute.getName(),
-                    createAttributeStructure(attribute.getName(), attribute.getValue(), value, isValues ? javaType : defaultIfNull(attribute.getType(), JavaType.JAVA_LANG_STRING)));
+            String name = SymbolTable.intern(attribute.getName());
+            result.put(name,
+                    createAttributeStructure(name, attribute.getValue(), value, isValues ? javaType : defaultIfNull(attribute.getType(), JavaType.JAVA_LANG_STRING)));
         }
         return result;
     }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Generator which leases blocks of values from a shared counter to each thread,
+ * so the shared counter is touched once per block instead of once per value.
+ * <p>
+ * Values are unique and increasing within a thread, but values of different threads interleave
+ * in the order of leasing rather than in the order of calls.
+ * <p>
+ * If a {@link IHighWaterMarkStore} is set, the generator starts after the stored mark and stores a new mark
+ * in advance of the leased values, so values aren't repeated after a restart.
+ * <p>
+ * Leased values which aren't used are skipped: the unused rest of a block of a terminated thread,
+ * of a discarded generator or of a restarted application is never returned to the counter or to the store,
+ * so the values have gaps.
+ * <p>
+ * Blocks are owned by the generator and are weakly bound to their threads, so a discarded generator
+ * doesn't leave its blocks on the threads of a pool.
+ */
+public class BlockIdGenerator implements IIdGenerator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int STORE_STEP_BLOCKS = 1024;
+
+    private final AtomicLong counter;
+    private final int blockSize;
+    private final IHighWaterMarkStore store;
+    private final long storeStep;
+    private final ConcurrentMap<Thread, Block> blocks = new MapMaker().weakKeys().makeMap();
+
+    private volatile long storedMark;
+
+    public BlockIdGenerator(long start) {
+        this(start, DEFAULT_BLOCK_SIZE, null);
+    }
+
+    /**
+     * @param start first value if the store is absent or empty
+     * @param blockSize number of values leased to a thread at once
+     * @param store storage of the high-water mark, can be {@code null}
+     */
+    public BlockIdGenerator(long start, int blockSize, IHighWaterMarkStore store) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+
+        this.blockSize = blockSize;
+        this.store = store;
+        this.storeStep = (long)blockSize * STORE_STEP_BLOCKS;
+
+        if (store != null) {
+            start = Math.max(start, store.load());
+            this.storedMark = start;
+        }
+
+        this.counter = new AtomicLong(start);
+    }
+
+    @Override
+    public long next() {
+        Block block = currentBlock();
+
+        if (block.next == block.limit) {
+            block.next = lease(blockSize);
+            block.limit = block.next + blockSize;
+        }
+
+        return block.next++;
+    }
+
+    /**
+     * Small reservations are taken from the block of the current thread, large ones are leased directly
+     */
+    @Override
+    public long reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+
+        Block block = currentBlock();
+
+        if (block.limit - block.next < count) {
+            if (count >= blockSize) {
+                return lease(count);
+            }
+
+            block.next = lease(blockSize);
+            block.limit = block.next + blockSize;
+        }
+
+        long first = block.next;
+        block.next += count;
+        return first;
+    }
+
+    private Block currentBlock() {
+        Thread thread = Thread.currentThread();
+        Block block = blocks.get(thread);
+
+        if (block == null) {
+            block = new Block();
+            blocks.put(thread, block);
+        }
+
+        return block;
+    }
+
+    private long lease(int count) {
+        long first = counter.getAndAdd(count);
+
+        if (store != null && first + count > storedMark) {
+            storeMark(first + count);
+        }
+
+        return first;
+    }
+
+    private synchronized void storeMark(long limit) {
+        if (limit > storedMark) {
+            long mark = limit + storeStep;
+            store.store(mark);
+            storedMark = mark;
+        }
+    }
+
+    private static class Block {
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the high-water mark in a local text file. The file is replaced atomically on each update.
+ */
+public class FileHighWaterMarkStore implements IHighWaterMarkStore {
+    private final Path path;
+    private final Path tempPath;
+
+    public FileHighWaterMarkStore(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("[path] could not be null");
+        }
+        this.path = path.toAbsolutePath();
+        this.tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    }
+
+    @Override
+    public long load() {
+        if (!Files.exists(path)) {
+            return Long.MIN_VALUE;
+        }
+
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new EPSCommonException("Failed to read high-water mark from " + path, e);
+        }
+    }
+
+    @Override
+    public void store(long mark) {
+        try {
+            Files.write(tempPath, Long.toString(mark).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new EPSCommonException("Failed to store high-water mark to " + path, e);
+        }
+    }
+}
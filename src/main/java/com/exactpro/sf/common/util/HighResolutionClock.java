@@ -0,0 +1,71 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import java.time.Instant;
+
+/**
+ * Clock with nanosecond resolution based on {@link System#nanoTime()} which is anchored to the wall clock on creation.
+ * Values are monotonic but can drift from the wall clock, so the clock is re-anchored
+ * when the distance from the anchor exceeds the resync interval.
+ */
+public class HighResolutionClock implements IClock {
+    public static final long DEFAULT_RESYNC_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final long resyncIntervalNanos;
+    private volatile Anchor anchor;
+
+    public HighResolutionClock() {
+        this(DEFAULT_RESYNC_INTERVAL_NANOS);
+    }
+
+    public HighResolutionClock(long resyncIntervalNanos) {
+        if (resyncIntervalNanos <= 0) {
+            throw new IllegalArgumentException("resyncIntervalNanos must be positive: " + resyncIntervalNanos);
+        }
+        this.resyncIntervalNanos = resyncIntervalNanos;
+        this.anchor = new Anchor(Long.MIN_VALUE);
+    }
+
+    @Override
+    public long epochNanos() {
+        Anchor current = anchor;
+        long elapsed = System.nanoTime() - current.nanoTime;
+
+        if (elapsed >= resyncIntervalNanos) {
+            long previous = current.epochNanos + elapsed;
+            current = new Anchor(previous);
+            anchor = current;
+            elapsed = System.nanoTime() - current.nanoTime;
+        }
+
+        return current.epochNanos + elapsed;
+    }
+
+    private static class Anchor {
+        private final long epochNanos;
+        private final long nanoTime;
+
+        /**
+         * @param notBefore the anchor doesn't go back in time beyond this value
+         */
+        private Anchor(long notBefore) {
+            Instant now = Instant.now();
+            this.nanoTime = System.nanoTime();
+            this.epochNanos = Math.max(now.getEpochSecond() * 1_000_000_000L + now.getNano(), notBefore);
+        }
+    }
+}
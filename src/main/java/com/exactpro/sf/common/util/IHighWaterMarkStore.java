@@ -0,0 +1,32 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+/**
+ * Persistent storage of the high-water mark of an {@link IIdGenerator},
+ * so values issued before a restart aren't issued again.
+ */
+public interface IHighWaterMarkStore {
+    /**
+     * Returns the stored mark or {@link Long#MIN_VALUE} if nothing is stored yet
+     */
+    long load();
+
+    /**
+     * Stores the mark, all values issued by the generator are less than it
+     */
+    void store(long mark);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+/**
+ * Source of unique increasing values, e.g. message ids and sequences.
+ * Implementations must be thread-safe.
+ */
+public interface IIdGenerator {
+    /**
+     * Returns the next value
+     */
+    long next();
+
+    /**
+     * Reserves {@code count} consecutive values at once
+     * @return the first reserved value
+     */
+    long reserve(int count);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Global table of the names of namespaces, messages and fields.
+ * Each name is mapped to a canonical instance, so the names taken from the dictionaries can be compared by identity
+ * and the messages created with equal names share the same instances.
+ * <p>
+ * The table keeps the names weakly: a name is dropped as soon as it is not referenced anymore,
+ * e.g. when its dictionary is unloaded, so the table doesn't grow with the names of arbitrary messages.
+ */
+public final class SymbolTable {
+    private static final Interner<String> SYMBOLS = Interners.newWeakInterner();
+
+    private SymbolTable() {
+    }
+
+    /**
+     * Returns the canonical instance of the name and registers it if it is new
+     */
+    public static String intern(String name) {
+        return name != null ? SYMBOLS.intern(name) : null;
+    }
+}
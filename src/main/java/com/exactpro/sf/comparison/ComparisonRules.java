@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.comparison;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-field rules of {@link MessageComparator}. Rules are bound to field names and apply on all levels of a message.
+ * The comparator copies the rules on creation, so later changes don't affect it.
+ */
+public class ComparisonRules {
+    /**
+     * Scale value which means that decimals are compared exactly
+     */
+    public static final int EXACT_SCALE = -1;
+
+    private final Set<String> ignoredFields = new HashSet<>();
+    private final Map<String, Integer> decimalScales = new HashMap<>();
+    private final Map<String, Double> epsilons = new HashMap<>();
+    private int defaultDecimalScale = EXACT_SCALE;
+    private double defaultEpsilon;
+
+    public ComparisonRules() {
+    }
+
+    public ComparisonRules(ComparisonRules rules) {
+        ignoredFields.addAll(rules.ignoredFields);
+        decimalScales.putAll(rules.decimalScales);
+        epsilons.putAll(rules.epsilons);
+        defaultDecimalScale = rules.defaultDecimalScale;
+        defaultEpsilon = rules.defaultEpsilon;
+    }
+
+    /**
+     * Excludes the fields from comparison
+     */
+    public ComparisonRules ignore(Collection<String> fieldNames) {
+        ignoredFields.addAll(fieldNames);
+        return this;
+    }
+
+    public ComparisonRules ignore(String... fieldNames) {
+        for (String fieldName : fieldNames) {
+            ignoredFields.add(fieldName);
+        }
+        return this;
+    }
+
+    /**
+     * Decimals of the field are rounded half up to the scale before comparison
+     */
+    public ComparisonRules decimalScale(String fieldName, int scale) {
+        decimalScales.put(fieldName, checkScale(scale));
+        return this;
+    }
+
+    public ComparisonRules defaultDecimalScale(int scale) {
+        defaultDecimalScale = checkScale(scale);
+        return this;
+    }
+
+    /**
+     * Floating point values of the field are equal if their difference doesn't exceed the epsilon
+     */
+    public ComparisonRules epsilon(String fieldName, double epsilon) {
+        epsilons.put(fieldName, checkEpsilon(epsilon));
+        return this;
+    }
+
+    public ComparisonRules defaultEpsilon(double epsilon) {
+        defaultEpsilon = checkEpsilon(epsilon);
+        return this;
+    }
+
+    public boolean isIgnored(String fieldName) {
+        return ignoredFields.contains(fieldName);
+    }
+
+    public int getDecimalScale(String fieldName) {
+        return decimalScales.getOrDefault(fieldName, defaultDecimalScale);
+    }
+
+    public double getEpsilon(String fieldName) {
+        return epsilons.getOrDefault(fieldName, defaultEpsilon);
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < EXACT_SCALE) {
+            throw new IllegalArgumentException("Invalid decimal scale: " + scale);
+        }
+        return scale;
+    }
+
+    private static double checkEpsilon(double epsilon) {
+        if (!(epsilon >= 0)) {
+            throw new IllegalArgumentException("Invalid epsilon: " + epsilon);
+        }
+        return epsilon;
+    }
+}
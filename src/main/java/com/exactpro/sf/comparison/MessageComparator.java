@@ -0,0 +1,417 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.comparison;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.IMessageFactory;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+
+/**
+ * Compares messages of the same structure. A comparison plan is compiled once per structure:
+ * ignored fields are dropped and comparison rules are resolved for each field, so the comparison itself
+ * doesn't look up the rules and the structure.
+ * <p>
+ * Fields which aren't described in the structure are compared by their values.
+ * The comparator is thread-safe.
+ */
+public class MessageComparator {
+    private final ComparisonRules rules;
+    private final ConcurrentMap<Object, Plan> plans = new ConcurrentHashMap<>();
+
+    public MessageComparator(ComparisonRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("[rules] could not be null");
+        }
+        this.rules = new ComparisonRules(rules);
+    }
+
+    /**
+     * Creates a comparator which ignores {@link IMessageFactory#getIgnoredFields()}
+     */
+    public MessageComparator(IMessageFactory messageFactory) {
+        this(new ComparisonRules().ignore(messageFactory.getIgnoredFields()));
+    }
+
+    /**
+     * Returns {@code true} if the messages are equal. The comparison stops at the first mismatch
+     */
+    public boolean compare(IMessageStructure structure, IMessage expected, IMessage actual) {
+        checkArguments(structure, expected, actual);
+        return compareMessages(getPlan(structure), expected, actual, null, null);
+    }
+
+    /**
+     * Compares the messages completely and returns all mismatches, the result is empty if the messages are equal
+     */
+    public List<Mismatch> diff(IMessageStructure structure, IMessage expected, IMessage actual) {
+        checkArguments(structure, expected, actual);
+        List<Mismatch> mismatches = new ArrayList<>();
+        compareMessages(getPlan(structure), expected, actual, "", mismatches);
+        return mismatches;
+    }
+
+    private static void checkArguments(IMessageStructure structure, IMessage expected, IMessage actual) {
+        if (structure == null) {
+            throw new IllegalArgumentException("[structure] could not be null");
+        }
+        if (expected == null) {
+            throw new IllegalArgumentException("[expected] could not be null");
+        }
+        if (actual == null) {
+            throw new IllegalArgumentException("[actual] could not be null");
+        }
+    }
+
+    private Plan getPlan(Object key) {
+        Plan plan = plans.get(key);
+        return plan != null ? plan : plans.computeIfAbsent(key, this::compile);
+    }
+
+    private Plan compile(Object key) {
+        Map<String, IFieldStructure> fields = key instanceof IMessageStructure
+                ? ((IMessageStructure)key).getFields()
+                : ((IFieldStructure)key).getFields();
+        List<FieldPlan> fieldPlans = new ArrayList<>(fields.size());
+
+        for (IFieldStructure field : fields.values()) {
+            if (!rules.isIgnored(field.getName())) {
+                fieldPlans.add(new FieldPlan(field, rules));
+            }
+        }
+
+        return new Plan(fields, fieldPlans.toArray(new FieldPlan[0]));
+    }
+
+    /**
+     * @param path path of the message in diff mode or {@code null} in early exit mode
+     */
+    private boolean compareMessages(Plan plan, IMessage expected, IMessage actual, String path, List<Mismatch> mismatches) {
+        if (!Objects.equals(expected.getName(), actual.getName()) || !Objects.equals(expected.getNamespace(), actual.getNamespace())) {
+            return mismatch(path, "", expected.getNamespace() + ':' + expected.getName(),
+                    actual.getNamespace() + ':' + actual.getName(), mismatches);
+        }
+
+        boolean equal = true;
+        int presentExpected = 0;
+        int presentActual = 0;
+
+        for (FieldPlan field : plan.fields) {
+            Object valueExpected = expected.getField(field.name);
+            Object valueActual = actual.getField(field.name);
+
+            if (valueExpected != null) {
+                presentExpected++;
+            }
+
+            if (valueActual != null) {
+                presentActual++;
+            }
+
+            if (valueExpected == valueActual) {
+                continue;
+            }
+
+            if (!compareField(field, valueExpected, valueActual, path, mismatches)) {
+                if (mismatches == null) {
+                    return false;
+                }
+                equal = false;
+            }
+        }
+
+        // the messages can contain unknown fields only if they have more fields than found by the plan
+        if (plan.hasIgnoredFields || expected.getFieldCount() != presentExpected) {
+            equal &= compareUnknownFields(plan, expected, actual, path, mismatches, false);
+
+            if (!equal && mismatches == null) {
+                return false;
+            }
+        }
+
+        if (plan.hasIgnoredFields || actual.getFieldCount() != presentActual) {
+            equal &= compareUnknownFields(plan, actual, expected, path, mismatches, true);
+        }
+
+        return equal;
+    }
+
+    /**
+     * Compares fields which aren't described in the structure
+     * @param missingOnly only reports the fields of the first message which are absent in the second one
+     */
+    private boolean compareUnknownFields(Plan plan, IMessage first, IMessage second, String path, List<Mismatch> mismatches, boolean missingOnly) {
+        boolean equal = true;
+
+        for (String fieldName : first.getFieldNames()) {
+            if (plan.structureFields.containsKey(fieldName) || rules.isIgnored(fieldName)) {
+                continue;
+            }
+
+            Object value = first.getField(fieldName);
+            Object other = second.getField(fieldName);
+
+            if (missingOnly ? other == null && value != null : !compareValues(value, other)) {
+                Object expected = missingOnly ? other : value;
+                Object actual = missingOnly ? value : other;
+
+                if (!mismatch(path, fieldName, expected, actual, mismatches)) {
+                    if (mismatches == null) {
+                        return false;
+                    }
+                    equal = false;
+                }
+            }
+        }
+
+        return equal;
+    }
+
+    private boolean compareField(FieldPlan field, Object expected, Object actual, String path, List<Mismatch> mismatches) {
+        if (expected == null || actual == null) {
+            return mismatch(path, field.name, expected, actual, mismatches);
+        }
+
+        if (!field.collection) {
+            return compareElement(field, expected, actual, path, field.name, mismatches);
+        }
+
+        if (!(expected instanceof List<?>) || !(actual instanceof List<?>)) {
+            return compareValues(expected, actual) || mismatch(path, field.name, expected, actual, mismatches);
+        }
+
+        List<?> listExpected = (List<?>)expected;
+        List<?> listActual = (List<?>)actual;
+
+        if (listExpected.size() != listActual.size()) {
+            return mismatch(path, field.name + ".size", listExpected.size(), listActual.size(), mismatches);
+        }
+
+        boolean equal = true;
+
+        for (int i = 0; i < listExpected.size(); i++) {
+            Object elementExpected = listExpected.get(i);
+            Object elementActual = listActual.get(i);
+            String elementName = mismatches != null ? field.name + '[' + i + ']' : null;
+
+            boolean elementEqual = elementExpected == null || elementActual == null
+                    ? elementExpected == elementActual || mismatch(path, elementName, elementExpected, elementActual, mismatches)
+                    : compareElement(field, elementExpected, elementActual, path, elementName, mismatches);
+
+            if (!elementEqual) {
+                if (mismatches == null) {
+                    return false;
+                }
+                equal = false;
+            }
+        }
+
+        return equal;
+    }
+
+    private boolean compareElement(FieldPlan field, Object expected, Object actual, String path, String name, List<Mismatch> mismatches) {
+        switch (field.kind) {
+        case MESSAGE:
+            if (expected instanceof IMessage && actual instanceof IMessage) {
+                String subPath = mismatches != null ? concat(path, name) : null;
+                return compareMessages(getPlan(field.structure), (IMessage)expected, (IMessage)actual, subPath, mismatches);
+            }
+            break;
+        case DECIMAL:
+            if (field.scale != ComparisonRules.EXACT_SCALE && expected instanceof BigDecimal && actual instanceof BigDecimal) {
+                BigDecimal decimalExpected = ((BigDecimal)expected).setScale(field.scale, RoundingMode.HALF_UP);
+                BigDecimal decimalActual = ((BigDecimal)actual).setScale(field.scale, RoundingMode.HALF_UP);
+                return decimalExpected.compareTo(decimalActual) == 0 || mismatch(path, name, expected, actual, mismatches);
+            }
+            break;
+        case DOUBLE:
+            if (field.epsilon > 0 && expected instanceof Double && actual instanceof Double) {
+                return Math.abs((Double)expected - (Double)actual) <= field.epsilon || expected.equals(actual)
+                        || mismatch(path, name, expected, actual, mismatches);
+            }
+            break;
+        case FLOAT:
+            if (field.epsilon > 0 && expected instanceof Float && actual instanceof Float) {
+                return Math.abs((Float)expected - (Float)actual) <= field.epsilon || expected.equals(actual)
+                        || mismatch(path, name, expected, actual, mismatches);
+            }
+            break;
+        default:
+            break;
+        }
+
+        return compareValues(expected, actual) || mismatch(path, name, expected, actual, mismatches);
+    }
+
+    /**
+     * Compares values the same way as {@link IMessage#compare(IMessage)}: types must match and decimals are compared ignoring scale
+     */
+    private static boolean compareValues(Object expected, Object actual) {
+        if (expected == actual) {
+            return true;
+        }
+
+        if (expected == null || actual == null || expected.getClass() != actual.getClass()) {
+            return expected instanceof IMessage && actual instanceof IMessage && ((IMessage)expected).compare((IMessage)actual)
+                    || expected instanceof List<?> && actual instanceof List<?> && compareLists((List<?>)expected, (List<?>)actual);
+        }
+
+        if (expected instanceof BigDecimal) {
+            return ((BigDecimal)expected).compareTo((BigDecimal)actual) == 0;
+        }
+
+        if (expected instanceof IMessage) {
+            return ((IMessage)expected).compare((IMessage)actual);
+        }
+
+        if (expected instanceof List<?>) {
+            return compareLists((List<?>)expected, (List<?>)actual);
+        }
+
+        return expected.equals(actual);
+    }
+
+    private static boolean compareLists(List<?> expected, List<?> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            if (!compareValues(expected.get(i), actual.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the mismatch in diff mode
+     * @return always {@code false}
+     */
+    private static boolean mismatch(String path, String name, Object expected, Object actual, List<Mismatch> mismatches) {
+        if (mismatches != null) {
+            mismatches.add(new Mismatch(concat(path, name), expected, actual));
+        }
+        return false;
+    }
+
+    private static String concat(String path, String name) {
+        if (path.isEmpty()) {
+            return name;
+        }
+        return name.isEmpty() ? path : path + '.' + name;
+    }
+
+    private enum Kind {
+        MESSAGE,
+        DECIMAL,
+        DOUBLE,
+        FLOAT,
+        VALUE
+    }
+
+    private static class Plan {
+        private final Map<String, IFieldStructure> structureFields;
+        private final FieldPlan[] fields;
+        private final boolean hasIgnoredFields;
+
+        private Plan(Map<String, IFieldStructure> structureFields, FieldPlan[] fields) {
+            this.structureFields = structureFields;
+            this.fields = fields;
+            this.hasIgnoredFields = fields.length != structureFields.size();
+        }
+    }
+
+    private static class FieldPlan {
+        private final String name;
+        private final IFieldStructure structure;
+        private final Kind kind;
+        private final boolean collection;
+        private final int scale;
+        private final double epsilon;
+
+        private FieldPlan(IFieldStructure structure, ComparisonRules rules) {
+            this.name = structure.getName();
+            this.structure = structure;
+            this.kind = kind(structure);
+            this.collection = structure.isCollection();
+            this.scale = rules.getDecimalScale(name);
+            this.epsilon = rules.getEpsilon(name);
+        }
+
+        private static Kind kind(IFieldStructure structure) {
+            if (structure.isComplex()) {
+                return Kind.MESSAGE;
+            }
+
+            JavaType javaType = structure.getJavaType();
+
+            if (javaType == JavaType.JAVA_MATH_BIG_DECIMAL) {
+                return Kind.DECIMAL;
+            } else if (javaType == JavaType.JAVA_LANG_DOUBLE) {
+                return Kind.DOUBLE;
+            } else if (javaType == JavaType.JAVA_LANG_FLOAT) {
+                return Kind.FLOAT;
+            }
+
+            return Kind.VALUE;
+        }
+    }
+
+    /**
+     * Difference of the field values. Path consists of the field names separated by dots,
+     * elements of the collections are referred by their indexes, e.g. {@code Parties[0].PartyID}
+     */
+    public static final class Mismatch {
+        private final String path;
+        private final Object expected;
+        private final Object actual;
+
+        private Mismatch(String path, Object expected, Object actual) {
+            this.path = path;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Object getExpected() {
+            return expected;
+        }
+
+        public Object getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": expected [" + expected + "], actual [" + actual + ']';
+        }
+    }
+}
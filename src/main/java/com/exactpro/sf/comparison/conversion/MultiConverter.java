@@ -49,6 +49,20 @@ public class MultiConverter {
     
     public static final Set<Class<?>> SUPPORTED_TYPES = Collections.unmodifiableSet(CONVERTERS.keySet());
     
+    /**
+     * Returns the converter to the class, so it can be looked up once and reused
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IConverter<T> getConverter(Class<T> clazz) {
+        IConverter<?> converter = CONVERTERS.get(clazz);
+
+        if (converter == null) {
+            throw new ConversionException("No converter for type: " + clazz.getSimpleName());
+        }
+
+        return (IConverter<T>)converter;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T convert(Object value, Class<T> clazz) {
         IConverter<?> converter = CONVERTERS.get(clazz);
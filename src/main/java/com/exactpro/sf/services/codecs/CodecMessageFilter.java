@@ -17,10 +17,11 @@ package com.exactpro.sf.services.codecs;
 
 import static com.exactpro.sf.common.messages.structures.StructureUtils.getAttributeValue;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -34,8 +35,6 @@ import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.messages.structures.IMessageStructure;
 import com.exactpro.sf.common.util.EPSCommonException;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
 
 /**
  * The {@code CodecMessageFilter} class for filters messages.
@@ -47,7 +46,10 @@ public class CodecMessageFilter {
     
 	private static final String DROP_SUB_FILTER = "DropSubFilter";
     private static final String DELIMITER = ",";
-    private final Map<IMessageStructure, Multimap<SpecialAttribute, String>> messageSpecialField;
+    /**
+     * Structures are unique instances within a dictionary, so they are looked up by identity
+     */
+    private final Map<IMessageStructure, SpecialFields> messageSpecialField;
 
     /**
      * Allowed values for fields.
@@ -55,7 +57,7 @@ public class CodecMessageFilter {
     private final Set<String> filterValues;
 
     public CodecMessageFilter(String filterValuesString) {
-        messageSpecialField = new HashMap<>();
+        messageSpecialField = new IdentityHashMap<>();
         filterValues = parseFilterValues(filterValuesString);
 
         logger.info("Filter values: {}", filterValues);
@@ -63,22 +65,27 @@ public class CodecMessageFilter {
     }
 
     public void init(IDictionaryStructure dictionary){
+        if (filterValues.isEmpty()) {
+            return;
+        }
+
         for(IMessageStructure msgStruct : dictionary.getMessages().values()) {
-            if (!filterValues.isEmpty()) {
-                for (IFieldStructure fieldStructure : msgStruct.getFields().values()) {
-                    for (SpecialAttribute specialAttribute : SpecialAttribute.values()) {
-                        if (getAttributeValue(fieldStructure, specialAttribute.getAttribut()) != null) {
-                            Multimap<SpecialAttribute, String> attributeToField = messageSpecialField.get(msgStruct);
-                            if (attributeToField == null) {
-                                attributeToField =  HashMultimap.create();
-                                messageSpecialField.put(msgStruct, attributeToField);
-                            }
+            List<String> filterFields = new ArrayList<>();
+            List<String> subFilterFields = new ArrayList<>();
 
-                            attributeToField.put(specialAttribute, fieldStructure.getName());
-                        }
-                    }
+            for (IFieldStructure fieldStructure : msgStruct.getFields().values()) {
+                if (getAttributeValue(fieldStructure, SpecialAttribute.FILTER.getAttribut()) != null) {
+                    filterFields.add(fieldStructure.getName());
+                }
+
+                if (getAttributeValue(fieldStructure, SpecialAttribute.SUB_FILTER.getAttribut()) != null) {
+                    subFilterFields.add(fieldStructure.getName());
                 }
             }
+
+            if (!filterFields.isEmpty() || !subFilterFields.isEmpty()) {
+                messageSpecialField.put(msgStruct, new SpecialFields(filterFields, subFilterFields));
+            }
         }
     }
 
@@ -103,24 +110,24 @@ public class CodecMessageFilter {
      */
     public boolean dropMessage(IoSession session, IMessageStructure messageStructure, IMessage message) {
         if (!filterValues.isEmpty()) {
-            Multimap<SpecialAttribute, String> attributeToField = messageSpecialField.get(messageStructure);
-            if (attributeToField != null) {
-                if (attributeToField.containsKey(SpecialAttribute.SUB_FILTER)) {
+            SpecialFields specialFields = messageSpecialField.get(messageStructure);
+            if (specialFields != null) {
+                if (specialFields.subFilter.length > 0) {
                     Set<Object> subFilters = new HashSet<>();
                     @SuppressWarnings("unchecked") Set<Object> dropSubFilterSet = (Set<Object>) session.getAttribute(DROP_SUB_FILTER);
 
-                    for (String fieldSubFilter : attributeToField.get(SpecialAttribute.SUB_FILTER)) {
+                    for (String fieldSubFilter : specialFields.subFilter) {
                         subFilters.add(message.getField(fieldSubFilter));
                     }
 
-                    if (attributeToField.containsKey(SpecialAttribute.FILTER)) {
+                    if (specialFields.filter.length > 0) {
 
                         if (dropSubFilterSet == null) {
                             dropSubFilterSet = new HashSet<>();
                             session.setAttribute(DROP_SUB_FILTER, dropSubFilterSet);
                         }
 
-                        for (String fieldFilter : attributeToField.get(SpecialAttribute.FILTER)) {
+                        for (String fieldFilter : specialFields.filter) {
                             Object filterValue = message.getField(fieldFilter);
                             filterValue = filterValue != null ? filterValue.toString() : null;
                             if (filterValues.contains(filterValue)) {
@@ -130,8 +137,8 @@ public class CodecMessageFilter {
                         }
                         if (logger.isDebugEnabled()) {
                             logger.debug("Message has been dropped. MsgName={}.{}.{}", message.getName(),
-                                    getValues(message, attributeToField.get(SpecialAttribute.FILTER)),
-                                    getValues(message, attributeToField.get(SpecialAttribute.SUB_FILTER)));
+                                    getValues(message, specialFields.filter),
+                                    getValues(message, specialFields.subFilter));
                         }
                         return true;
 
@@ -142,17 +149,21 @@ public class CodecMessageFilter {
 
                     }
 
-                    logger.debug("Message has been dropped. MsgName={}.{}", message.getName(), getValues(message, attributeToField.get(SpecialAttribute.SUB_FILTER)));
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Message has been dropped. MsgName={}.{}", message.getName(), getValues(message, specialFields.subFilter));
+                    }
                     return true;
-                } else if (attributeToField.containsKey(SpecialAttribute.FILTER)) {
-                    for (String field : attributeToField.get(SpecialAttribute.FILTER)) {
+                } else if (specialFields.filter.length > 0) {
+                    for (String field : specialFields.filter) {
                         Object filterValue = message.getField(field);
                         filterValue = filterValue != null ? filterValue.toString() : null;
                         if (filterValues.contains(filterValue)) {
                             return false;
                         }
                     }
-                    logger.debug("Message has been dropped. MsgName={}.{}", message.getName(), getValues(message, attributeToField.get(SpecialAttribute.FILTER)));
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Message has been dropped. MsgName={}.{}", message.getName(), getValues(message, specialFields.filter));
+                    }
                     return true;
                 }
             }
@@ -161,7 +172,7 @@ public class CodecMessageFilter {
         return false;
     }
 
-    private String getValues(IMessage message, Collection<String> fields){
+    private String getValues(IMessage message, String[] fields){
         StringBuilder values = new StringBuilder();
         for (String field : fields) {
             values.append(field);
@@ -191,4 +202,14 @@ public class CodecMessageFilter {
         }
         return Collections.emptySet();
     }
+
+    private static class SpecialFields {
+        private final String[] filter;
+        private final String[] subFilter;
+
+        private SpecialFields(List<String> filter, List<String> subFilter) {
+            this.filter = filter.toArray(new String[0]);
+            this.subFilter = subFilter.toArray(new String[0]);
+        }
+    }
 }
@@ -18,6 +18,7 @@
 package com.exactpro.sf.common.messages
 
 import com.exactpro.sf.common.messages.MetadataProperty.*
+import com.exactpro.sf.common.messages.impl.Metadata
 import com.exactpro.sf.common.services.ServiceInfo
 import com.exactpro.sf.configuration.suri.SailfishURI
 import java.util.Date
@@ -27,32 +28,55 @@ private const val MESSAGE_PROPERTIES_KEY = "messageProperties"
 @Suppress("UNCHECKED_CAST")
 private fun <T> IMetadata.getAs(propertyName: String): T? = get(propertyName) as T?
 
-private fun <T> IMetadata.getAs(property: MetadataProperty): T? = getAs(property.propertyName)
+@Suppress("UNCHECKED_CAST")
+private fun <T> IMetadata.getAs(property: MetadataProperty): T? = when (this) {
+    is Metadata -> get(property) as T?
+    else -> getAs(property.propertyName)
+}
 
 private fun <T : Any> IMetadata.getRequired(property: MetadataProperty): T = checkNotNull(getAs(property)) { "${property.propertyName} is not set" }
 
 private fun IMetadata.setOrRemove(propertyName: String, value: Any?) = value?.run { set(propertyName, value) } ?: remove(propertyName)
 
-private fun IMetadata.setOrRemove(property: MetadataProperty, value: Any?) = setOrRemove(property.propertyName, value)
+private fun IMetadata.setOrRemove(property: MetadataProperty, value: Any?) = when (this) {
+    is Metadata -> value?.run { set(property, value) } ?: remove(property)
+    else -> setOrRemove(property.propertyName, value)
+}
 
 private fun IMetadata.setOnce(property: MetadataProperty, value: Any) {
-    val propertyName = property.propertyName
-    check(!contains(propertyName)) { "$propertyName is already set" }
-    set(propertyName, value)
+    check(!contains(property)) { "${property.propertyName} is already set" }
+    setProperty(property, value)
+}
+
+private fun IMetadata.setProperty(property: MetadataProperty, value: Any) = when (this) {
+    is Metadata -> set(property, value)
+    else -> set(property.propertyName, value)
+}
+
+private fun IMetadata.getFlag(property: MetadataProperty): Boolean = when (this) {
+    is Metadata -> getFlag(property, false)
+    else -> getAs(property.propertyName) ?: false
 }
 
 /**
  * Adds all data from the [other] metadata to the current [IMetadata].
+ * A [RawMessageBuffer] of the [other] metadata is retained and the one it replaces is released.
  *
  * @return the same [IMetadata] the method was invoked for. All key from [other] will be added to the original metadata.
  */
 fun IMetadata.merge(other: IMetadata): IMetadata = apply {
     for (key in other.keys) {
-        set(key, checkNotNull(other[key]) { "Metadata contains key '$key' but the value is 'null'" })
+        when (val value = checkNotNull(other[key]) { "Metadata contains key '$key' but the value is 'null'" }) {
+            is RawMessageBuffer -> if (value !== get(key)) rawMessageBuffer = value.retain()
+            else -> set(key, value)
+        }
     }
 }
 
-fun IMetadata.contains(property: MetadataProperty): Boolean = contains(property.propertyName)
+fun IMetadata.contains(property: MetadataProperty): Boolean = when (this) {
+    is Metadata -> contains(property)
+    else -> contains(property.propertyName)
+}
 
 var IMetadata.id: Long
     get() = getRequired(ID)
@@ -66,6 +90,24 @@ var IMetadata.timestamp: Date
     get() = getRequired(TIMESTAMP)
     set(value) = setOnce(TIMESTAMP, value)
 
+/**
+ * Message timestamp in nanoseconds since the epoch. [Metadata] stores it without creating a [Date],
+ * other implementations keep it as a [Date] with millisecond precision.
+ */
+var IMetadata.timestampNanos: Long
+    get() = when (this) {
+        is Metadata -> getTimestampNanos()
+        else -> timestamp.time * 1_000_000L
+    }
+    set(value) {
+        check(!contains(TIMESTAMP)) { "${TIMESTAMP.propertyName} is already set" }
+
+        when (this) {
+            is Metadata -> setTimestampNanos(value)
+            else -> set(TIMESTAMP.propertyName, Date(Math.floorDiv(value, 1_000_000L)))
+        }
+    }
+
 var IMetadata.namespace: String
     get() = getRequired(NAMESPACE)
     set(value) = setOnce(NAMESPACE, value)
@@ -83,16 +125,16 @@ var IMetadata.toService: String?
     set(value) = setOrRemove(TO_SERVICE, value)
 
 var IMetadata.isAdmin: Boolean
-    get() = getAs(IS_ADMIN) ?: false
-    set(value) = set(IS_ADMIN.propertyName, value)
+    get() = getFlag(IS_ADMIN)
+    set(value) = setProperty(IS_ADMIN, value)
 
 var IMetadata.isRejected: Boolean
-    get() = getAs(IS_REJECTED) ?: contains(REJECT_REASON.propertyName)
-    @Deprecated("use rejectReason instead") set(value) = set(IS_REJECTED.propertyName, value)
+    get() = getAs(IS_REJECTED) ?: contains(REJECT_REASON)
+    @Deprecated("use rejectReason instead") set(value) = setProperty(IS_REJECTED, value)
 
 var IMetadata.isDirty: Boolean
-    get() = getAs(IS_DIRTY) ?: false
-    set(value) = set(IS_DIRTY.propertyName, value)
+    get() = getFlag(IS_DIRTY)
+    set(value) = setProperty(IS_DIRTY, value)
 
 var IMetadata.rejectReason: String?
     get() = getAs(REJECT_REASON)
@@ -101,9 +143,41 @@ var IMetadata.rejectReason: String?
         isRejected = isRejected || value != null
     }
 
+/**
+ * Raw message as an array. A [RawMessageBuffer] stored in the metadata is copied, use [rawMessageBuffer] to avoid it.
+ * Setting the value releases the [RawMessageBuffer] previously stored in the metadata.
+ */
 var IMetadata.rawMessage: ByteArray?
-    get() = getAs(RAW_MESSAGE)
-    set(value) = setOrRemove(RAW_MESSAGE, value)
+    get() = when (val value = getAs<Any>(RAW_MESSAGE)) {
+        is RawMessageBuffer -> value.toByteArray()
+        else -> value as ByteArray?
+    }
+    set(value) {
+        releaseRawMessageBuffer(value)
+        setOrRemove(RAW_MESSAGE, value)
+    }
+
+/**
+ * Raw message as a read-only buffer. An array stored in the metadata is wrapped without copying.
+ * The metadata takes over the reference of the set buffer and releases the previously stored one.
+ */
+var IMetadata.rawMessageBuffer: RawMessageBuffer?
+    get() = when (val value = getAs<Any>(RAW_MESSAGE)) {
+        is ByteArray -> RawMessageBuffer.wrap(value)
+        else -> value as RawMessageBuffer?
+    }
+    set(value) {
+        releaseRawMessageBuffer(value)
+        setOrRemove(RAW_MESSAGE, value)
+    }
+
+private fun IMetadata.releaseRawMessageBuffer(replacement: Any?) {
+    val current = getAs<Any>(RAW_MESSAGE)
+
+    if (current is RawMessageBuffer && current !== replacement) {
+        current.release()
+    }
+}
 
 var IMetadata.serviceInfo: ServiceInfo?
     get() = getAs(SERVICE_INFO)
@@ -130,5 +204,5 @@ var IMetadata.batchSequence: Long?
     set(value) = setOrRemove(BATCH_SEQUENCE, value)
 
 var IMetadata.isLastInBatch: Boolean
-    get() = getAs(IS_LAST_IN_BATCH) ?: false
-    set(value) = set(IS_LAST_IN_BATCH.propertyName, value)
+    get() = getFlag(IS_LAST_IN_BATCH)
+    set(value) = setProperty(IS_LAST_IN_BATCH, value)
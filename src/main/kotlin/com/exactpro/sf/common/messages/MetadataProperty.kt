@@ -43,6 +43,8 @@ enum class MetadataProperty(val propertyName: String, val propertyClass: Class<*
     operator fun component2(): Class<*> = propertyClass
 
     companion object {
-        fun fromString(propertyName: String): MetadataProperty? = values().find { it.propertyName == propertyName }
+        private val BY_NAME: Map<String, MetadataProperty> = values().associateBy(MetadataProperty::propertyName)
+
+        fun fromString(propertyName: String): MetadataProperty? = BY_NAME[propertyName]
     }
 }
\ No newline at end of file
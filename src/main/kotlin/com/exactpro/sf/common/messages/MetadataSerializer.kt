@@ -36,9 +36,11 @@ class MetadataSerializer : StdSerializer<IMetadata>(IMetadata::class.java) {
     }
 
     private fun serialize(value: IMetadata, gen: JsonGenerator) {
-        MetadataProperty.values().forEach { (propertyName, _) ->
+        MetadataProperty.values().forEach { property ->
+            val propertyName = property.propertyName
+
             if (value.contains(propertyName)) {
-                gen.writeObjectField(propertyName, value[propertyName])
+                gen.writeObjectField(propertyName, if (property == MetadataProperty.RAW_MESSAGE) value.rawMessage else value[propertyName])
             }
         }
     }
@@ -17,42 +17,239 @@ package com.exactpro.sf.common.messages.impl
 
 import com.exactpro.sf.common.messages.IMetadata
 import com.exactpro.sf.common.messages.MetadataDeserializer
+import com.exactpro.sf.common.messages.MetadataProperty
+import com.exactpro.sf.common.messages.MetadataProperty.BATCH_SEQUENCE
+import com.exactpro.sf.common.messages.MetadataProperty.ID
+import com.exactpro.sf.common.messages.MetadataProperty.IS_ADMIN
+import com.exactpro.sf.common.messages.MetadataProperty.IS_DIRTY
+import com.exactpro.sf.common.messages.MetadataProperty.IS_LAST_IN_BATCH
+import com.exactpro.sf.common.messages.MetadataProperty.IS_REJECTED
+import com.exactpro.sf.common.messages.MetadataProperty.RAW_MESSAGE
+import com.exactpro.sf.common.messages.MetadataProperty.SEQUENCE
+import com.exactpro.sf.common.messages.MetadataProperty.TIMESTAMP
 import com.exactpro.sf.common.messages.MetadataSerializer
+import com.exactpro.sf.common.messages.RawMessageBuffer
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize
 import com.fasterxml.jackson.databind.annotation.JsonSerialize
 import java.math.BigDecimal
-import java.util.Collections
+import java.util.Date
+import java.util.NoSuchElementException
 import java.util.Objects
 
+/**
+ * Keeps every [MetadataProperty] in a fixed slot addressed by its ordinal.
+ * [ID], [SEQUENCE] and [BATCH_SEQUENCE] are stored as primitive `long` values and the boolean flags are stored in a bit set,
+ * as long as the values have the declared types. Keys which are not metadata properties go to a lazily allocated map.
+ * [TIMESTAMP] set by [setTimestampNanos] is stored as epoch nanoseconds and a new [Date] is created on each read,
+ * so reading the metadata never modifies it.
+ * Metadata made read-only by [makeReadOnly] throws [IllegalStateException] on any modification, its clones are writable.
+ */
 @JsonSerialize(using = MetadataSerializer::class)
 @JsonDeserialize(using = MetadataDeserializer::class)
 open class Metadata : IMetadata {
-    private val map = hashMapOf<String, Any>()
-    override val keys: Set<String> = Collections.unmodifiableSet(map.keys)
+    /** Bit per property ordinal which is set if the property is present */
+    private var present = 0
 
-    override fun get(key: String): Any? = map[key]
+    /** Bit per property ordinal which is set if the value of the property is stored unboxed */
+    private var unboxed = 0
+
+    /** Values of the boolean properties */
+    private var flags = 0
+
+    private var idValue = 0L
+    private var sequenceValue = 0L
+    private var batchSequenceValue = 0L
+    private var timestampNanos = 0L
+    private val slots = arrayOfNulls<Any>(PROPERTIES.size)
+    private var custom: HashMap<String, Any>? = null
+
+    var isReadOnly = false
+        private set
+
+    override val keys: Set<String> = KeySet()
+
+    override fun get(key: String): Any? = when (val property = MetadataProperty.fromString(key)) {
+        null -> custom?.get(key)
+        else -> get(property)
+    }
 
     override fun set(key: String, value: Any) {
         check(key.isNotBlank()) { "key cannot be blank" }
-        map[key] = value
+        checkWritable()
+
+        when (val property = MetadataProperty.fromString(key)) {
+            null -> (custom ?: HashMap<String, Any>().also { custom = it })[key] = value
+            else -> set(property, value)
+        }
     }
 
-    override fun contains(key: String): Boolean = map.containsKey(key)
+    override fun contains(key: String): Boolean = when (val property = MetadataProperty.fromString(key)) {
+        null -> custom?.containsKey(key) ?: false
+        else -> contains(property)
+    }
 
     override fun remove(key: String) {
-        map.remove(key)
+        checkWritable()
+
+        when (val property = MetadataProperty.fromString(key)) {
+            null -> custom?.remove(key)
+            else -> remove(property)
+        }
     }
 
-    override fun clone(): IMetadata = Metadata().also { clone ->
-        clone.map += map
+    operator fun get(property: MetadataProperty): Any? {
+        val bit = 1 shl property.ordinal
+
+        return when {
+            present and bit == 0 -> null
+            unboxed and bit == 0 -> slots[property.ordinal]
+            LONG_PROPERTIES and bit != 0 -> readLong(property)
+            property == TIMESTAMP -> Date(Math.floorDiv(timestampNanos, NANOS_IN_MILLI))
+            else -> flags and bit != 0
+        }
+    }
+
+    operator fun set(property: MetadataProperty, value: Any) {
+        checkWritable()
+        val bit = 1 shl property.ordinal
+
+        when {
+            LONG_PROPERTIES and bit != 0 && value is Long -> {
+                writeLong(property, value)
+                slots[property.ordinal] = null
+                unboxed = unboxed or bit
+            }
+            FLAG_PROPERTIES and bit != 0 && value is Boolean -> {
+                flags = if (value) flags or bit else flags and bit.inv()
+                slots[property.ordinal] = null
+                unboxed = unboxed or bit
+            }
+            else -> {
+                slots[property.ordinal] = value
+                unboxed = unboxed and bit.inv()
+            }
+        }
+
+        present = present or bit
+    }
+
+    /**
+     * Sets [TIMESTAMP] without creating a [Date]
+     */
+    fun setTimestampNanos(epochNanos: Long) {
+        checkWritable()
+        val bit = 1 shl TIMESTAMP.ordinal
+        timestampNanos = epochNanos
+        slots[TIMESTAMP.ordinal] = null
+        unboxed = unboxed or bit
+        present = present or bit
     }
 
-    override fun toString(): String {
-        return "Metadata$map"
+    /**
+     * Returns [TIMESTAMP] as epoch nanoseconds, the precision is milliseconds if it was set as a [Date]
+     */
+    fun getTimestampNanos(): Long {
+        val bit = 1 shl TIMESTAMP.ordinal
+
+        return when {
+            present and bit == 0 -> throw IllegalStateException("${TIMESTAMP.propertyName} is not set")
+            unboxed and bit == 0 -> (slots[TIMESTAMP.ordinal] as Date).time * NANOS_IN_MILLI
+            else -> timestampNanos
+        }
+    }
+
+    fun contains(property: MetadataProperty): Boolean = present and (1 shl property.ordinal) != 0
+
+    fun remove(property: MetadataProperty) {
+        checkWritable()
+        val mask = (1 shl property.ordinal).inv()
+        present = present and mask
+        unboxed = unboxed and mask
+        slots[property.ordinal] = null
     }
 
+    /**
+     * Returns value of a boolean property without boxing or [defaultValue] if the property isn't set
+     */
+    fun getFlag(property: MetadataProperty, defaultValue: Boolean): Boolean {
+        val bit = 1 shl property.ordinal
+
+        return when {
+            present and bit == 0 -> defaultValue
+            unboxed and bit == 0 -> slots[property.ordinal] as Boolean
+            else -> flags and bit != 0
+        }
+    }
+
+    /**
+     * Removes all properties and custom keys
+     */
+    open fun clear() {
+        checkWritable()
+        present = 0
+        unboxed = 0
+        flags = 0
+        slots.fill(null)
+        custom = null
+    }
+
+    /**
+     * Replaces the content of this metadata with a copy of the [other] one.
+     * A [RawMessageBuffer] of the [other] metadata is retained, so both of them own a reference
+     */
+    protected fun copyFrom(other: Metadata) {
+        checkWritable()
+        present = other.present
+        unboxed = other.unboxed
+        flags = other.flags
+        idValue = other.idValue
+        sequenceValue = other.sequenceValue
+        batchSequenceValue = other.batchSequenceValue
+        timestampNanos = other.timestampNanos
+        other.slots.copyInto(slots)
+        custom = other.custom?.let(::HashMap)
+        (slots[RAW_MESSAGE.ordinal] as? RawMessageBuffer)?.retain()
+    }
+
+    /**
+     * Forbids any further modification of this metadata. [TIMESTAMP] set as a [Date] is converted to epoch nanoseconds,
+     * so the metadata doesn't keep a reference to a mutable [Date]
+     */
+    protected fun makeReadOnly() {
+        val timestamp = slots[TIMESTAMP.ordinal]
+
+        if (timestamp is Date) {
+            setTimestampNanos(timestamp.time * NANOS_IN_MILLI)
+        }
+
+        isReadOnly = true
+    }
+
+    override fun clone(): IMetadata = Metadata().also { clone ->
+        clone.copyFrom(this)
+    }
+
+    override fun toString(): String = keys.joinToString(", ", "Metadata{", "}") { key -> "$key=${get(key)}" }
+
     override fun hashCode(): Int {
-        return map.hashCode()
+        var result = 0
+
+        for (property in PROPERTIES) {
+            val bit = 1 shl property.ordinal
+
+            if (present and bit != 0) {
+                val valueHash = when {
+                    unboxed and bit == 0 -> slots[property.ordinal].hashCode()
+                    LONG_PROPERTIES and bit != 0 -> java.lang.Long.hashCode(readLong(property))
+                    property == TIMESTAMP -> java.lang.Long.hashCode(Math.floorDiv(timestampNanos, NANOS_IN_MILLI))
+                    else -> java.lang.Boolean.hashCode(flags and bit != 0)
+                }
+
+                result += property.propertyName.hashCode() xor valueHash
+            }
+        }
+
+        return result + (custom?.hashCode() ?: 0)
     }
 
     override fun equals(other: Any?): Boolean = when {
@@ -69,4 +266,68 @@ open class Metadata : IMetadata {
             }
         }
     }
-}
\ No newline at end of file
+
+    private fun checkWritable() = check(!isReadOnly) { "metadata is read-only" }
+
+    private fun readLong(property: MetadataProperty): Long = when (property) {
+        ID -> idValue
+        SEQUENCE -> sequenceValue
+        else -> batchSequenceValue
+    }
+
+    private fun writeLong(property: MetadataProperty, value: Long) {
+        when (property) {
+            ID -> idValue = value
+            SEQUENCE -> sequenceValue = value
+            else -> batchSequenceValue = value
+        }
+    }
+
+    private inner class KeySet : AbstractSet<String>() {
+        override val size: Int
+            get() = Integer.bitCount(present) + (custom?.size ?: 0)
+
+        override fun contains(element: String): Boolean = this@Metadata.contains(element)
+
+        override fun iterator(): Iterator<String> = object : Iterator<String> {
+            private var remaining = present
+            private var customKeys: Iterator<String>? = null
+
+            override fun hasNext(): Boolean {
+                if (remaining != 0) {
+                    return true
+                }
+
+                val keys = customKeys ?: custom?.keys?.iterator()?.also { customKeys = it } ?: return false
+                return keys.hasNext()
+            }
+
+            override fun next(): String {
+                if (!hasNext()) {
+                    throw NoSuchElementException()
+                }
+
+                if (remaining != 0) {
+                    val ordinal = Integer.numberOfTrailingZeros(remaining)
+                    remaining = remaining and (remaining - 1)
+                    return PROPERTIES[ordinal].propertyName
+                }
+
+                return customKeys!!.next()
+            }
+        }
+    }
+
+    companion object {
+        private const val NANOS_IN_MILLI = 1_000_000L
+        private val PROPERTIES = MetadataProperty.values()
+        private val LONG_PROPERTIES = maskOf(ID, SEQUENCE, BATCH_SEQUENCE)
+        private val FLAG_PROPERTIES = maskOf(IS_ADMIN, IS_REJECTED, IS_DIRTY, IS_LAST_IN_BATCH)
+
+        init {
+            check(PROPERTIES.size <= Int.SIZE_BITS) { "too many metadata properties: ${PROPERTIES.size}" }
+        }
+
+        private fun maskOf(vararg properties: MetadataProperty): Int = properties.fold(0) { mask, property -> mask or (1 shl property.ordinal) }
+    }
+}
@@ -29,13 +29,16 @@ import com.exactpro.sf.common.messages.DefaultMessageStructureVisitor;
 import com.exactpro.sf.common.messages.DirtyConst;
 import com.exactpro.sf.common.messages.DirtyMessageTraverser;
 import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.InferredStructureRegistry;
 import com.exactpro.sf.common.messages.MessageStructureReaderHandlerImpl;
 import com.exactpro.sf.common.messages.MessageTraverser;
+import com.exactpro.sf.common.messages.ReorderFieldComparator;
 import com.exactpro.sf.common.messages.structures.IFieldStructure;
 import com.exactpro.sf.common.messages.structures.IMessageStructure;
 import com.exactpro.sf.common.messages.structures.StructureType;
 import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
 import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
 
 public class DirtyMessageTraverserTest {
 
@@ -136,4 +139,142 @@ public class DirtyMessageTraverserTest {
         Assert.assertThat(orderHistoty, is(Arrays.asList("unknownField", SECOND_FIELD, FIRST_FIELD )));
     }
 
+    /**
+     * combined fields are reused for messages with the same unknown fields
+     */
+    @Test
+    public void testCombineUnknownFields() {
+        CombiningTraverser traverser = new CombiningTraverser();
+
+        IMessage message = DefaultMessageFactory.getFactory().createMessage("test", "test");
+        message.addField(FIRST_FIELD, "value");
+        Assert.assertSame(byDictionary.getFields(), traverser.combine(message));
+
+        message.addField("unknownField", 1.0F);
+        Map<String, IFieldStructure> combined = traverser.combine(message);
+        Assert.assertThat(new ArrayList<>(combined.keySet()), is(Arrays.asList(FIRST_FIELD, SECOND_FIELD, "unknownField")));
+        Assert.assertThat(combined.get("unknownField").getJavaType(), is(JavaType.JAVA_LANG_FLOAT));
+
+        IMessage other = DefaultMessageFactory.getFactory().createMessage("test", "test");
+        other.addField("unknownField", 2.0F);
+        Assert.assertSame(combined, traverser.combine(other));
+
+        other.addField("unknownField", "2.0");
+        Map<String, IFieldStructure> changed = traverser.combine(other);
+        Assert.assertNotSame(combined, changed);
+        Assert.assertThat(changed.get("unknownField").getJavaType(), is(JavaType.JAVA_LANG_STRING));
+    }
+
+    /**
+     * structures inferred from values are memoized
+     */
+    @Test
+    public void testInferredStructureRegistry() {
+        InferredStructureRegistry registry = new InferredStructureRegistry(2);
+        MessageTraverser traverser = new MessageTraverser(registry);
+        List<IFieldStructure> structures = new ArrayList<>();
+
+        DefaultMessageStructureVisitor visitor = new DefaultMessageStructureVisitor() {
+            @Override
+            public void visit(String fieldName, Long value, IFieldStructure fldStruct, boolean isDefault) {
+                structures.add(fldStruct);
+            }
+
+            @Override
+            public void visit(String fieldName, String value, IFieldStructure fldStruct, boolean isDefault) {
+                structures.add(fldStruct);
+            }
+        };
+
+        for (long i = 0; i < 3; i++) {
+            IMessage message = DefaultMessageFactory.getFactory().createMessage("test", "test");
+            message.addField(FIRST_FIELD, i);
+            message.addField(SECOND_FIELD, "value");
+            traverser.traverse(visitor, byDictionary, message, MessageStructureReaderHandlerImpl.instance());
+        }
+
+        Assert.assertThat(structures.size(), is(6));
+        Assert.assertThat(structures.get(0).getJavaType(), is(JavaType.JAVA_LANG_LONG));
+        Assert.assertSame(structures.get(0), structures.get(2));
+        Assert.assertSame(structures.get(0), structures.get(4));
+        Assert.assertSame(byDictionary.getFields().get(SECOND_FIELD), structures.get(1));
+        Assert.assertThat(registry.getMissCount(), is(1L));
+        Assert.assertThat(registry.getHitCount(), is(2L));
+
+        IMessageStructure learned = registry.getLearnedStructure("test", "schemaless");
+        Assert.assertSame(learned, registry.getLearnedStructure("test", "schemaless"));
+        Assert.assertNotSame(learned, registry.getLearnedStructure("test", "other"));
+        Assert.assertTrue(learned.getFields().isEmpty());
+
+        // fields inferred for a type without a dictionary are reused by the following messages of the type
+        structures.clear();
+        IMessage first = DefaultMessageFactory.getFactory().createMessage("schemaless", "test");
+        first.addField(FIRST_FIELD, 1L);
+        IMessage second = DefaultMessageFactory.getFactory().createMessage("schemaless", "test");
+        second.addField(SECOND_FIELD, "value");
+        second.addField(FIRST_FIELD, 2L);
+        traverser.traverse(visitor, (IMessageStructure)null, first, MessageStructureReaderHandlerImpl.instance());
+        traverser.traverse(visitor, (IMessageStructure)null, second, MessageStructureReaderHandlerImpl.instance());
+
+        Assert.assertThat(structures.size(), is(3));
+        Assert.assertSame(registry.getLearnedField("test", "schemaless", FIRST_FIELD), structures.get(0));
+        Assert.assertSame(structures.get(0), structures.get(2));
+        Assert.assertThat(registry.getLearnedField("test", "schemaless", SECOND_FIELD).getJavaType(), is(JavaType.JAVA_LANG_STRING));
+        Assert.assertNull(registry.getLearnedField("test", "other", FIRST_FIELD));
+
+        registry.clear();
+        Assert.assertThat(registry.size(), is(0L));
+    }
+
+    /**
+     * reordered fields are reused for the same order
+     */
+    @Test
+    public void testReorderPlan() {
+        Assert.assertArrayEquals(new int[] { 2, 0, 1, 3 },
+                ReorderFieldComparator.permutation(Arrays.asList("c", "missing", "a", "c"), Arrays.asList("a", "b", "c", "d")));
+
+        ReorderingTraverser traverser = new ReorderingTraverser();
+        IMessage message = DefaultMessageFactory.getFactory().createMessage("test", "test");
+        message.addField(DirtyConst.FIELD_ORDER, new ArrayList<>(Collections.singletonList(SECOND_FIELD)));
+
+        Map<String, IFieldStructure> reordered = traverser.reorder(message);
+        Assert.assertThat(new ArrayList<>(reordered.keySet()), is(Arrays.asList(SECOND_FIELD, FIRST_FIELD)));
+
+        IMessage other = DefaultMessageFactory.getFactory().createMessage("test", "test");
+        other.addField(DirtyConst.FIELD_ORDER, Collections.singletonList(SECOND_FIELD));
+        Assert.assertSame(reordered, traverser.reorder(other));
+        // an equal map of the fields shares the reordered fields
+        Assert.assertSame(reordered, traverser.reorder(new LinkedHashMap<>(byDictionary.getFields()), other));
+        try {
+            reordered.remove(FIRST_FIELD);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            // cached result is shared
+        }
+
+        other.addField(DirtyConst.FIELD_ORDER, Collections.singletonList(1));
+        try {
+            traverser.reorder(other);
+            Assert.fail();
+        } catch (EPSCommonException e) {
+            Assert.assertThat(e.getMessage(), is(DirtyConst.FIELD_ORDER + " field is not a list of java.lang.String"));
+        }
+    }
+
+    private class ReorderingTraverser extends DirtyMessageTraverser {
+        private Map<String, IFieldStructure> reorder(IMessage message) {
+            return reorder(byDictionary.getFields(), message);
+        }
+
+        private Map<String, IFieldStructure> reorder(Map<String, IFieldStructure> fields, IMessage message) {
+            return handleFieldOrderMode(fields, message);
+        }
+    }
+
+    private class CombiningTraverser extends MessageTraverser {
+        private Map<String, IFieldStructure> combine(IMessage message) {
+            return combineUnknownFields(byDictionary.getFields(), message);
+        }
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+
+public class TestBufferMessage {
+    private static final String NAMESPACE = "test";
+
+    private final BufferLayout layout = BufferLayout.of(createOrderStructure());
+
+    @Test
+    public void testReadAndWrite() {
+        MessageBuffer buffer = MessageBuffer.allocateDirect(4096);
+        LocalDateTime time = LocalDateTime.of(2020, 1, 2, 3, 4, 5, 6);
+
+        BufferMessage order = new BufferMessage(buffer, layout);
+        order.addField("ClOrdID", "1");
+        order.addField("Qty", 10);
+        order.addField("Price", new BigDecimal("1.50"));
+        order.addField("TransactTime", time);
+        order.addField("Tags", Arrays.asList(1, 2, 3));
+
+        MapMessage party = new MapMessage(NAMESPACE, "Party");
+        party.addField("PartyID", "A");
+        order.addField("Parties", Collections.singletonList(party));
+        order.addField("Party", party);
+
+        Assert.assertEquals(7, order.getFieldCount());
+        Assert.assertEquals("1", order.getField("ClOrdID"));
+        Assert.assertEquals(Long.valueOf(10L), order.getField("Qty"));
+        Assert.assertEquals(new BigDecimal("1.50"), order.getField("Price"));
+        Assert.assertEquals(time, order.getField("TransactTime"));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), order.getField("Tags"));
+        Assert.assertTrue(order.compare(createOrder(party, time)));
+
+        IMessage storedParty = order.getField("Party");
+        storedParty.addField("PartyID", "B");
+        Assert.assertEquals("B", order.<IMessage>getField("Party").getField("PartyID"));
+        Assert.assertEquals("A", order.<List<IMessage>>getField("Parties").get(0).getField("PartyID"));
+
+        order.addField("ClOrdID", "2");
+        Assert.assertEquals("2", order.removeField("ClOrdID"));
+        Assert.assertFalse(order.isFieldSet("ClOrdID"));
+
+        BufferMessage wrapped = new BufferMessage(new MessageBuffer(buffer.buffer(), buffer.getPosition()), layout, order.getOffset());
+        Assert.assertEquals(order.getFieldNames(), wrapped.getFieldNames());
+    }
+
+    @Test
+    public void testClone() {
+        BufferMessage order = new BufferMessage(MessageBuffer.allocateDirect(4096), layout);
+        MapMessage party = new MapMessage(NAMESPACE, "Party");
+        party.addField("PartyID", "A");
+        order.addField("Parties", Collections.singletonList(party));
+
+        BufferMessage cloned = order.cloneMessage();
+        Assert.assertEquals(order, cloned);
+
+        cloned.<List<IMessage>>getField("Parties").get(0).addField("PartyID", "B");
+        Assert.assertEquals("A", order.<List<IMessage>>getField("Parties").get(0).getField("PartyID"));
+        Assert.assertNotEquals(order, cloned);
+    }
+
+    @Test(expected = EPSCommonException.class)
+    public void testUnknownField() {
+        new BufferMessage(MessageBuffer.allocateDirect(1024), layout).addField("Unknown", "value");
+    }
+
+    @Test(expected = EPSCommonException.class)
+    public void testBufferOverflow() {
+        BufferMessage order = new BufferMessage(MessageBuffer.allocateDirect(layout.getRecordSize()), layout);
+        order.addField("ClOrdID", "1");
+    }
+
+    @Test
+    public void testWrongComplexValue() {
+        BufferMessage order = new BufferMessage(MessageBuffer.allocateDirect(1024), layout);
+
+        try {
+            order.addField("Party", "A");
+            Assert.fail("String is stored as a message");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Field [Party] expects a message but got [java.lang.String]", e.getMessage());
+        }
+
+        try {
+            order.addField("Tags", 1);
+            Assert.fail("Integer is stored as a list");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Field [Tags] expects a list but got [java.lang.Integer]", e.getMessage());
+        }
+
+        Assert.assertEquals(0, order.getFieldCount());
+    }
+
+    @Test
+    public void testFieldMetaData() {
+        BufferMessage order = new BufferMessage(MessageBuffer.allocateDirect(1024), layout);
+        byte[] hex = { 1, 2 };
+        order.getFieldMetaData("ClOrdID").setHex(hex);
+
+        Assert.assertSame(hex, order.getFieldMetaData("ClOrdID").getHex());
+
+        order.wrap(order.getOffset());
+        Assert.assertNull(order.getFieldMetaData("ClOrdID").getHex());
+    }
+
+    private static MapMessage createOrder(IMessage party, LocalDateTime time) {
+        MapMessage order = new MapMessage(NAMESPACE, "Order");
+        order.addField("ClOrdID", "1");
+        order.addField("Qty", 10L);
+        order.addField("Price", new BigDecimal("1.5"));
+        order.addField("TransactTime", time);
+        order.addField("Tags", Arrays.asList(1, 2, 3));
+        order.addField("Parties", Collections.singletonList(party));
+        order.addField("Party", party);
+        return order;
+    }
+
+    private static IMessageStructure createOrderStructure() {
+        Map<String, IFieldStructure> partyFields = new LinkedHashMap<>();
+        partyFields.put("PartyID", new FieldStructure("PartyID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        IMessageStructure party = new MessageStructure("Party", NAMESPACE, null, partyFields, null, null);
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        fields.put("ClOrdID", new FieldStructure("ClOrdID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        fields.put("Qty", new FieldStructure("Qty", NAMESPACE, JavaType.JAVA_LANG_LONG, false, StructureType.SIMPLE));
+        fields.put("Price", new FieldStructure("Price", NAMESPACE, JavaType.JAVA_MATH_BIG_DECIMAL, false, StructureType.SIMPLE));
+        fields.put("TransactTime", new FieldStructure("TransactTime", NAMESPACE, JavaType.JAVA_TIME_LOCAL_DATE_TIME, false, StructureType.SIMPLE));
+        fields.put("Tags", new FieldStructure("Tags", NAMESPACE, JavaType.JAVA_LANG_INTEGER, true, StructureType.SIMPLE));
+        fields.put("Party", new MessageStructure("Party", NAMESPACE, false, party));
+        fields.put("Parties", new MessageStructure("Parties", NAMESPACE, true, party));
+
+        return new MessageStructure("Order", NAMESPACE, null, fields, null, null);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.messages.RawMessageBuffer;
+
+public class TestFrozenMessage {
+
+    private final FieldIndex index = FieldIndex.of("Order", Arrays.asList("ClOrdID", "Price", "Qty", "Parties"));
+
+    @Test
+    public void testFreeze() {
+        MapMessage party = new MapMessage("test", "Party");
+        party.addField("PartyID", "A");
+        IndexedMessage order = new IndexedMessage("test", "Order", index);
+        order.addField("ClOrdID", "1");
+        order.addField("Parties", new ArrayList<>(Collections.singletonList(party)));
+
+        IMessage frozen = FrozenMessage.of(order);
+        party.addField("PartyID", "B");
+        order.addField("ClOrdID", "2");
+
+        Assert.assertEquals("1", frozen.getField("ClOrdID"));
+        Assert.assertEquals("A", frozen.<List<IMessage>>getField("Parties").get(0).getField("PartyID"));
+        Assert.assertSame(frozen, FrozenMessage.of(frozen));
+
+        order.addField("ClOrdID", "1");
+        party.addField("PartyID", "A");
+        IndexedMessage copy = new IndexedMessage(order.getMetaData(), index);
+        copy.addField("ClOrdID", "1");
+        copy.addField("Parties", Collections.singletonList(party));
+        IMessage refrozen = FrozenMessage.of(copy);
+        Assert.assertEquals(frozen, refrozen);
+        Assert.assertEquals(frozen.hashCode(), refrozen.hashCode());
+        Assert.assertTrue(frozen.compare(order));
+
+        IMessage thawed = frozen.cloneMessage();
+        thawed.addField("ClOrdID", "3");
+        Assert.assertEquals("1", frozen.getField("ClOrdID"));
+
+        try {
+            frozen.addField("ClOrdID", "2");
+            Assert.fail("Frozen message is modified");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals("Message is frozen: Order", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMetaDataIsReadOnlyCopy() {
+        byte[] raw = "raw".getBytes(StandardCharsets.UTF_8);
+        MapMessage message = new MapMessage("test", "Order");
+        message.getMetaData().setRawMessage(raw);
+
+        FrozenMessage frozen = FrozenMessage.of(message);
+        MsgMetaData metaData = frozen.getMetaData();
+        Assert.assertSame(metaData, frozen.getMetaData());
+        Assert.assertTrue(metaData.isReadOnly());
+        Assert.assertEquals(message.getMetaData().getId(), metaData.getId());
+
+        raw[0] = 'R';
+        metaData.getRawMessage()[1] = 'A';
+        Assert.assertArrayEquals("raw".getBytes(StandardCharsets.UTF_8), metaData.getRawMessage());
+
+        try {
+            metaData.setRejected(true);
+            Assert.fail("Frozen metadata is modified");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("metadata is read-only", e.getMessage());
+        }
+
+        MsgMetaData cloned = frozen.cloneMessage().getMetaData();
+        Assert.assertFalse(cloned.isReadOnly());
+        cloned.setRejected(true);
+        Assert.assertFalse(metaData.isRejected());
+    }
+
+    @Test
+    public void testTimestampIsNotShared() {
+        MapMessage message = new MapMessage("test", "Order");
+        Date timestamp = message.getMetaData().getMsgTimestamp();
+
+        MsgMetaData metaData = FrozenMessage.of(message).getMetaData();
+        Date frozenTimestamp = metaData.getMsgTimestamp();
+        Assert.assertEquals(timestamp, frozenTimestamp);
+        Assert.assertNotSame(timestamp, frozenTimestamp);
+        Assert.assertNotSame(frozenTimestamp, metaData.getMsgTimestamp());
+
+        frozenTimestamp.setTime(0);
+        timestamp.setTime(1);
+        Assert.assertEquals(message.getMetaData().getMsgTimestampNanos(), metaData.getMsgTimestampNanos());
+        Assert.assertNotEquals(0, metaData.getMsgTimestamp().getTime());
+    }
+
+    @Test
+    public void testRawMessageBufferIsCopied() {
+        RawMessageBuffer buffer = RawMessageBuffer.wrap("raw".getBytes(StandardCharsets.UTF_8));
+        MapMessage message = new MapMessage("test", "Order");
+        message.getMetaData().setRawMessageBuffer(buffer);
+
+        FrozenMessage frozen = FrozenMessage.of(message);
+        Assert.assertEquals(1, buffer.refCount());
+
+        message.getMetaData().releaseRawMessage();
+        Assert.assertEquals(0, buffer.refCount());
+        Assert.assertArrayEquals("raw".getBytes(StandardCharsets.UTF_8), frozen.getMetaData().getRawMessage());
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.IMessageFactory;
+import com.exactpro.sf.common.messages.MsgMetaData;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+import com.exactpro.sf.common.util.EPSCommonException;
+import com.exactpro.sf.configuration.suri.SailfishURI;
+import com.exactpro.sf.configuration.suri.SailfishURIException;
+
+public class TestIndexedMessage {
+
+    private final FieldIndex index = FieldIndex.of("Order", Arrays.asList("ClOrdID", "Price", "Qty", "Parties"));
+
+    @Test
+    public void testIndexedAndOverflowFields() {
+        IndexedMessage message = new IndexedMessage("test", "Order", index);
+
+        message.addField("Qty", 10L);
+        message.addField("Unknown", "dirty");
+        message.addField("ClOrdID", "1");
+        message.addField("Price", null);
+
+        Assert.assertEquals(3, message.getFieldCount());
+        Assert.assertEquals(Arrays.asList("ClOrdID", "Qty", "Unknown"), new ArrayList<>(message.getFieldNames()));
+        Assert.assertEquals("dirty", message.getField("Unknown"));
+        Assert.assertEquals(Long.valueOf(10L), message.getField(index.getOrdinal("Qty")));
+        Assert.assertFalse(message.isFieldSet("Price"));
+
+        Assert.assertEquals("1", message.removeField("ClOrdID"));
+        Assert.assertEquals("dirty", message.removeField("Unknown"));
+        Assert.assertEquals(Collections.singletonList("Qty"), new ArrayList<>(message.getFieldNames()));
+    }
+
+    @Test
+    public void testTypedAccessors() {
+        IndexedMessage message = new IndexedMessage("test", "Order", index);
+
+        message.setLong("Qty", 100L);
+        message.setDouble("Price", 1.5);
+        message.setInt("Unknown", 7);
+        message.addField("ClOrdID", "42");
+
+        Assert.assertEquals(100L, message.getLong("Qty"));
+        Assert.assertEquals(100, message.getInt("Qty"));
+        Assert.assertEquals(Long.valueOf(100L), message.getField("Qty"));
+        Assert.assertEquals(1.5, message.getDouble("Price"), 0.0);
+        Assert.assertEquals(Double.valueOf(1.5), message.getField("Price"));
+        Assert.assertEquals(7, message.getInt("Unknown"));
+        Assert.assertEquals(42L, message.getLong("ClOrdID"));
+        Assert.assertEquals(4, message.getFieldCount());
+
+        Assert.assertEquals(Long.valueOf(100L), message.removeField("Qty"));
+        Assert.assertFalse(message.isFieldSet("Qty"));
+        Assert.assertTrue(message.cloneMessage().compare(message));
+    }
+
+    @Test(expected = EPSCommonException.class)
+    public void testTypedAccessorForAbsentField() {
+        new IndexedMessage("test", "Order", index).getLong("Qty");
+    }
+
+    @Test
+    public void testCloneAndCompare() {
+        IndexedMessage party = new IndexedMessage("test", "Party", FieldIndex.of("Party", Collections.singletonList("PartyID")));
+        party.addField("PartyID", "A");
+
+        List<IMessage> parties = new ArrayList<>();
+        parties.add(party);
+
+        IndexedMessage message = new IndexedMessage("test", "Order", index);
+        message.addField("ClOrdID", "1");
+        message.addField("Parties", parties);
+
+        IndexedMessage cloned = message.cloneMessage();
+        Assert.assertTrue(message.compare(cloned));
+
+        cloned.<List<IMessage>>getField("Parties").get(0).addField("PartyID", "B");
+        Assert.assertEquals("A", party.getField("PartyID"));
+        Assert.assertFalse(message.compare(cloned));
+    }
+
+    @Test
+    public void testCloneCopiesValuesOnAccess() {
+        IndexedMessage party = new IndexedMessage("test", "Party", FieldIndex.of("Party", Collections.singletonList("PartyID")));
+        party.addField("PartyID", "A");
+
+        List<IMessage> parties = new ArrayList<>(Collections.singletonList(party));
+
+        IndexedMessage message = new IndexedMessage("test", "Order", index);
+        message.addField("Parties", parties);
+        message.addField("Unknown", party);
+
+        long version = message.getVersion();
+        IndexedMessage cloned = message.cloneMessage();
+
+        Assert.assertTrue(cloned.compare(message));
+        Assert.assertTrue(cloned.cloneMessage().compare(cloned));
+
+        IMessage clonedParty = cloned.getField("Unknown");
+        List<IMessage> clonedParties = cloned.getField("Parties");
+
+        Assert.assertNotSame(party, clonedParty);
+        Assert.assertNotSame(parties, clonedParties);
+        Assert.assertNotSame(party, clonedParties.get(0));
+        Assert.assertSame(clonedParty, cloned.getField("Unknown"));
+
+        Assert.assertEquals(version, message.getVersion());
+        Assert.assertSame(party, message.getField("Unknown"));
+        Assert.assertSame(parties, message.getField("Parties"));
+
+        clonedParty.addField("PartyID", "B");
+        clonedParties.add(clonedParty);
+        cloned.cloneMessage().<IMessage>getField("Unknown").addField("PartyID", "C");
+
+        Assert.assertEquals("A", party.getField("PartyID"));
+        Assert.assertEquals(1, parties.size());
+        Assert.assertEquals("B", cloned.<IMessage>getField("Unknown").getField("PartyID"));
+        Assert.assertEquals(2, cloned.<List<IMessage>>getField("Parties").size());
+    }
+
+    @Test
+    public void testCloneKeepsRawMessage() {
+        IndexedMessage party = new IndexedMessage("test", "Party", FieldIndex.of("Party", Collections.singletonList("PartyID")));
+        party.addField("PartyID", "A");
+
+        IndexedMessage message = new IndexedMessage("test", "Order", index);
+        message.getMetaData().setRawMessage(new byte[] { 1, 2, 3 });
+        message.setLong("Qty", 10L);
+        message.addField("Parties", new ArrayList<>(Collections.singletonList(party)));
+        message.addField("Unknown", party);
+
+        IndexedMessage cloned = message.cloneMessage();
+        Assert.assertSame(message.getMetaData().getRawMessage(), cloned.getMetaData().getRawMessage());
+
+        cloned.setLong("Qty", 20L);
+        cloned.<List<IMessage>>getField("Parties").get(0).addField("PartyID", "B");
+        cloned.<IMessage>getField("Unknown").addField("PartyID", "C");
+        cloned.removeField("ClOrdID");
+
+        Assert.assertEquals(10L, message.getLong("Qty"));
+        Assert.assertEquals("A", message.<List<IMessage>>getField("Parties").get(0).getField("PartyID"));
+        Assert.assertEquals("A", message.<IMessage>getField("Unknown").getField("PartyID"));
+        Assert.assertEquals(20L, cloned.getLong("Qty"));
+        Assert.assertEquals("B", cloned.<List<IMessage>>getField("Parties").get(0).getField("PartyID"));
+        Assert.assertEquals("C", cloned.<IMessage>getField("Unknown").getField("PartyID"));
+
+        message.removeField("Unknown");
+        Assert.assertEquals(3, cloned.getFieldCount());
+        Assert.assertEquals(2, message.getFieldCount());
+    }
+
+    @Test
+    public void testFactoryCreatesIndexedMessages() throws IOException, SailfishURIException {
+        IMessageFactory factory = new AbstractMessageFactory() {
+            @Override
+            protected boolean isIndexedStorageEnabled() {
+                return true;
+            }
+
+            @Override
+            public String getProtocol() {
+                return "test";
+            }
+        };
+        factory.init(SailfishURI.parse("test"), loadDictionary());
+
+        IMessage root = factory.createMessage("Root");
+        Assert.assertTrue(root instanceof IndexedMessage);
+        Assert.assertTrue(root.<IMessage>getField("SubMessage") instanceof IndexedMessage);
+    }
+
+    @Test
+    public void testPooledFactoryReusesMessages() throws IOException, SailfishURIException {
+        PooledMessageFactory factory = new PooledMessageFactory(4, true) {
+            @Override
+            public String getProtocol() {
+                return "test";
+            }
+        };
+        factory.init(SailfishURI.parse("test"), loadDictionary());
+
+        IMessage root = factory.createMessage("Root");
+        IMessage subMessage = root.getField("SubMessage");
+        MsgMetaData metaData = root.getMetaData();
+        long id = metaData.getId();
+        root.addField("Unknown", "value");
+
+        factory.release(root);
+
+        IMessage reused = factory.createMessage("Root");
+        Assert.assertSame(root, reused);
+        Assert.assertNotEquals(id, reused.getMetaData().getId());
+        Assert.assertFalse(reused.isFieldSet("Unknown"));
+        Assert.assertSame(subMessage, reused.getField("SubMessage"));
+        Assert.assertEquals(0, factory.getLeakCount());
+
+        factory.release(reused);
+
+        try {
+            factory.release(reused);
+            Assert.fail("Message is released twice");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Message is already released: Root", e.getMessage());
+        }
+    }
+
+    private static IDictionaryStructure loadDictionary() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "withIsEncodeStructure.xml"))) {
+            return new XmlDictionaryStructureLoader().load(inputStream);
+        }
+    }
+}
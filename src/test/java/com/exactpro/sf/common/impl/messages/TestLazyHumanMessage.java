@@ -0,0 +1,105 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.exactpro.sf.common.messages.IHumanMessage;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MessageUtil;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestLazyHumanMessage {
+
+    private IMessageStructure structure;
+    private IMessage message;
+
+    @Before
+    public void setUp() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        structure = dictionary.getMessages().get("TestMessage");
+        message = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        message.addField("String", "first");
+        message.addField("Long", 1L);
+    }
+
+    @Test
+    public void testConvertToIHumanMessageIsSnapshot() {
+        IHumanMessage humanMessage = MessageUtil.convertToIHumanMessage(DefaultMessageFactory.getFactory(), structure, message);
+        message.addField("Long", 2L);
+
+        String text = humanMessage.toString();
+        Assert.assertTrue(text, text.contains("Long=1"));
+        Assert.assertFalse(text, text.contains("Long=2"));
+    }
+
+    @Test
+    public void testLazyHumanMessage() {
+        IHumanMessage humanMessage = MessageUtil.convertToLazyHumanMessage(DefaultMessageFactory.getFactory(), structure, message);
+        String text = humanMessage.toString();
+
+        Assert.assertTrue(text, text.contains("first"));
+        Assert.assertSame(text, humanMessage.toString());
+        Assert.assertSame(text, MessageUtil.convertToLazyHumanMessage(DefaultMessageFactory.getFactory(), structure, message).toString());
+
+        message.addField("String", "second");
+        text = humanMessage.toString();
+
+        Assert.assertTrue(text, text.contains("second"));
+        Assert.assertFalse(text, text.contains("first"));
+    }
+
+    @Test
+    public void testListOfSimpleValuesIsTracked() {
+        message.addField("Collection", new ArrayList<>(Arrays.asList(1, 2)));
+
+        IHumanMessage humanMessage = MessageUtil.convertToLazyHumanMessage(DefaultMessageFactory.getFactory(), structure, message);
+        String text = humanMessage.toString();
+        Assert.assertTrue(text, text.contains("Collection=[1; 2]"));
+
+        message.<List<Integer>>getField("Collection").add(3);
+        text = humanMessage.toString();
+        Assert.assertTrue(text, text.contains("Collection=[1; 2; 3]"));
+    }
+
+    @Test
+    public void testMetaDataIsTracked() {
+        IHumanMessage humanMessage = MessageUtil.convertToLazyHumanMessage(DefaultMessageFactory.getFactory(), structure, message);
+        String text = humanMessage.toString();
+        Assert.assertSame(text, humanMessage.toString());
+
+        message.getMetaData().setRejected(true);
+        Assert.assertNotSame(text, humanMessage.toString());
+    }
+
+    private static IDictionaryStructure loadDictionary() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "testMessages.xml"))) {
+            return new XmlDictionaryStructureLoader().load(inputStream);
+        }
+    }
+}
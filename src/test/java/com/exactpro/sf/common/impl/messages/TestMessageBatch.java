@@ -0,0 +1,88 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MetadataExtensions;
+import com.exactpro.sf.common.messages.MetadataProperty;
+import com.exactpro.sf.common.messages.impl.Metadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestMessageBatch {
+
+    @Test
+    public void testHeaderAndExplode() {
+        Metadata header = new Metadata();
+        MetadataExtensions.setProtocol(header, "FIX");
+        MetadataExtensions.setFromService(header, "feed");
+
+        MessageBatch batch = new MessageBatch(header);
+        for (int i = 0; i < 3; i++) {
+            MapMessage message = new MapMessage("test", "Order");
+            message.addField("Index", i);
+            batch.add(message);
+        }
+        MetadataExtensions.setFromService(batch.get(2).getMetaData(), "other");
+
+        Assert.assertEquals(1, batch.getProperty(1, MetadataProperty.SUBSEQUENCE));
+        Assert.assertNull(MetadataExtensions.getSubsequence(batch.get(1).getMetaData()));
+        Assert.assertNull(batch.get(0).getMetaData().get(MetadataProperty.PROTOCOL));
+        Assert.assertEquals("FIX", batch.getProperty(0, MetadataProperty.PROTOCOL));
+
+        MessageBatch filtered = batch.filter(message -> message.<Integer>getField("Index") > 0);
+        Assert.assertEquals(2, filtered.size());
+        Assert.assertSame(header, filtered.getHeader());
+        Assert.assertEquals(0, filtered.getProperty(0, MetadataProperty.SUBSEQUENCE));
+        Assert.assertSame(batch.get(1), filtered.get(0));
+        Assert.assertEquals(1, batch.getProperty(1, MetadataProperty.SUBSEQUENCE));
+
+        List<IMessage> messages = filtered.explode();
+        Assert.assertEquals(Integer.valueOf(0), MetadataExtensions.getSubsequence(messages.get(0).getMetaData()));
+        Assert.assertEquals(Integer.valueOf(1), MetadataExtensions.getSubsequence(messages.get(1).getMetaData()));
+        Assert.assertEquals(batch.get(1).getMetaData().getId(), messages.get(0).getMetaData().getId());
+        Assert.assertTrue(batch.get(1).compare(messages.get(0)));
+        Assert.assertNull(MetadataExtensions.getSubsequence(batch.get(1).getMetaData()));
+        Assert.assertNull(batch.get(1).getMetaData().get(MetadataProperty.PROTOCOL));
+        Assert.assertFalse(MetadataExtensions.isLastInBatch(batch.get(2).getMetaData()));
+        Assert.assertEquals("FIX", MetadataExtensions.getProtocol(messages.get(0).getMetaData()));
+        Assert.assertEquals("feed", MetadataExtensions.getFromService(messages.get(0).getMetaData()));
+        Assert.assertEquals("other", MetadataExtensions.getFromService(messages.get(1).getMetaData()));
+        Assert.assertFalse(MetadataExtensions.isLastInBatch(messages.get(0).getMetaData()));
+        Assert.assertTrue(MetadataExtensions.isLastInBatch(messages.get(1).getMetaData()));
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        Metadata header = new Metadata();
+        MetadataExtensions.setProtocol(header, "FIX");
+        MapMessage message = new MapMessage("test", "Order");
+        message.addField("Price", "1");
+
+        ObjectMapper mapper = new ObjectMapper();
+        MessageBatch batch = mapper.readValue(mapper.writeValueAsString(new MessageBatch(header).add(message)), MessageBatch.class);
+
+        Assert.assertEquals(header, batch.getHeader());
+        Assert.assertEquals(1, batch.size());
+        Assert.assertTrue(message.compare(batch.get(0)));
+        Assert.assertEquals(0, batch.getProperty(0, MetadataProperty.SUBSEQUENCE));
+    }
+}
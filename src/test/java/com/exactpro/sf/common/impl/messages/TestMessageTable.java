@@ -0,0 +1,199 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+
+public class TestMessageTable {
+    private static final String NAMESPACE = "test";
+
+    @Test
+    public void testAppendAndScan() {
+        MessageTable table = new MessageTable(NAMESPACE, createOrderStructure());
+
+        List<IMessage> orders = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            orders.add(createOrder(i));
+            Assert.assertEquals(i, table.append(orders.get(i)));
+        }
+
+        Assert.assertEquals(100, table.size());
+        Assert.assertEquals(75, table.getNestedTable("Parties").size());
+
+        IMessage original = orders.get(7);
+        IMessage row = table.row(7);
+        Assert.assertTrue(row.compare(original));
+        Assert.assertEquals(original.getFieldNames(), row.getFieldNames());
+        Assert.assertEquals(Integer.valueOf(7), row.getField("Qty"));
+        Assert.assertEquals("Party", row.<List<IMessage>>getField("Parties").get(0).getName());
+        Assert.assertEquals(original.getMetaData().getId(), row.getMetaData().getId());
+        Assert.assertNull(table.row(6).getField("Parties"));
+
+        BitSet large = table.scanLong("Qty", qty -> qty >= 90);
+        Assert.assertEquals(10, large.cardinality());
+        Assert.assertEquals(90L, table.getLong(large.nextSetBit(0), "Qty"));
+
+        BitSet buy = table.scan("Side", "BUY"::equals);
+        Assert.assertEquals(50, buy.cardinality());
+        Assert.assertEquals(50, table.scanDouble("Rate", rate -> rate < 50).cardinality());
+        Assert.assertEquals(5, table.rows(table.scan("Price", price -> ((BigDecimal)price).compareTo(new BigDecimal("0.5")) < 0)).size());
+    }
+
+    @Test
+    public void testRollback() {
+        MessageTable table = new MessageTable(NAMESPACE, createOrderStructure());
+        table.append(createOrder(1));
+
+        IMessage order = createOrder(3);
+        order.<List<IMessage>>getField("Parties").get(0).addField("Unknown", "value");
+
+        try {
+            table.append(order);
+            Assert.fail("Unknown field is appended");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Field Unknown is missing in structure Party", e.getMessage());
+        }
+
+        IMessage wrongType = createOrder(5);
+        wrongType.addField("Qty", "5");
+
+        try {
+            table.append(wrongType);
+            Assert.fail("Value of wrong type is appended");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Value of field Qty has type java.lang.String, expected java.lang.Integer", e.getMessage());
+        }
+
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals(1, table.getNestedTable("Parties").size());
+
+        table.append(createOrder(3));
+        Assert.assertTrue(table.row(1).compare(createOrder(3)));
+        Assert.assertEquals(3, table.getNestedTable("Parties").size());
+    }
+
+    @Test
+    public void testNarrowing() {
+        MessageTable table = new MessageTable(NAMESPACE, createOrderStructure());
+        IMessage order = createOrder(1);
+        order.addField("Qty", 5L);
+        order.addField("Rate", 0.5f);
+        table.append(order);
+
+        Assert.assertEquals(Integer.valueOf(5), table.row(0).getField("Qty"));
+        Assert.assertEquals(Double.valueOf(0.5), table.row(0).getField("Rate"));
+
+        IMessage overflow = createOrder(2);
+        overflow.addField("Qty", 5_000_000_000L);
+
+        try {
+            table.append(overflow);
+            Assert.fail("Value out of range is appended");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Value 5000000000 of field Qty doesn't fit java.lang.Integer", e.getMessage());
+        }
+
+        Assert.assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testRecursiveStructure() {
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        IMessageStructure node = new MessageStructure("Node", NAMESPACE, null, fields, null, null);
+        fields.put("Value", new FieldStructure("Value", NAMESPACE, JavaType.JAVA_LANG_INTEGER, false, StructureType.SIMPLE));
+        fields.put("Child", new MessageStructure("Child", NAMESPACE, false, node));
+
+        MessageTable table = new MessageTable(NAMESPACE, node);
+
+        MapMessage child = new MapMessage(NAMESPACE, "Node");
+        child.addField("Value", 2);
+        MapMessage root = new MapMessage(NAMESPACE, "Node");
+        root.addField("Value", 1);
+        root.addField("Child", child);
+        table.append(root);
+
+        Assert.assertTrue(table.row(0).compare(root));
+        Assert.assertEquals(1, table.getNestedTable("Child").size());
+
+        child.addField("Child", new MapMessage(NAMESPACE, "Node"));
+        child.<IMessage>getField("Child").addField("Unknown", 1);
+
+        try {
+            table.append(root);
+            Assert.fail("Unknown field is appended");
+        } catch (EPSCommonException e) {
+            Assert.assertEquals("Field Unknown is missing in structure Node", e.getMessage());
+        }
+
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals(1, table.getNestedTable("Child").size());
+        Assert.assertEquals(0, table.getNestedTable("Child").getNestedTable("Child").size());
+    }
+
+    private static IMessage createOrder(int index) {
+        MapMessage order = new MapMessage(NAMESPACE, "Order");
+        order.addField("Side", index % 2 == 0 ? "BUY" : "SELL");
+        order.addField("Qty", index);
+        order.addField("Price", BigDecimal.valueOf(index, 1));
+        order.addField("Rate", (double)index);
+        order.addField("Active", index % 3 == 0);
+
+        if (index % 2 == 1) {
+            MapMessage party = new MapMessage(NAMESPACE, "Party");
+            party.addField("PartyID", "P" + index);
+            party.addField("PartyRole", (short)(index % 4));
+            order.addField("Parties", index % 4 == 1 ? Arrays.asList(party) : Arrays.asList(party, party.cloneMessage()));
+        }
+
+        return order;
+    }
+
+    private static IMessageStructure createOrderStructure() {
+        Map<String, IFieldStructure> partyFields = new LinkedHashMap<>();
+        partyFields.put("PartyID", new FieldStructure("PartyID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        partyFields.put("PartyRole", new FieldStructure("PartyRole", NAMESPACE, JavaType.JAVA_LANG_SHORT, false, StructureType.SIMPLE));
+        IMessageStructure party = new MessageStructure("Party", NAMESPACE, null, partyFields, null, null);
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        fields.put("Side", new FieldStructure("Side", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        fields.put("Qty", new FieldStructure("Qty", NAMESPACE, JavaType.JAVA_LANG_INTEGER, false, StructureType.SIMPLE));
+        fields.put("Price", new FieldStructure("Price", NAMESPACE, JavaType.JAVA_MATH_BIG_DECIMAL, false, StructureType.SIMPLE));
+        fields.put("Rate", new FieldStructure("Rate", NAMESPACE, JavaType.JAVA_LANG_DOUBLE, false, StructureType.SIMPLE));
+        fields.put("Active", new FieldStructure("Active", NAMESPACE, JavaType.JAVA_LANG_BOOLEAN, false, StructureType.SIMPLE));
+        fields.put("Parties", new MessageStructure("Parties", NAMESPACE, true, party));
+
+        return new MessageStructure("Order", NAMESPACE, null, fields, null, null);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.impl.messages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.MessageUtil;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+
+public class TestMessageViews {
+
+    @Test
+    public void testMapView() {
+        MapMessage party = new MapMessage("test", "Party");
+        party.addField("PartyID", "A");
+        MapMessage order = new MapMessage("test", "Order");
+        order.addField("ClOrdID", "1");
+        order.addField("Parties", new ArrayList<>(Arrays.asList(party)));
+
+        Map<String, Object> view = MessageUtil.asMap(order);
+        Assert.assertEquals(MessageUtil.convertToHashMap(order), view);
+
+        @SuppressWarnings("unchecked")
+        List<Object> parties = (List<Object>)view.get("Parties");
+        ((Map<String, Object>)parties.get(0)).put("PartyID", "B");
+        parties.add(new MessageMapView(party.cloneMessage()));
+        view.remove("ClOrdID");
+
+        Assert.assertEquals("B", party.getField("PartyID"));
+        Assert.assertEquals(2, order.<List<IMessage>>getField("Parties").size());
+        Assert.assertTrue(order.<List<?>>getField("Parties").get(1) instanceof MapMessage);
+        Assert.assertFalse(order.isFieldSet("ClOrdID"));
+    }
+
+    @Test
+    public void testMessageView() {
+        Map<String, Object> party = new HashMap<>();
+        party.put("PartyID", "A");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ClOrdID", "1");
+        map.put("Party", party);
+
+        IMessage view = MessageUtil.asMessage(map, "test", "Order");
+        Assert.assertEquals("Party", view.<IMessage>getField("Party").getName());
+        Assert.assertEquals("A", view.<IMessage>getField("Party").getField("PartyID"));
+
+        view.<IMessage>getField("Party").addField("PartyID", "B");
+        view.addField("Price", 1);
+        Assert.assertEquals("B", party.get("PartyID"));
+        Assert.assertEquals(1, map.get("Price"));
+
+        IMessage copy = MessageUtil.convertToIMessage(map, null, "test", "Order");
+        Assert.assertEquals(copy.getFieldNames(), view.getFieldNames());
+        Assert.assertEquals("B", copy.<IMessage>getField("Party").getField("PartyID"));
+    }
+
+    @Test
+    public void testMessageViewSkipsNullValues() {
+        Map<String, Object> party = new HashMap<>();
+        party.put("PartyID", "A");
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ClOrdID", "1");
+        map.put("Price", null);
+        map.put("Parties", new ArrayList<>(Collections.singletonList(party)));
+
+        IMessage view = MessageUtil.asMessage(map, "test", "Order");
+        Assert.assertEquals(new ArrayList<>(Arrays.asList("ClOrdID", "Parties")), new ArrayList<>(view.getFieldNames()));
+        Assert.assertEquals(2, view.getFieldCount());
+
+        long id = MessageUtil.generateId();
+        Assert.assertEquals(0, view.getMetaData().getId());
+        Assert.assertEquals(id + 1, MessageUtil.generateId());
+
+        MapMessage cloned = (MapMessage)view.cloneMessage();
+        Assert.assertEquals(2, cloned.getFieldCount());
+        Assert.assertTrue(view.compare(cloned));
+
+        cloned.<List<IMessage>>getField("Parties").get(0).addField("PartyID", "B");
+        Assert.assertEquals("A", party.get("PartyID"));
+        Assert.assertFalse(view.compare(cloned));
+    }
+
+    @Test
+    public void testTraverseUnmodifiableMaps() {
+        Map<String, IFieldStructure> partyFields = new LinkedHashMap<>();
+        partyFields.put("Qty", new FieldStructure("Qty", "test", JavaType.JAVA_LANG_LONG, false, StructureType.SIMPLE));
+        IMessageStructure party = new MessageStructure("Party", "test", null, partyFields, null, null);
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        fields.put("Party", new MessageStructure("Party", "test", false, party));
+        fields.put("Parties", new MessageStructure("Parties", "test", true, party));
+        IMessageStructure order = new MessageStructure("Order", "test", null, fields, null, null);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("Qty", 1);
+        Map<String, Object> unmodifiable = Collections.unmodifiableMap(map);
+
+        MapMessage message = new MapMessage("test", "Order");
+        message.addField("Party", unmodifiable);
+        message.addField("Parties", Collections.singletonList(unmodifiable));
+
+        String text = MessageUtil.convertToIHumanMessage(DefaultMessageFactory.getFactory(), order, message).toString();
+        Assert.assertEquals("Party={Qty=1}; Parties=[{Qty=1}]", text);
+        Assert.assertEquals(Integer.valueOf(1), map.get("Qty"));
+    }
+
+    @Test
+    public void testForEachField() {
+        IndexedMessage message = new IndexedMessage("test", "Order", FieldIndex.of("Order", Arrays.asList("ClOrdID", "Price")));
+        message.addField("Price", 1);
+        message.addField("Extra", "value");
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        message.forEachField(fields::put);
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("Price", 1);
+        expected.put("Extra", "value");
+        Assert.assertEquals(expected, fields);
+    }
+}
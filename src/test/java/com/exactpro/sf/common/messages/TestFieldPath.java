@@ -0,0 +1,107 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.exactpro.sf.common.util.EPSCommonException;
+
+public class TestFieldPath {
+    private static final String NAMESPACE = "test";
+
+    private final IMessageStructure structure = createOrderStructure();
+
+    @Test
+    public void testGetAndSet() {
+        IMessage order = createOrder();
+        FieldPath partyID = FieldPath.compile(structure, "Parties[1].PartyID");
+
+        Assert.assertSame(partyID, FieldPath.compile(structure, "Parties[1].PartyID"));
+        Assert.assertEquals(String.class, partyID.getType());
+        Assert.assertEquals("B", partyID.get(order));
+        Assert.assertFalse(FieldPath.compile(structure, "Parties[2].PartyID").exists(order));
+        Assert.assertEquals(Arrays.asList("A", "B"), FieldPath.compile(structure, "Parties[*].PartyID").getAll(order));
+
+        partyID.set(order, "C");
+        Assert.assertEquals("C", partyID.get(order));
+
+        FieldPath price = FieldPath.compile(structure, "Price");
+        price.set(order, "1.5");
+        Assert.assertEquals(new BigDecimal("1.5"), order.getField("Price"));
+
+        FieldPath.compile(structure, "Parties[*].PartyRole").set(order, "3");
+        Assert.assertEquals(Arrays.asList(3, 3), FieldPath.compile(structure, "Parties[*].PartyRole").getAll(order));
+    }
+
+    @Test
+    public void testValidation() {
+        assertInvalid("Unknown", "Structure Order doesn't contain field Unknown of path Unknown");
+        assertInvalid("Price[0]", "Field Price of path Price[0] isn't a collection");
+        assertInvalid("Parties.PartyID", "Collection Parties of path Parties.PartyID should be indexed");
+        assertInvalid("Price.Value", "Field Price of path Price.Value isn't a sub-message");
+        assertInvalid("Parties[x].PartyID", "Invalid index x of path Parties[x].PartyID");
+        assertInvalid("Parties[-1].PartyID", "Negative index -1 of path Parties[-1].PartyID");
+        assertInvalid("Parties[-2].PartyID", "Negative index -2 of path Parties[-2].PartyID");
+    }
+
+    private void assertInvalid(String path, String message) {
+        try {
+            FieldPath.compile(structure, path);
+            Assert.fail("Path is compiled: " + path);
+        } catch (EPSCommonException e) {
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static IMessage createOrder() {
+        MapMessage first = new MapMessage(NAMESPACE, "Party");
+        first.addField("PartyID", "A");
+        MapMessage second = new MapMessage(NAMESPACE, "Party");
+        second.addField("PartyID", "B");
+
+        MapMessage order = new MapMessage(NAMESPACE, "Order");
+        order.addField("Price", new BigDecimal("1"));
+        order.addField("Parties", new ArrayList<>(Arrays.asList(first, second)));
+        return order;
+    }
+
+    private static IMessageStructure createOrderStructure() {
+        Map<String, IFieldStructure> partyFields = new LinkedHashMap<>();
+        partyFields.put("PartyID", new FieldStructure("PartyID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        partyFields.put("PartyRole", new FieldStructure("PartyRole", NAMESPACE, JavaType.JAVA_LANG_INTEGER, false, StructureType.SIMPLE));
+        IMessageStructure party = new MessageStructure("Party", NAMESPACE, null, partyFields, null, null);
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        fields.put("Price", new FieldStructure("Price", NAMESPACE, JavaType.JAVA_MATH_BIG_DECIMAL, false, StructureType.SIMPLE));
+        fields.put("Parties", new MessageStructure("Parties", NAMESPACE, true, party));
+
+        return new MessageStructure("Order", NAMESPACE, null, fields, null, null);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.DefaultMessageFactory;
+import com.exactpro.sf.common.impl.messages.FrozenMessage;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestMessageFingerprint {
+    private static final Path BASE_DIR = Paths.get((System.getProperty("basedir") == null) ? "." : System.getProperty("basedir")).toAbsolutePath().normalize();
+    private static final String DICTIONARY_PATH = "src" + File.separator + "test" + File.separator + "resources" + File.separator + "testMessages.xml";
+
+    @Test
+    public void testFingerprint() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        IMessageStructure structure = dictionary.getMessages().get("TestMessage");
+
+        IMessage first = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        first.addField("Long", 4L);
+        first.addField("BigDecimal", new BigDecimal("1.50"));
+        first.addField("String", "value");
+        first.addField("Collection", Arrays.asList("1", "2"));
+
+        IMessage second = first.cloneMessage();
+        second.addField("BigDecimal", new BigDecimal("1.5"));
+
+        Assert.assertEquals(MessageFingerprint.of(structure, first), MessageFingerprint.of(structure, second));
+
+        second.addField("Long", 5L);
+        Assert.assertNotEquals(MessageFingerprint.of(structure, first), MessageFingerprint.of(structure, second));
+
+        MessageFingerprint fingerprint = new MessageFingerprint(Collections.singleton("Long"));
+        Assert.assertEquals(fingerprint.compute(structure, first), fingerprint.compute(structure, second));
+
+        second.addField("Collection", Arrays.asList("2", "1"));
+        Assert.assertNotEquals(fingerprint.compute(structure, first), fingerprint.compute(structure, second));
+    }
+
+    @Test
+    public void testFingerprintDoesNotModifyMessage() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        IMessageStructure structure = dictionary.getMessages().get("TestMessage");
+
+        IMessage message = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        message.addField("Long", "4");
+        message.addField("Collection", Arrays.asList("1", "2"));
+        IMessage frozen = FrozenMessage.of(message);
+
+        long expected = MessageFingerprint.of(structure, message);
+        Assert.assertEquals("4", message.getField("Long"));
+        Assert.assertEquals(Arrays.asList("1", "2"), message.getField("Collection"));
+        Assert.assertEquals(expected, MessageFingerprint.of(structure, frozen));
+    }
+
+    @Test
+    public void testNullElements() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        IMessageStructure structure = dictionary.getMessages().get("TestMessage");
+
+        IMessage first = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        first.addField("Collection", Arrays.asList("1", null));
+
+        IMessage second = first.cloneMessage();
+        Assert.assertEquals(MessageFingerprint.of(structure, first), MessageFingerprint.of(structure, second));
+
+        second.addField("Collection", Arrays.asList(null, "1"));
+        Assert.assertNotEquals(MessageFingerprint.of(structure, first), MessageFingerprint.of(structure, second));
+
+        second.addField("Collection", Arrays.asList("1", "0"));
+        Assert.assertNotEquals(MessageFingerprint.of(structure, first), MessageFingerprint.of(structure, second));
+    }
+
+    private static IDictionaryStructure loadDictionary() throws IOException {
+        try (InputStream fileInputStream = new FileInputStream(new File(BASE_DIR.toString(), DICTIONARY_PATH))) {
+            return new XmlDictionaryStructureLoader().load(fileInputStream);
+        }
+    }
+}
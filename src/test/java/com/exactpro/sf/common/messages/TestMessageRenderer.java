@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.FieldIndex;
+import com.exactpro.sf.common.impl.messages.IndexedMessage;
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestMessageRenderer {
+
+    @Test
+    public void testRender() {
+        IMessage message = createMessage(null);
+
+        String expected = "Price=10|Tags=[1, 2]|PartyID=A|rawMessage=|rawMessage=0aff";
+        Assert.assertEquals(expected, message.toString());
+        Assert.assertEquals(expected, MessageRenderer.DEFAULT.render(message, new StringBuilder()).toString());
+
+        ByteBuffer buffer = MessageRenderer.DEFAULT.render(message, ByteBuffer.allocate(256));
+        Assert.assertEquals(expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTruncateAndEscape() {
+        IMessage message = createMessage("a\u0000b");
+        MessageRenderer renderer = new MessageRenderer(20, true);
+
+        Assert.assertEquals("Name=a&NULLb|Pric...", renderer.render(message));
+        Assert.assertEquals("a&NULLb&NULL", MessageUtil.escapeCharacter("a\u0000b\u0000"));
+    }
+
+    @Test
+    public void testUnpairedSurrogates() {
+        for (String name : Arrays.asList("a\uD83D\uDE00b", "a\uD800b", "a\uD800\uD800b", "a\uDC00b", "a\uD800")) {
+            MapMessage message = new MapMessage("test", "Order");
+            message.addField("Name", name);
+
+            ByteBuffer buffer = MessageRenderer.DEFAULT.render(message, ByteBuffer.allocate(256));
+            byte[] expected = MessageRenderer.DEFAULT.render(message).getBytes(StandardCharsets.UTF_8);
+            Assert.assertArrayEquals(name, expected, Arrays.copyOf(buffer.array(), buffer.position()));
+        }
+    }
+
+    @Test
+    public void testConvertMsgToHumanReadable() throws IOException {
+        IDictionaryStructure dictionary;
+
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "testMessages.xml"))) {
+            dictionary = new XmlDictionaryStructureLoader().load(inputStream);
+        }
+
+        MapMessage message = new MapMessage(dictionary.getNamespace(), "TestMessage");
+        message.addField("String", "a\u0000b");
+        message.addField("Long", 1L);
+
+        Assert.assertEquals("Long=1; String=a&NULLb; ", MessageUtil.convertMsgToHumanReadable(message, dictionary));
+    }
+
+    private static IMessage createMessage(String name) {
+        MapMessage party = new MapMessage("test", "Party");
+        party.addField("PartyID", "A");
+
+        IndexedMessage message = new IndexedMessage("test", "Order", FieldIndex.of("Order", Arrays.asList("Name", "Price", "Tags", "Party")));
+        if (name != null) {
+            message.addField("Name", name);
+        }
+        message.addField("Price", new BigDecimal("1E+1"));
+        message.addField("Tags", Arrays.asList(1, 2));
+        message.addField("Party", party);
+        message.getMetaData().setRawMessage(new byte[] { 0x0A, (byte)0xFF });
+        return message;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.messages.impl.Metadata;
+import com.exactpro.sf.common.util.SystemClock;
+
+public class TestMsgMetaData {
+
+    @Test
+    public void testSlotsAndCustomKeys() {
+        Date timestamp = new Date();
+        MsgMetaData metaData = new MsgMetaData("test", "Order", timestamp, 1L, 2L);
+
+        metaData.setAdmin(true);
+        metaData.setDirty(false);
+        metaData.set("custom", "value");
+        metaData.set(MetadataProperty.BATCH_SEQUENCE.getPropertyName(), 3);
+
+        Assert.assertTrue(metaData.isAdmin());
+        Assert.assertFalse(metaData.isDirty());
+        Assert.assertFalse(metaData.isRejected());
+        Assert.assertEquals(1L, metaData.getId());
+        Assert.assertEquals(Long.valueOf(2L), metaData.getSequence());
+        Assert.assertEquals(3, metaData.get(MetadataProperty.BATCH_SEQUENCE.getPropertyName()));
+        Assert.assertEquals("value", metaData.get("custom"));
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", 1L);
+        expected.put("sequence", 2L);
+        expected.put("msgTimestamp", timestamp);
+        expected.put("msgNamespace", "test");
+        expected.put("msgName", "Order");
+        expected.put("isAdmin", true);
+        expected.put("isDirty", false);
+        expected.put("batchsequence", 3);
+        expected.put("custom", "value");
+
+        Assert.assertEquals(expected.keySet(), metaData.getKeys());
+        Assert.assertEquals(expected.hashCode(), metaData.hashCode());
+
+        metaData.remove("custom");
+        MetadataExtensions.setSequence(metaData, null);
+        Assert.assertFalse(metaData.contains("custom"));
+        Assert.assertNull(metaData.getSequence());
+        Assert.assertEquals(7, metaData.getKeys().size());
+
+        metaData.clear();
+        Assert.assertTrue(metaData.getKeys().isEmpty());
+    }
+
+    @Test
+    public void testCloneAndEquals() {
+        MsgMetaData metaData = new MsgMetaData("test", "Order");
+        metaData.setRejectReason("reason");
+        metaData.set("custom", 1);
+
+        Metadata copy = new Metadata();
+        MetadataExtensions.merge(copy, metaData);
+
+        Assert.assertEquals(metaData, copy);
+        Assert.assertTrue(MetadataExtensions.isRejected(copy));
+
+        MsgMetaData cloned = metaData.clone();
+        Assert.assertNotEquals(metaData.getId(), cloned.getId());
+        Assert.assertEquals("reason", cloned.getRejectReason());
+        Assert.assertEquals(1, cloned.get("custom"));
+    }
+
+    @Test
+    public void testSharedRawMessageBuffer() {
+        AtomicBoolean released = new AtomicBoolean();
+        RawMessageBuffer network = RawMessageBuffer.wrap(ByteBuffer.wrap(new byte[] { 0, 1, 2, (byte)0xAB, 4 }), () -> released.set(true));
+
+        MapMessage message = new MapMessage("test", "Order");
+        message.getMetaData().setRawMessageBuffer(network.slice(1, 3));
+        network.release();
+
+        MapMessage cloned = message.cloneMessage();
+        Assert.assertEquals(2, network.refCount());
+        Assert.assertArrayEquals(new byte[] { 1, 2, (byte)0xAB }, cloned.getMetaData().getRawMessage());
+        Assert.assertEquals("rawMessage=0102ab", cloned.toString());
+        Assert.assertEquals(message.getMetaData().getRawMessageBuffer(), cloned.getMetaData().getRawMessageBuffer());
+
+        message.getMetaData().releaseRawMessage();
+        Assert.assertFalse(released.get());
+        cloned.getMetaData().setRawMessage(new byte[0]);
+        Assert.assertTrue(released.get());
+    }
+
+    @Test
+    public void testCopiedRawMessageBufferIsRetained() {
+        AtomicBoolean released = new AtomicBoolean();
+        Metadata metadata = new Metadata();
+        MetadataExtensions.setRawMessageBuffer(metadata, RawMessageBuffer.wrap(ByteBuffer.wrap(new byte[] { 1, 2 }), () -> released.set(true)));
+        RawMessageBuffer buffer = MetadataExtensions.getRawMessageBuffer(metadata);
+
+        IMetadata cloned = metadata.clone();
+        IMetadata merged = MetadataExtensions.merge(new Metadata(), metadata);
+        MsgMetaData copied = new MsgMetaData(metadata);
+        Assert.assertEquals(4, buffer.refCount());
+
+        MetadataExtensions.merge(merged, metadata);
+        Assert.assertEquals(4, buffer.refCount());
+
+        MetadataExtensions.setRawMessageBuffer(metadata, null);
+        MetadataExtensions.setRawMessageBuffer(cloned, null);
+        MetadataExtensions.setRawMessageBuffer(merged, null);
+        Assert.assertFalse(released.get());
+        Assert.assertArrayEquals(new byte[] { 1, 2 }, copied.getRawMessage());
+
+        copied.releaseRawMessage();
+        Assert.assertTrue(released.get());
+    }
+
+    @Test
+    public void testTimestampNanos() {
+        MessageUtil.setClock(() -> 1_500_000_000_123_456_789L);
+
+        try {
+            MsgMetaData metaData = new MsgMetaData("test", "Order");
+            Assert.assertEquals(1_500_000_000_123_456_789L, metaData.getMsgTimestampNanos());
+
+            Date timestamp = metaData.getMsgTimestamp();
+            Assert.assertEquals(1_500_000_000_123L, timestamp.getTime());
+            Assert.assertEquals(timestamp, metaData.getMsgTimestamp());
+            Assert.assertNotSame(timestamp, metaData.getMsgTimestamp());
+
+            MsgMetaData copy = new MsgMetaData(metaData);
+            Assert.assertEquals(1_500_000_000_123_456_789L, copy.getMsgTimestampNanos());
+            Assert.assertEquals(metaData, copy);
+            Assert.assertEquals(metaData.hashCode(), copy.hashCode());
+
+            MsgMetaData withDate = new MsgMetaData("test", "Order", new Date(1_500_000_000_123L), metaData.getId(), metaData.getSequence());
+            Assert.assertEquals(1_500_000_000_123_000_000L, withDate.getMsgTimestampNanos());
+            Assert.assertEquals(metaData.hashCode(), withDate.hashCode());
+        } finally {
+            MessageUtil.setClock(SystemClock.INSTANCE);
+        }
+    }
+}
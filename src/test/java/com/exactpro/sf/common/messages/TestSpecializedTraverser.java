@@ -0,0 +1,140 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.DefaultMessageFactory;
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestSpecializedTraverser {
+
+    @Test
+    public void testSpecializedTraversal() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        IMessageStructure structure = dictionary.getMessages().get("TestMessage");
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+
+        for (String fieldName : Arrays.asList("Long", "BigDecimal", "String", "Collection")) {
+            fields.put(fieldName, structure.getFields().get(fieldName));
+        }
+
+        TraversalPlan plan = TraversalPlan.of(fields);
+
+        SpecializedTraverser traverser = SpecializedTraverser.of(plan, RecordingVisitor.class);
+        Assert.assertNotNull(traverser);
+        Assert.assertSame(traverser, SpecializedTraverser.of(plan, RecordingVisitor.class));
+        // package-private visitors are traversed as usual
+        Assert.assertNull(SpecializedTraverser.of(plan, TestVisitor.class));
+
+        IMessage message = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        message.addField("Long", "4");
+        message.addField("BigDecimal", "7");
+        message.addField("String", 9);
+        message.addField("Collection", Arrays.asList("1", "2"));
+        IMessage copy = message.cloneMessage();
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        MessageStructureReader.SPECIALIZED_READER.traverse(visitor, fields, message, MessageStructureReaderHandlerImpl.instance());
+        Assert.assertEquals(Arrays.asList("Long=4", "BigDecimal=7", "String=9", "Collection=[1, 2]"), visitor.values);
+        Assert.assertEquals(Long.class, message.getField("Long").getClass());
+        Assert.assertEquals(Arrays.asList(1, 2), message.getField("Collection"));
+
+        // overriding a per-field method disables specialization
+        MessageStructureReader interpreted = new MessageStructureReader(true) {
+            @Override
+            protected void visitComplexField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, String fieldName, Object value) {
+                super.visitComplexField(curField, msgStrVisitor, fieldName, value);
+            }
+        };
+
+        RecordingVisitor expected = new RecordingVisitor();
+        interpreted.traverse(expected, fields, copy, MessageStructureReaderHandlerImpl.instance());
+        Assert.assertEquals(expected.values, visitor.values);
+        for (String fieldName : fields.keySet()) {
+            Assert.assertEquals(copy.<Object>getField(fieldName), message.getField(fieldName));
+        }
+    }
+
+    @Test
+    public void testLargePlansAreNotSpecialized() {
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+
+        for (int i = 0; i <= SpecializedTraverser.MAX_FIELDS; i++) {
+            String name = "Field" + i;
+            fields.put(name, new FieldStructure(name, "test", JavaType.JAVA_LANG_LONG, false, StructureType.SIMPLE));
+        }
+
+        Assert.assertNull(SpecializedTraverser.of(TraversalPlan.of(fields), RecordingVisitor.class));
+
+        fields.remove("Field0");
+        Assert.assertNotNull(SpecializedTraverser.of(TraversalPlan.of(new LinkedHashMap<>(fields)), RecordingVisitor.class));
+    }
+
+    public static class RecordingVisitor extends DefaultMessageStructureVisitor {
+        private final List<String> values = new ArrayList<>();
+
+        @Override
+        public void visit(String fieldName, Long value, IFieldStructure fldStruct, boolean isDefault) {
+            record(fieldName, value);
+        }
+
+        @Override
+        public void visit(String fieldName, BigDecimal value, IFieldStructure fldStruct, boolean isDefault) {
+            record(fieldName, value);
+        }
+
+        @Override
+        public void visit(String fieldName, String value, IFieldStructure fldStruct, boolean isDefault) {
+            record(fieldName, value);
+        }
+
+        @Override
+        public void visitIntCollection(String fieldName, List<Integer> value, IFieldStructure fldStruct, boolean isDefault) {
+            record(fieldName, value);
+        }
+
+        private void record(String fieldName, Object value) {
+            if (value != null) {
+                values.add(fieldName + "=" + value);
+            }
+        }
+    }
+
+    private static IDictionaryStructure loadDictionary() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "testMessages.xml"))) {
+            return new XmlDictionaryStructureLoader().load(inputStream);
+        }
+    }
+}
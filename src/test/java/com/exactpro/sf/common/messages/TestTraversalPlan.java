@@ -0,0 +1,114 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.DefaultMessageFactory;
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestTraversalPlan {
+
+    private IDictionaryStructure dictionary;
+    private IMessageStructure structure;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "testMessages.xml"))) {
+            dictionary = new XmlDictionaryStructureLoader().load(inputStream);
+        }
+        structure = dictionary.getMessages().get("TestMessage");
+    }
+
+    @Test
+    public void testTraversalPlan() {
+        TraversalPlan plan = TraversalPlan.of(structure.getFields());
+        Assert.assertSame(plan, TraversalPlan.of(structure.getFields()));
+        Assert.assertSame(plan, plan.derive(structure.getFields()));
+        Assert.assertEquals(structure.getFields().size(), plan.size());
+        Assert.assertSame(structure.getFields().get("Long"), plan.getHandler("Long").getStructure());
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>(structure.getFields());
+        fields.put("Unknown", new FieldStructure("Unknown", dictionary.getNamespace(), JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        TraversalPlan derived = plan.derive(fields);
+        Assert.assertSame(plan.getHandler("Long"), derived.getHandler("Long"));
+        Assert.assertTrue(derived.getHandler("Unknown").isPlainString());
+    }
+
+    @Test
+    public void testLegacyHooks() {
+        // subclasses overriding per-field methods are still called for each field
+        List<String> visited = new ArrayList<>();
+        MessageStructureReader reader = new MessageStructureReader() {
+            @Override
+            protected void visitField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler,
+                    IMessage message, String fieldName, Object value) {
+                visited.add(fieldName);
+            }
+        };
+        IMessage message = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        reader.traverse(new TestVisitor<>(), structure, message, MessageStructureReaderHandlerImpl.instance());
+        Assert.assertEquals(new ArrayList<>(structure.getFields().keySet()), visited);
+    }
+
+    @Test
+    public void testLegacyHooksOfTraverserGetOriginalStructure() {
+        List<IFieldStructure> received = new ArrayList<>();
+        List<IFieldStructure> adjusted = new ArrayList<>();
+        MessageTraverser traverser = new MessageTraverser() {
+            @Override
+            protected void visitField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessageStructureReaderHandler handler,
+                    IMessage message, String fieldName, Object value) {
+                received.add(curField);
+                super.visitField(curField, msgStrVisitor, handler, message, fieldName, value);
+            }
+
+            @Override
+            protected void visitSimpleField(IFieldStructure curField, IMessageStructureVisitor msgStrVisitor, IMessage message,
+                    JavaType javaType, String fieldName, Object value, boolean isDefault) {
+                adjusted.add(curField);
+            }
+        };
+
+        IMessage message = DefaultMessageFactory.getFactory().createMessage(structure.getName(), dictionary.getNamespace());
+        message.addField("Long", "value");
+        traverser.traverse(new TestVisitor<>(), structure, message, MessageStructureReaderHandlerImpl.instance());
+
+        IFieldStructure original = structure.getFields().get("Long");
+        Assert.assertSame(original, received.get(new ArrayList<>(structure.getFields().keySet()).indexOf("Long")));
+
+        IFieldStructure inferred = adjusted.stream().filter(field -> "Long".equals(field.getName())).findFirst().get();
+        Assert.assertNotSame(original, inferred);
+        Assert.assertEquals(JavaType.JAVA_LANG_STRING, inferred.getJavaType());
+    }
+}
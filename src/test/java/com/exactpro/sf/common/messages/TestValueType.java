@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.messages;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IFieldInfo.FieldType;
+
+public class TestValueType {
+
+    @Test
+    public void testClassify() {
+        for (JavaType javaType : JavaType.values()) {
+            Class<?> type = ValueType.javaClass(javaType);
+            Assert.assertEquals(javaType.value(), type.getName());
+            Assert.assertEquals(javaType, ValueType.of(type).getJavaType());
+            Assert.assertEquals(javaType, JavaType.fromValue(javaType.value()));
+            Assert.assertNotNull(ValueType.of(type).getFieldType());
+            Assert.assertFalse(ValueType.of(type).isCollection());
+        }
+
+        Assert.assertSame(ValueType.of(Integer.class), ValueType.of(42));
+        Assert.assertEquals(FieldType.DECIMAL, ValueType.of(BigDecimal.ONE).getFieldType());
+        Assert.assertEquals(FieldType.DATE, ValueType.of(new LocalDate[0]).getFieldType());
+        Assert.assertTrue(ValueType.of(new LocalDate[0]).isCollection());
+        Assert.assertEquals(FieldType.INT, ValueType.of(new int[0]).getFieldType());
+        Assert.assertTrue(ValueType.of(new ArrayList<>()).isCollection());
+        Assert.assertNull(ValueType.of(new ArrayList<>()).getFieldType());
+
+        ValueType message = ValueType.of(new MapMessage("test", "Test"));
+        Assert.assertTrue(message.isMessage());
+        Assert.assertEquals(FieldType.SUBMESSAGE, message.getFieldType());
+        Assert.assertNull(message.getJavaType());
+
+        ValueType unknown = ValueType.of(Object.class);
+        Assert.assertNull(unknown.getJavaType());
+        Assert.assertNull(unknown.getFieldType());
+        Assert.assertFalse(ValueType.of(new Integer[0]).isCollection());
+
+        try {
+            unknown.requireJavaType();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("java.lang.Object", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMapFieldInfo() {
+        MapMessage message = new MapMessage("test", "Test");
+        message.addField("Price", new BigDecimal("1.5"));
+        message.addField("Tags", Arrays.asList("a", "b"));
+        message.addField("Flags", new boolean[] { true });
+
+        Assert.assertEquals(FieldType.DECIMAL, message.getFieldInfo("Price").getFieldType());
+        Assert.assertFalse(message.getFieldInfo("Price").isCollection());
+        Assert.assertTrue(message.getFieldInfo("Tags").isCollection());
+        Assert.assertEquals(FieldType.BOOLEAN, message.getFieldInfo("Flags").getFieldType());
+        Assert.assertTrue(message.getFieldInfo("Flags").isCollection());
+        Assert.assertEquals(JavaType.JAVA_MATH_BIG_DECIMAL, message.getFieldType("Price"));
+        Assert.assertEquals(Long.valueOf(7), ValueType.of(Long.class).convert("7"));
+    }
+}
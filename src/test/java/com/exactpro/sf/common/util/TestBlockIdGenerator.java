@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBlockIdGenerator {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUniqueAndMonotonic() throws InterruptedException {
+        BlockIdGenerator generator = new BlockIdGenerator(100, 16, null);
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                long previous = Long.MIN_VALUE;
+                for (int j = 0; j < 1000; j++) {
+                    long value = generator.next();
+                    if (value <= previous || !values.add(value)) {
+                        failures.incrementAndGet();
+                    }
+                    previous = value;
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, failures.get());
+        Assert.assertEquals(4000, values.size());
+    }
+
+    @Test
+    public void testReserve() {
+        BlockIdGenerator generator = new BlockIdGenerator(0, 16, null);
+
+        Assert.assertEquals(0, generator.next());
+        Assert.assertEquals(1, generator.reserve(10));
+        Assert.assertEquals(11, generator.next());
+        Assert.assertEquals(16, generator.reserve(100));
+        Assert.assertEquals(12, generator.next());
+        Assert.assertEquals(116, generator.reserve(8));
+    }
+
+    @Test
+    public void testStoreSurvivesRestart() throws IOException {
+        FileHighWaterMarkStore store = new FileHighWaterMarkStore(folder.newFolder().toPath().resolve("sequence"));
+        Assert.assertEquals(Long.MIN_VALUE, store.load());
+
+        long last = 0;
+        BlockIdGenerator generator = new BlockIdGenerator(0, 4, store);
+        for (int i = 0; i < 10; i++) {
+            last = generator.next();
+        }
+
+        Assert.assertTrue(store.load() > last);
+        Assert.assertTrue(new BlockIdGenerator(0, 4, store).next() > last);
+    }
+}
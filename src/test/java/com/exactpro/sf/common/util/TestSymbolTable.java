@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.messages.structures.IDictionaryStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.loaders.XmlDictionaryStructureLoader;
+
+public class TestSymbolTable {
+
+    @Test
+    public void testDictionaryNamesAreInterned() throws IOException {
+        IDictionaryStructure dictionary = loadDictionary();
+        IMessageStructure root = dictionary.getMessages().get("Root");
+
+        Assert.assertSame(dictionary.getNamespace(), root.getNamespace());
+        Assert.assertSame(root.getName(), SymbolTable.intern(new String("Root")));
+
+        MapMessage message = new MapMessage(new String(dictionary.getNamespace()), new String("Root"));
+        message.addFieldsMap(Collections.singletonMap(new String("SubMessage"), "value"));
+        Assert.assertSame(root.getName(), message.getName());
+        Assert.assertSame(root.getFields().get("SubMessage").getName(), message.getFieldNames().iterator().next());
+    }
+
+    @Test
+    public void testUnknownNamesAreInterned() {
+        String name = SymbolTable.intern(new String("NotInDictionary"));
+
+        Assert.assertSame(name, SymbolTable.intern(new String("NotInDictionary")));
+        Assert.assertNull(SymbolTable.intern(null));
+    }
+
+    private static IDictionaryStructure loadDictionary() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src", "test", "resources", "withIsEncodeStructure.xml"))) {
+            return new XmlDictionaryStructureLoader().load(inputStream);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009-2026 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.sf.comparison;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.exactpro.sf.common.impl.messages.MapMessage;
+import com.exactpro.sf.common.impl.messages.xml.configuration.JavaType;
+import com.exactpro.sf.common.messages.IMessage;
+import com.exactpro.sf.common.messages.structures.IFieldStructure;
+import com.exactpro.sf.common.messages.structures.IMessageStructure;
+import com.exactpro.sf.common.messages.structures.StructureType;
+import com.exactpro.sf.common.messages.structures.impl.FieldStructure;
+import com.exactpro.sf.common.messages.structures.impl.MessageStructure;
+import com.exactpro.sf.comparison.MessageComparator.Mismatch;
+
+public class TestMessageComparator {
+    private static final String NAMESPACE = "test";
+
+    private final IMessageStructure structure = createOrderStructure();
+
+    @Test
+    public void testCompare() {
+        MessageComparator comparator = new MessageComparator(new ComparisonRules());
+        IMessage expected = createOrder("A", new BigDecimal("1.50"), 1.0);
+        IMessage actual = createOrder("A", new BigDecimal("1.5"), 1.0);
+
+        Assert.assertTrue(comparator.compare(structure, expected, actual));
+        Assert.assertTrue(comparator.diff(structure, expected, actual).isEmpty());
+
+        actual.addField("Unknown", "value");
+        Assert.assertFalse(comparator.compare(structure, expected, actual));
+        Assert.assertEquals(Collections.singletonList("Unknown: expected [null], actual [value]"), toStrings(comparator.diff(structure, expected, actual)));
+    }
+
+    @Test
+    public void testDiff() {
+        MessageComparator comparator = new MessageComparator(new ComparisonRules());
+        IMessage expected = createOrder("A", new BigDecimal("1.5"), 1.0);
+        IMessage actual = createOrder("B", new BigDecimal("1.6"), 1.0);
+        actual.removeField("ClOrdID");
+
+        Assert.assertFalse(comparator.compare(structure, expected, actual));
+        Assert.assertEquals(Arrays.asList(
+                "ClOrdID: expected [1], actual [null]",
+                "Price: expected [1.5], actual [1.6]",
+                "Parties[1].PartyID: expected [A], actual [B]"), toStrings(comparator.diff(structure, expected, actual)));
+    }
+
+    @Test
+    public void testRules() {
+        ComparisonRules rules = new ComparisonRules()
+                .ignore("PartyID")
+                .decimalScale("Price", 0)
+                .epsilon("Rate", 0.01);
+        MessageComparator comparator = new MessageComparator(rules);
+
+        IMessage expected = createOrder("A", new BigDecimal("1.6"), 1.0);
+        IMessage actual = createOrder("B", new BigDecimal("2.4"), 1.005);
+        Assert.assertTrue(comparator.compare(structure, expected, actual));
+
+        actual.addField("Rate", 1.02);
+        Assert.assertEquals(Collections.singletonList("Rate: expected [1.0], actual [1.02]"), toStrings(comparator.diff(structure, expected, actual)));
+    }
+
+    private static List<String> toStrings(List<Mismatch> mismatches) {
+        return mismatches.stream().map(Mismatch::toString).collect(Collectors.toList());
+    }
+
+    private static IMessage createOrder(String partyID, BigDecimal price, double rate) {
+        MapMessage first = new MapMessage(NAMESPACE, "Party");
+        first.addField("PartyID", "A");
+        MapMessage second = new MapMessage(NAMESPACE, "Party");
+        second.addField("PartyID", partyID);
+
+        MapMessage order = new MapMessage(NAMESPACE, "Order");
+        order.addField("ClOrdID", "1");
+        order.addField("Price", price);
+        order.addField("Rate", rate);
+        order.addField("Parties", Arrays.asList(first, second));
+        return order;
+    }
+
+    private static IMessageStructure createOrderStructure() {
+        Map<String, IFieldStructure> partyFields = new LinkedHashMap<>();
+        partyFields.put("PartyID", new FieldStructure("PartyID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        IMessageStructure party = new MessageStructure("Party", NAMESPACE, null, partyFields, null, null);
+
+        Map<String, IFieldStructure> fields = new LinkedHashMap<>();
+        fields.put("ClOrdID", new FieldStructure("ClOrdID", NAMESPACE, JavaType.JAVA_LANG_STRING, false, StructureType.SIMPLE));
+        fields.put("Price", new FieldStructure("Price", NAMESPACE, JavaType.JAVA_MATH_BIG_DECIMAL, false, StructureType.SIMPLE));
+        fields.put("Rate", new FieldStructure("Rate", NAMESPACE, JavaType.JAVA_LANG_DOUBLE, false, StructureType.SIMPLE));
+        fields.put("Parties", new MessageStructure("Parties", NAMESPACE, true, party));
+
+        return new MessageStructure("Order", NAMESPACE, null, fields, null, null);
+    }
+}